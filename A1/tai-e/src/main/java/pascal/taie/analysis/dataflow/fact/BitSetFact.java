@@ -0,0 +1,352 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * Set-like data-flow facts for elements that are densely numbered,
+ * e.g., the variables of a method. Elements are stored as bits in
+ * a word array, and operations between two bit-set facts are performed
+ * word by word without creating intermediate objects.
+ * <p>
+ * The fact can be mixed with other {@link SetFact}s; operations on them
+ * fall back to element-wise ones.
+ *
+ * @param <E> type of elements
+ */
+public class BitSetFact<E extends Indexable> extends SetFact<E> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private static final long[] EMPTY_WORDS = new long[0];
+
+    private final Bits<E> bits;
+
+    /**
+     * @param decoder maps indexes back to elements, e.g., {@code IR::getVar}.
+     */
+    public BitSetFact(IntFunction<E> decoder) {
+        this(new Bits<>(decoder, EMPTY_WORDS));
+    }
+
+    private BitSetFact(Bits<E> bits) {
+        super(bits, true);
+        this.bits = bits;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        return bits.contains(e);
+    }
+
+    @Override
+    public boolean add(E e) {
+        return bits.add(e);
+    }
+
+    @Override
+    public boolean remove(E e) {
+        return bits.remove(e);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<E> filter) {
+        return bits.removeIf(filter);
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        if (!(other instanceof BitSetFact<E> that)) {
+            return super.union(other);
+        }
+        long[] src = that.bits.words;
+        int n = lastNonZero(src) + 1;
+        bits.ensureCapacity(n);
+        long[] dst = bits.words;
+        boolean changed = false;
+        for (int i = 0; i < n; ++i) {
+            long old = dst[i];
+            long w = old | src[i];
+            if (w != old) {
+                dst[i] = w;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Unions other fact, except the given element, into this fact,
+     * i.e., this = this + (other - {e}). This is the kill/gen shape of
+     * backward transfer functions and avoids copying {@code other}.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean unionExcept(BitSetFact<E> other, E e) {
+        long[] src = other.bits.words;
+        int n = lastNonZero(src) + 1;
+        bits.ensureCapacity(n);
+        long[] dst = bits.words;
+        int killIndex = e.getIndex();
+        int killWord = wordIndex(killIndex);
+        long killMask = ~(1L << killIndex);
+        boolean changed = false;
+        for (int i = 0; i < n; ++i) {
+            long w = src[i];
+            if (i == killWord) {
+                w &= killMask;
+            }
+            long old = dst[i];
+            w |= old;
+            if (w != old) {
+                dst[i] = w;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        if (!(other instanceof BitSetFact<E> that)) {
+            return super.intersect(other);
+        }
+        long[] src = that.bits.words;
+        long[] dst = bits.words;
+        boolean changed = false;
+        for (int i = 0; i < dst.length; ++i) {
+            long old = dst[i];
+            long w = i < src.length ? old & src[i] : 0L;
+            if (w != old) {
+                dst[i] = w;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        if (!(other instanceof BitSetFact<E> that)) {
+            super.set(other);
+            return;
+        }
+        long[] src = that.bits.words;
+        int n = lastNonZero(src) + 1;
+        bits.ensureCapacity(n);
+        long[] dst = bits.words;
+        System.arraycopy(src, 0, dst, 0, n);
+        Arrays.fill(dst, n, dst.length, 0L);
+    }
+
+    @Override
+    public BitSetFact<E> copy() {
+        long[] words = bits.words;
+        return new BitSetFact<>(new Bits<>(bits.decoder,
+                Arrays.copyOf(words, lastNonZero(words) + 1)));
+    }
+
+    @Override
+    public void clear() {
+        bits.clear();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return lastNonZero(bits.words) < 0;
+    }
+
+    @Override
+    public int size() {
+        return bits.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BitSetFact<?> that)) {
+            return super.equals(o);
+        }
+        long[] w1 = bits.words, w2 = that.bits.words;
+        int n = lastNonZero(w1);
+        return n == lastNonZero(w2) && Arrays.equals(w1, 0, n + 1, w2, 0, n + 1);
+    }
+
+    /**
+     * Two bit-set facts with the same bits contain the same elements, thus
+     * the element-based hash code of {@link SetFact} agrees with both
+     * the word-based {@link #equals(Object)} of bit-set facts and
+     * the element-based one with other {@link SetFact}s.
+     */
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >> ADDRESS_BITS_PER_WORD;
+    }
+
+    private static int lastNonZero(long[] words) {
+        int i = words.length - 1;
+        while (i >= 0 && words[i] == 0L) {
+            --i;
+        }
+        return i;
+    }
+
+    /**
+     * The set view of the bits, which backs the inherited {@link SetFact}
+     * operations, e.g., iteration and stream.
+     */
+    private static final class Bits<E extends Indexable> extends AbstractSet<E> {
+
+        private final IntFunction<E> decoder;
+
+        private long[] words;
+
+        private Bits(IntFunction<E> decoder, long[] words) {
+            this.decoder = decoder;
+            this.words = words;
+        }
+
+        private void ensureCapacity(int nWords) {
+            if (words.length < nWords) {
+                words = Arrays.copyOf(words, Math.max(nWords, 2 * words.length));
+            }
+        }
+
+        /**
+         * Besides the bit of the index of {@code o}, also checks that
+         * the element of the index is {@code o}, so that objects of other
+         * numberings (e.g., variables of other methods) are not contained,
+         * which keeps equality with other {@link SetFact}s symmetric.
+         */
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Indexable e)) {
+                return false;
+            }
+            int index = e.getIndex();
+            int wordIndex = wordIndex(index);
+            return wordIndex < words.length &&
+                    (words[wordIndex] & (1L << index)) != 0 &&
+                    o.equals(decoder.apply(index));
+        }
+
+        @Override
+        public boolean add(E e) {
+            int index = e.getIndex();
+            int wordIndex = wordIndex(index);
+            ensureCapacity(wordIndex + 1);
+            long old = words[wordIndex];
+            words[wordIndex] = old | (1L << index);
+            return words[wordIndex] != old;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) {
+                return false;
+            }
+            int index = ((Indexable) o).getIndex();
+            words[wordIndex(index)] &= ~(1L << index);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(words, 0L);
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (long w : words) {
+                size += Long.bitCount(w);
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int next = nextSetBit(0);
+
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public E next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    next = nextSetBit(next + 1);
+                    return decoder.apply(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    words[wordIndex(last)] &= ~(1L << last);
+                    last = -1;
+                }
+            };
+        }
+
+        private int nextSetBit(int fromIndex) {
+            int u = wordIndex(fromIndex);
+            if (u >= words.length) {
+                return -1;
+            }
+            long word = words[u] & (-1L << fromIndex);
+            while (true) {
+                if (word != 0) {
+                    return (u << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+                }
+                if (++u == words.length) {
+                    return -1;
+                }
+                word = words[u];
+            }
+        }
+    }
+}
@@ -44,6 +44,15 @@ public class SetFact<E> {
         set = Sets.newHybridSet(c);
     }
 
+    /**
+     * @param share if true, {@code set} is used directly as the backing set
+     *              of this fact (for specialized set representations),
+     *              otherwise its elements are copied.
+     */
+    SetFact(Set<E> set, boolean share) {
+        this.set = share ? set : Sets.newHybridSet(set);
+    }
+
     public SetFact() {
         this(Collections.emptySet());
     }
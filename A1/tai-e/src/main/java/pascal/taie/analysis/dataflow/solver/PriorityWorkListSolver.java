@@ -0,0 +1,154 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Work-list solver whose work-list is prioritized by the reverse postorder
+ * of the CFG (for forward analyses) or by the postorder (for backward
+ * analyses). The order is computed once per CFG, and a node is queued at
+ * most once at a time. Processing nodes in this order lets most facts
+ * flow through a loop body before the loop head is revisited, which
+ * reduces the number of transfer function evaluations, which are
+ * reported per CFG at debug level.
+ */
+class PriorityWorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    private static final Logger logger = LogManager.getLogger(PriorityWorkListSolver.class);
+
+    PriorityWorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        List<Node> order = reversePostorder(cfg);
+        Map<Node, Integer> priorities = indexOf(order);
+        BitSet workList = new BitSet(order.size());
+        workList.set(0, order.size());
+        int count = 0;
+        for (int i = workList.nextSetBit(0); i >= 0; i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            Node node = order.get(i);
+            Fact in = result.getInFact(node);
+            Fact out = result.getOutFact(node);
+            for (Node pred : cfg.getPredsOf(node)) {
+                analysis.meetInto(result.getOutFact(pred), in);
+            }
+            ++count;
+            if (analysis.transferNode(node, in, out)) {
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    workList.set(priorities.get(succ));
+                }
+            }
+        }
+        report(cfg, order.size(), count);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        List<Node> order = reversePostorder(cfg);
+        Collections.reverse(order); // postorder
+        Map<Node, Integer> priorities = indexOf(order);
+        BitSet workList = new BitSet(order.size());
+        workList.set(0, order.size());
+        int count = 0;
+        for (int i = workList.nextSetBit(0); i >= 0; i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            Node node = order.get(i);
+            Fact in = result.getInFact(node);
+            Fact out = result.getOutFact(node);
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), out);
+            }
+            ++count;
+            if (analysis.transferNode(node, in, out)) {
+                for (Node pred : cfg.getPredsOf(node)) {
+                    workList.set(priorities.get(pred));
+                }
+            }
+        }
+        report(cfg, order.size(), count);
+    }
+
+    /**
+     * @return all nodes of {@code cfg} in reverse postorder of a depth-first
+     * traversal from the entry. Nodes that are unreachable from the entry
+     * are appended in the order of {@link CFG#getNodes()}.
+     */
+    private List<Node> reversePostorder(CFG<Node> cfg) {
+        List<Node> postorder = new ArrayList<>(cfg.getNodes().size());
+        Map<Node, Iterator<Node>> visiting = new HashMap<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        Node entry = cfg.getEntry();
+        visiting.put(entry, cfg.getSuccsOf(entry).iterator());
+        stack.push(entry);
+        // iterative DFS, as CFGs of large methods may be very deep
+        while (!stack.isEmpty()) {
+            Iterator<Node> succs = visiting.get(stack.peek());
+            if (succs.hasNext()) {
+                Node succ = succs.next();
+                if (!visiting.containsKey(succ)) {
+                    visiting.put(succ, cfg.getSuccsOf(succ).iterator());
+                    stack.push(succ);
+                }
+            } else {
+                postorder.add(stack.pop());
+            }
+        }
+        Collections.reverse(postorder);
+        for (Node node : cfg.getNodes()) {
+            if (!visiting.containsKey(node)) {
+                postorder.add(node);
+            }
+        }
+        return postorder;
+    }
+
+    private static <Node> Map<Node, Integer> indexOf(List<Node> order) {
+        Map<Node, Integer> indexes = new HashMap<>(order.size() * 4 / 3 + 1);
+        for (int i = 0; i < order.size(); ++i) {
+            indexes.put(order.get(i), i);
+        }
+        return indexes;
+    }
+
+    private static void report(CFG<?> cfg, int nodes, int count) {
+        logger.debug("{}: {} nodes, {} iterations", cfg.getMethod(), nodes, count);
+    }
+}
@@ -22,9 +22,11 @@
 
 package pascal.taie.analysis.dataflow.solver;
 
+import pascal.taie.analysis.Analysis;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -43,10 +45,20 @@ public abstract class Solver<Node, Fact> {
 
     /**
      * Static factory method to create a new solver for given analysis.
+     * The solver is chosen by the analysis option {@code solver}:
+     * "iterative" (default) or "rpo" for {@link PriorityWorkListSolver}.
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new IterativeSolver<>(analysis);
+        String solver = analysis instanceof Analysis a ?
+                a.getOptions().getString("solver") : null;
+        if (solver == null || solver.equals("iterative")) {
+            return new IterativeSolver<>(analysis);
+        } else if (solver.equals("rpo")) {
+            return new PriorityWorkListSolver<>(analysis);
+        } else {
+            throw new ConfigException("Unknown solver: " + solver);
+        }
     }
 
     /**
@@ -83,8 +95,8 @@ public abstract class Solver<Node, Fact> {
     protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
         cfg.getNodes().forEach(node -> {
-                result.setInFact(node, analysis.newInitialFact());
-                result.setOutFact(node,analysis.newInitialFact());
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node,analysis.newInitialFact(cfg));
         });
 
     }
@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Stores results in a concurrent map, so that analyses running in
+ * parallel can store and query results of the same holder safely.
+ * As {@link ConcurrentHashMap} does not allow null values, a null result
+ * is not stored, i.e., storing null for a key removes its result.
+ */
+public abstract class AbstractResultHolder implements ResultHolder {
+
+    private final Map<String, Object> results = new ConcurrentHashMap<>();
+
+    @Override
+    public <R> void storeResult(String key, R result) {
+        if (result != null) {
+            results.put(key, result);
+        } else {
+            results.remove(key);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R getResult(String key) {
+        return (R) results.get(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R getResult(String key, R defaultResult) {
+        return (R) results.getOrDefault(key, defaultResult);
+    }
+
+    /**
+     * The supplier is invoked outside the map, so it may query this holder
+     * itself. If several threads race on the same absent result, each may
+     * invoke the supplier, but all of them receive the first stored result.
+     * If the supplier returns null, then null is returned and nothing
+     * is stored.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R getResult(String key, Supplier<R> supplier) {
+        Object result = results.get(key);
+        if (result == null) {
+            result = supplier.get();
+            if (result == null) {
+                return null;
+            }
+            Object prev = results.putIfAbsent(key, result);
+            if (prev != null) {
+                result = prev;
+            }
+        }
+        return (R) result;
+    }
+
+    @Override
+    public Collection<String> getKeys() {
+        return results.keySet();
+    }
+
+    @Override
+    public void clearResult(String key) {
+        results.remove(key);
+    }
+
+    @Override
+    public void clearAll() {
+        results.clear();
+    }
+}
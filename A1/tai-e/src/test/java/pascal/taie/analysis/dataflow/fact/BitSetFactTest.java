@@ -0,0 +1,180 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.ir.exp.Var;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static pascal.taie.analysis.dataflow.RandomIRGenerator.newIntVar;
+
+/**
+ * Checks the word-wise operations of {@link BitSetFact} against
+ * the element-wise ones of {@link SetFact}, on facts spanning several
+ * words and with trailing empty words.
+ */
+public class BitSetFactTest {
+
+    private static final int VARS = 200;
+
+    private static final int ROUNDS = 1000;
+
+    private final List<Var> vars = newVars("v");
+
+    @Test
+    public void testUnion() {
+        Random random = new Random(1);
+        for (int i = 0; i < ROUNDS; ++i) {
+            List<Var> a = randomVars(random), b = randomVars(random);
+            SetFact<Var> expected = newSetFact(a);
+            boolean expectedChanged = expected.union(newSetFact(b));
+            BitSetFact<Var> actual = newBitSetFact(a);
+            assertEquals(expectedChanged, actual.union(newBitSetFact(b)));
+            assertSameElements(expected, actual);
+            // mixed with ordinary set facts
+            BitSetFact<Var> mixed = newBitSetFact(a);
+            assertEquals(expectedChanged, mixed.union(newSetFact(b)));
+            assertSameElements(expected, mixed);
+            SetFact<Var> set = newSetFact(a);
+            assertEquals(expectedChanged, set.union(newBitSetFact(b)));
+            assertEquals(expected, set);
+        }
+    }
+
+    @Test
+    public void testUnionExcept() {
+        Random random = new Random(2);
+        for (int i = 0; i < ROUNDS; ++i) {
+            List<Var> a = randomVars(random), b = randomVars(random);
+            Var killed = random.nextBoolean() && !b.isEmpty() ?
+                    b.get(random.nextInt(b.size())) :
+                    vars.get(random.nextInt(VARS));
+            SetFact<Var> expected = newSetFact(a);
+            SetFact<Var> gen = newSetFact(b);
+            gen.remove(killed);
+            boolean expectedChanged = expected.union(gen);
+            BitSetFact<Var> actual = newBitSetFact(a);
+            assertEquals(expectedChanged,
+                    actual.unionExcept(newBitSetFact(b), killed));
+            assertSameElements(expected, actual);
+        }
+    }
+
+    @Test
+    public void testIntersect() {
+        Random random = new Random(3);
+        for (int i = 0; i < ROUNDS; ++i) {
+            List<Var> a = randomVars(random), b = randomVars(random);
+            SetFact<Var> expected = newSetFact(a);
+            boolean expectedChanged = expected.intersect(newSetFact(b));
+            BitSetFact<Var> actual = newBitSetFact(a);
+            assertEquals(expectedChanged, actual.intersect(newBitSetFact(b)));
+            assertSameElements(expected, actual);
+            BitSetFact<Var> mixed = newBitSetFact(a);
+            assertEquals(expectedChanged, mixed.intersect(newSetFact(b)));
+            assertSameElements(expected, mixed);
+        }
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        Random random = new Random(4);
+        for (int i = 0; i < ROUNDS; ++i) {
+            List<Var> a = randomVars(random);
+            BitSetFact<Var> bits = newBitSetFact(a);
+            assertSameElements(newSetFact(a), bits);
+            // trailing empty words do not matter
+            BitSetFact<Var> grown = newBitSetFact(a);
+            Var last = vars.get(VARS - 1);
+            if (grown.add(last)) {
+                assertNotEquals(bits, grown);
+                grown.remove(last);
+            }
+            assertEquals(bits, grown);
+            assertEquals(grown, bits);
+            assertEquals(bits.hashCode(), grown.hashCode());
+            assertEquals(bits, bits.copy());
+            assertEquals(bits.hashCode(), bits.copy().hashCode());
+        }
+    }
+
+    /**
+     * Variables of other methods may have the same indexes as the ones
+     * of the bit-set fact, but they are different elements.
+     */
+    @Test
+    public void testOtherNumbering() {
+        List<Var> others = newVars("w");
+        BitSetFact<Var> bits = newBitSetFact(vars.subList(0, 3));
+        SetFact<Var> set = newSetFact(others.subList(0, 3));
+        assertFalse(bits.contains(others.get(0)));
+        assertNotEquals(bits, set);
+        assertNotEquals(set, bits);
+    }
+
+    private static List<Var> newVars(String prefix) {
+        List<Var> result = new ArrayList<>();
+        for (int i = 0; i < VARS; ++i) {
+            result.add(newIntVar(prefix + i, i));
+        }
+        return result;
+    }
+
+    private List<Var> randomVars(Random random) {
+        List<Var> result = new ArrayList<>();
+        // facts which only use the first word, and ones spanning all words
+        int bound = random.nextBoolean() ? 64 : VARS;
+        int n = random.nextInt(bound);
+        for (int i = 0; i < n; ++i) {
+            result.add(vars.get(random.nextInt(bound)));
+        }
+        return result;
+    }
+
+    private static SetFact<Var> newSetFact(List<Var> elems) {
+        return new SetFact<>(elems);
+    }
+
+    private BitSetFact<Var> newBitSetFact(List<Var> elems) {
+        BitSetFact<Var> fact = new BitSetFact<>(vars::get);
+        elems.forEach(fact::add);
+        return fact;
+    }
+
+    private static void assertSameElements(
+            SetFact<Var> expected, BitSetFact<Var> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        expected.stream().forEach(e -> assertTrue(actual.contains(e)));
+    }
+}
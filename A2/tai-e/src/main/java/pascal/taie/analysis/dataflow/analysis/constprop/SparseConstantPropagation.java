@@ -0,0 +1,805 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Sparse conditional constant propagation (Wegman and Zadeck) on the
+ * def-use chains of a method.
+ * <p>
+ * The IR is not in SSA form, thus a variable may have multiple definitions.
+ * The def-use chains are built per variable as in SSA construction: phis
+ * of each variable are placed at the iterated dominance frontiers of its
+ * definitions, and each use is linked to the single definition or phi
+ * that reaches it by renaming along the dominator tree. Each operand of
+ * a phi is recorded with the CFG edge it arrives on, and the value of a phi
+ * is the meet of the values of the operands on executable edges, thus the
+ * value of a variable at a use is the meet of the values of its definitions
+ * reaching the use via executable edges. Building the chains takes time and memory linear
+ * in the number of nodes, uses and phis (besides computing dominators),
+ * instead of a bit set of reaching definitions per node.
+ * <p>
+ * Values flow only along the def-use chains, and the out edges of
+ * {@link If} and {@link SwitchStmt} are marked executable only when their
+ * conditions allow, so statements guarded by constant conditions are never
+ * evaluated.
+ * <p>
+ * Statements and their definitions are evaluated in the same way as
+ * {@link ConstantPropagation#transferNode}.
+ */
+final class SparseConstantPropagation {
+
+    /**
+     * Marks the absence of a node or a definition.
+     */
+    private static final int NONE = -1;
+
+    private final ConstantPropagation cp;
+
+    private final CFG<Stmt> cfg;
+
+    /**
+     * Nodes of the CFG, indexed by their positions in this list.
+     */
+    private final List<Stmt> nodes;
+
+    private final Map<Stmt, Integer> indexes;
+
+    private final int entry;
+
+    private final int[][] preds;
+
+    private final int[][] succs;
+
+    /**
+     * Defined variables of definitions. Parameters are modeled as
+     * definitions at the entry of the method, which come first.
+     * Definitions are followed by phis, which are definitions as well.
+     */
+    private final List<Var> defVars = new ArrayList<>();
+
+    /**
+     * Node indexes of definitions (and phis), NONE for parameters.
+     */
+    private final IntList defSites = new IntList();
+
+    private final Map<Var, BitSet> defsOfVar = new HashMap<>();
+
+    /**
+     * Number of the definitions which are not phis.
+     */
+    private int nDefs;
+
+    /**
+     * Node index -> the definition made by the node, or NONE if none.
+     */
+    private final int[] defOf;
+
+    /**
+     * Node index -> immediate dominator, or NONE if the node is
+     * unreachable from the entry. The entry is its own dominator.
+     */
+    private int[] idom;
+
+    /**
+     * Node index -> the first phi at the node, or NONE if none.
+     * The other phis at the node are linked by {@link #nextPhi}.
+     */
+    private int[] firstPhi;
+
+    private final IntList nextPhi = new IntList();
+
+    /**
+     * Phi -> the definitions (and phis) reaching the phi, together with
+     * the in edges of the phi's node via which they reach the phi.
+     */
+    private final List<List<PhiOperand>> phiOperands = new ArrayList<>();
+
+    /**
+     * Node index -> the variables used by the node, and the definitions
+     * (or phis) of the variables reaching the uses.
+     */
+    private Var[][] useVars;
+
+    private int[][] useDefs;
+
+    /**
+     * Definition -> indexes of the nodes that use the definition.
+     */
+    private List<IntList> nodeUsers;
+
+    /**
+     * Definition -> phis that use the definition.
+     */
+    private List<IntList> phiUsers;
+
+    private Value[] defValues;
+
+    private final boolean[] executable;
+
+    private final Set<Edge<Stmt>> executableEdges = new HashSet<>();
+
+    private final Queue<Edge<Stmt>> flowWorkList = new ArrayDeque<>();
+
+    private final IntList useWorkList = new IntList();
+
+    private final boolean[] inUseWorkList;
+
+    private final IntList phiWorkList = new IntList();
+
+    private boolean[] inPhiWorkList;
+
+    SparseConstantPropagation(ConstantPropagation cp, CFG<Stmt> cfg) {
+        this.cp = cp;
+        this.cfg = cfg;
+        this.nodes = new ArrayList<>(cfg.getNodes());
+        int n = nodes.size();
+        this.indexes = new HashMap<>(n * 4 / 3 + 1);
+        for (int i = 0; i < n; ++i) {
+            indexes.put(nodes.get(i), i);
+        }
+        this.entry = indexes.get(cfg.getEntry());
+        this.preds = new int[n][];
+        this.succs = new int[n][];
+        for (int i = 0; i < n; ++i) {
+            preds[i] = toIndexes(cfg.getPredsOf(nodes.get(i)));
+            succs[i] = toIndexes(cfg.getSuccsOf(nodes.get(i)));
+        }
+        this.defOf = new int[n];
+        this.executable = new boolean[n];
+        this.inUseWorkList = new boolean[n];
+    }
+
+    private int[] toIndexes(Set<Stmt> stmts) {
+        int[] result = new int[stmts.size()];
+        int k = 0;
+        for (Stmt stmt : stmts) {
+            result[k++] = indexes.get(stmt);
+        }
+        return result;
+    }
+
+    SparseCPResult solve() {
+        collectDefinitions();
+        computeDominators();
+        placePhis();
+        buildDefUseChains();
+        propagate();
+        return new SparseCPResult(this);
+    }
+
+    private void collectDefinitions() {
+        for (Var param : cfg.getIR().getParams()) {
+            if (ConstantPropagation.canHoldInt(param)) {
+                newDefinition(param, NONE);
+            }
+        }
+        for (int i = 0; i < nodes.size(); ++i) {
+            Optional<LValue> def = nodes.get(i).getDef();
+            if (def.isPresent() && def.get() instanceof Var var &&
+                    ConstantPropagation.canHoldInt(var)) {
+                defOf[i] = newDefinition(var, i);
+            } else {
+                defOf[i] = NONE;
+            }
+        }
+        nDefs = defVars.size();
+    }
+
+    private int newDefinition(Var var, int site) {
+        int def = defVars.size();
+        defVars.add(var);
+        defSites.add(site);
+        defsOfVar.computeIfAbsent(var, v -> new BitSet()).set(def);
+        return def;
+    }
+
+    /**
+     * Computes immediate dominators by the algorithm of Cooper, Harvey
+     * and Kennedy, which iterates over the nodes in reverse postorder.
+     */
+    private void computeDominators() {
+        int n = nodes.size();
+        int[] rpo = reversePostorder();
+        int[] rpoNumbers = new int[n];
+        Arrays.fill(rpoNumbers, NONE);
+        for (int k = 0; k < rpo.length; ++k) {
+            rpoNumbers[rpo[k]] = k;
+        }
+        idom = new int[n];
+        Arrays.fill(idom, NONE);
+        idom[entry] = entry;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int k = 1; k < rpo.length; ++k) {
+                int b = rpo[k];
+                int newIdom = NONE;
+                for (int p : preds[b]) {
+                    if (idom[p] != NONE) {
+                        newIdom = newIdom == NONE ? p :
+                                intersect(p, newIdom, rpoNumbers);
+                    }
+                }
+                if (idom[b] != newIdom) {
+                    idom[b] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private int intersect(int a, int b, int[] rpoNumbers) {
+        while (a != b) {
+            while (rpoNumbers[a] > rpoNumbers[b]) {
+                a = idom[a];
+            }
+            while (rpoNumbers[b] > rpoNumbers[a]) {
+                b = idom[b];
+            }
+        }
+        return a;
+    }
+
+    /**
+     * @return the nodes reachable from the entry in reverse postorder.
+     */
+    private int[] reversePostorder() {
+        int n = nodes.size();
+        int[] postorder = new int[n];
+        int count = 0;
+        boolean[] visited = new boolean[n];
+        int[] stack = new int[n];
+        int[] cursors = new int[n];
+        int top = 0;
+        stack[top++] = entry;
+        visited[entry] = true;
+        // iterative DFS, as CFGs of large methods may be very deep
+        while (top > 0) {
+            int node = stack[top - 1];
+            if (cursors[node] < succs[node].length) {
+                int succ = succs[node][cursors[node]++];
+                if (!visited[succ]) {
+                    visited[succ] = true;
+                    stack[top++] = succ;
+                }
+            } else {
+                postorder[count++] = node;
+                --top;
+            }
+        }
+        int[] rpo = new int[count];
+        for (int k = 0; k < count; ++k) {
+            rpo[k] = postorder[count - 1 - k];
+        }
+        return rpo;
+    }
+
+    /**
+     * Places the phis of each variable at the iterated dominance frontiers
+     * of the nodes that define the variable.
+     */
+    private void placePhis() {
+        int n = nodes.size();
+        IntList[] frontiers = computeDominanceFrontiers();
+        firstPhi = new int[n];
+        Arrays.fill(firstPhi, NONE);
+        // marks of the nodes for the variable being processed
+        int[] hasPhi = new int[n];
+        int[] queued = new int[n];
+        int mark = 0;
+        IntList workList = new IntList();
+        for (Map.Entry<Var, BitSet> e : defsOfVar.entrySet()) {
+            ++mark;
+            BitSet defs = e.getValue();
+            for (int def = defs.nextSetBit(0); def >= 0;
+                 def = defs.nextSetBit(def + 1)) {
+                int site = defSites.get(def);
+                int node = site != NONE ? site : entry;
+                if (idom[node] != NONE && queued[node] != mark) {
+                    queued[node] = mark;
+                    workList.add(node);
+                }
+            }
+            while (!workList.isEmpty()) {
+                IntList frontier = frontiers[workList.pop()];
+                for (int k = 0; k < frontier.size(); ++k) {
+                    int node = frontier.get(k);
+                    if (hasPhi[node] != mark) {
+                        hasPhi[node] = mark;
+                        int phi = newDefinition(e.getKey(), node);
+                        nextPhi.add(firstPhi[node]);
+                        firstPhi[node] = phi;
+                        phiOperands.add(new ArrayList<>());
+                        if (queued[node] != mark) {
+                            queued[node] = mark;
+                            workList.add(node);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private IntList[] computeDominanceFrontiers() {
+        int n = nodes.size();
+        IntList[] frontiers = new IntList[n];
+        for (int i = 0; i < n; ++i) {
+            frontiers[i] = new IntList();
+        }
+        for (int b = 0; b < n; ++b) {
+            if (idom[b] == NONE || preds[b].length < 2) {
+                continue;
+            }
+            for (int p : preds[b]) {
+                if (idom[p] == NONE) {
+                    continue;
+                }
+                for (int runner = p; runner != idom[b]; runner = idom[runner]) {
+                    IntList frontier = frontiers[runner];
+                    // b has been added via another predecessor
+                    if (!frontier.isEmpty() && frontier.get(frontier.size() - 1) == b) {
+                        break;
+                    }
+                    frontier.add(b);
+                    if (runner == entry) {
+                        break;
+                    }
+                }
+            }
+        }
+        return frontiers;
+    }
+
+    /**
+     * Links each use to the definition (or phi) reaching it by walking
+     * the dominator tree with a stack of definitions per variable.
+     */
+    private void buildDefUseChains() {
+        int n = nodes.size();
+        int nAll = defVars.size();
+        nodeUsers = new ArrayList<>(nAll);
+        phiUsers = new ArrayList<>(nAll);
+        for (int def = 0; def < nAll; ++def) {
+            nodeUsers.add(new IntList());
+            phiUsers.add(new IntList());
+        }
+        useVars = new Var[n][];
+        useDefs = new int[n][];
+        // children of each node in the dominator tree
+        int[] firstChild = new int[n];
+        int[] nextSibling = new int[n];
+        Arrays.fill(firstChild, NONE);
+        for (int i = 0; i < n; ++i) {
+            if (idom[i] != NONE && i != entry) {
+                nextSibling[i] = firstChild[idom[i]];
+                firstChild[idom[i]] = i;
+            }
+        }
+        Map<Var, IntList> stacks = new HashMap<>();
+        for (int def = 0; def < nDefs && defSites.get(def) == NONE; ++def) {
+            push(stacks, def);
+        }
+        // definitions pushed by each node on the path, which are popped
+        // when the walk leaves the node
+        List<Var> pushed = new ArrayList<>();
+        int[] pushedBefore = new int[n];
+        int[] path = new int[n];
+        int[] cursors = new int[n];
+        int top = 0;
+        path[top++] = entry;
+        pushedBefore[entry] = 0;
+        enter(entry, stacks, pushed);
+        cursors[entry] = firstChild[entry];
+        while (top > 0) {
+            int node = path[top - 1];
+            int child = cursors[node];
+            if (child != NONE) {
+                cursors[node] = nextSibling[child];
+                path[top++] = child;
+                pushedBefore[child] = pushed.size();
+                enter(child, stacks, pushed);
+                cursors[child] = firstChild[child];
+            } else {
+                while (pushed.size() > pushedBefore[node]) {
+                    stacks.get(pushed.remove(pushed.size() - 1)).pop();
+                }
+                --top;
+            }
+        }
+    }
+
+    private void enter(int i, Map<Var, IntList> stacks, List<Var> pushed) {
+        for (int phi = firstPhi[i]; phi != NONE; phi = nextPhi.get(phi - nDefs)) {
+            pushed.add(push(stacks, phi));
+        }
+        Set<Var> vars = getUsedVars(i);
+        useVars[i] = vars.toArray(new Var[0]);
+        useDefs[i] = new int[useVars[i].length];
+        for (int k = 0; k < useVars[i].length; ++k) {
+            int def = peek(stacks, useVars[i][k]);
+            useDefs[i][k] = def;
+            if (def != NONE) {
+                nodeUsers.get(def).add(i);
+            }
+        }
+        if (defOf[i] != NONE) {
+            pushed.add(push(stacks, defOf[i]));
+        }
+        for (Edge<Stmt> edge : cfg.getOutEdgesOf(nodes.get(i))) {
+            int succ = indexes.get(edge.getTarget());
+            for (int phi = firstPhi[succ]; phi != NONE; phi = nextPhi.get(phi - nDefs)) {
+                int def = peek(stacks, defVars.get(phi));
+                if (def != NONE) {
+                    phiOperands.get(phi - nDefs).add(new PhiOperand(def, edge));
+                    phiUsers.get(def).add(phi);
+                }
+            }
+        }
+    }
+
+    private Var push(Map<Var, IntList> stacks, int def) {
+        Var var = defVars.get(def);
+        stacks.computeIfAbsent(var, v -> new IntList()).add(def);
+        return var;
+    }
+
+    private static int peek(Map<Var, IntList> stacks, Var var) {
+        IntList stack = stacks.get(var);
+        return stack == null || stack.isEmpty() ?
+                NONE : stack.get(stack.size() - 1);
+    }
+
+    /**
+     * @return the int-holding variables whose values are read when
+     * evaluating the node at index {@code i}.
+     */
+    private Set<Var> getUsedVars(int i) {
+        Set<Var> vars = new HashSet<>();
+        Stmt stmt = nodes.get(i);
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var var && ConstantPropagation.canHoldInt(var)) {
+                vars.add(var);
+            }
+        }
+        if (defOf[i] != NONE &&
+                ((DefinitionStmt<?, ?>) stmt).getRValue() instanceof Var var &&
+                !ConstantPropagation.canHoldInt(var)) {
+            // such definition keeps the incoming value of the defined variable
+            vars.add(defVars.get(defOf[i]));
+        }
+        return vars;
+    }
+
+    private void propagate() {
+        int nAll = defVars.size();
+        defValues = new Value[nAll];
+        inPhiWorkList = new boolean[nAll];
+        for (int def = 0; def < nAll; ++def) {
+            boolean isParam = def < nDefs && defSites.get(def) == NONE;
+            defValues[def] = isParam ? Value.getNAC() : Value.getUndef();
+        }
+        executable[entry] = true;
+        visit(entry);
+        while (!flowWorkList.isEmpty() || !phiWorkList.isEmpty()
+                || !useWorkList.isEmpty()) {
+            Edge<Stmt> edge = flowWorkList.poll();
+            if (edge != null) {
+                if (executableEdges.add(edge)) {
+                    int target = indexes.get(edge.getTarget());
+                    // an operand of the phis at the target may become
+                    // executable, thus the phis are re-evaluated
+                    for (int phi = firstPhi[target]; phi != NONE;
+                         phi = nextPhi.get(phi - nDefs)) {
+                        addPhi(phi);
+                    }
+                    if (!executable[target]) {
+                        executable[target] = true;
+                        visit(target);
+                    }
+                }
+            } else if (!phiWorkList.isEmpty()) {
+                int phi = phiWorkList.pop();
+                inPhiWorkList[phi] = false;
+                Value value = Value.getUndef();
+                for (PhiOperand operand : phiOperands.get(phi - nDefs)) {
+                    if (executableEdges.contains(operand.edge())) {
+                        value = cp.meetValue(value, defValues[operand.def()]);
+                    }
+                }
+                updateValue(phi, value);
+            } else {
+                int i = useWorkList.pop();
+                inUseWorkList[i] = false;
+                if (executable[i]) {
+                    visit(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the value of given definition (or phi), and queues its users
+     * if the value changes.
+     */
+    private void updateValue(int def, Value value) {
+        if (!value.equals(defValues[def])) {
+            defValues[def] = value;
+            IntList users = nodeUsers.get(def);
+            for (int k = 0; k < users.size(); ++k) {
+                int user = users.get(k);
+                if (!inUseWorkList[user]) {
+                    inUseWorkList[user] = true;
+                    useWorkList.add(user);
+                }
+            }
+            IntList phis = phiUsers.get(def);
+            for (int k = 0; k < phis.size(); ++k) {
+                addPhi(phis.get(k));
+            }
+        }
+    }
+
+    private void addPhi(int phi) {
+        if (!inPhiWorkList[phi]) {
+            inPhiWorkList[phi] = true;
+            phiWorkList.add(phi);
+        }
+    }
+
+    private void visit(int i) {
+        Stmt stmt = nodes.get(i);
+        int def = defOf[i];
+        if (def != NONE) {
+            updateValue(def, cp.meetValue(defValues[def], evaluateDefinition(i)));
+        }
+        if (stmt instanceof If ifStmt) {
+            ConditionExp condition = ifStmt.getCondition();
+            // comparisons of non-integers, e.g., references, are unknown
+            Value cond = canHoldInt(condition) ?
+                    ConstantPropagation.evaluate(condition, getOperandFact(condition, i)) :
+                    Value.getNAC();
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                boolean isExecutable = switch (edge.getKind()) {
+                    case IF_TRUE -> cond.isNAC() ||
+                            (cond.isConstant() && cond.getConstant() != 0);
+                    case IF_FALSE -> cond.isNAC() ||
+                            (cond.isConstant() && cond.getConstant() == 0);
+                    default -> true;
+                };
+                if (isExecutable) {
+                    markExecutable(edge);
+                }
+            }
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            Var var = switchStmt.getVar();
+            Value value = ConstantPropagation.canHoldInt(var) ?
+                    getValue(var, i) : Value.getNAC();
+            boolean matched = value.isConstant() &&
+                    switchStmt.getCaseValues().contains(value.getConstant());
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                boolean isExecutable = switch (edge.getKind()) {
+                    case SWITCH_CASE -> value.isNAC() ||
+                            (value.isConstant() && edge.getCaseValue() == value.getConstant());
+                    case SWITCH_DEFAULT -> value.isNAC() ||
+                            (value.isConstant() && !matched);
+                    default -> true;
+                };
+                if (isExecutable) {
+                    markExecutable(edge);
+                }
+            }
+        } else {
+            cfg.getOutEdgesOf(stmt).forEach(this::markExecutable);
+        }
+    }
+
+    private void markExecutable(Edge<Stmt> edge) {
+        if (!executableEdges.contains(edge)) {
+            flowWorkList.add(edge);
+        }
+    }
+
+    private Value evaluateDefinition(int i) {
+        RValue rValue = ((DefinitionStmt<?, ?>) nodes.get(i)).getRValue();
+        if (rValue instanceof Var var) {
+            return ConstantPropagation.canHoldInt(var) ?
+                    getValue(var, i) : getValue(defVars.get(defOf[i]), i);
+        } else if (rValue instanceof IntLiteral literal) {
+            return Value.makeConstant(literal.getValue());
+        } else if (rValue instanceof BinaryExp exp) {
+            return ConstantPropagation.evaluate(exp, getOperandFact(exp, i));
+        } else {
+            return Value.getNAC();
+        }
+    }
+
+    private static boolean canHoldInt(BinaryExp exp) {
+        return ConstantPropagation.canHoldInt(exp.getOperand1()) &&
+                ConstantPropagation.canHoldInt(exp.getOperand2());
+    }
+
+    /**
+     * @return a fact holding the values of the operands of {@code exp}
+     * at the node at index {@code i}.
+     */
+    private CPFact getOperandFact(BinaryExp exp, int i) {
+        CPFact fact = new CPFact();
+        for (Var operand : List.of(exp.getOperand1(), exp.getOperand2())) {
+            if (ConstantPropagation.canHoldInt(operand)) {
+                fact.update(operand, getValue(operand, i));
+            }
+        }
+        return fact;
+    }
+
+    /**
+     * @return the value of {@code var} at (before) the node at index
+     * {@code i}, i.e., the meet of the values of the executable definitions
+     * of {@code var} that reach the node.
+     */
+    private Value getValue(Var var, int i) {
+        Var[] vars = useVars[i];
+        for (int k = 0; k < vars.length; ++k) {
+            if (vars[k] == var) {
+                int def = useDefs[i][k];
+                return def != NONE ? defValues[def] : Value.getUndef();
+            }
+        }
+        return Value.getUndef();
+    }
+
+    boolean isExecutable(Stmt stmt) {
+        Integer i = indexes.get(stmt);
+        return i != null && executable[i];
+    }
+
+    boolean isExecutable(Edge<Stmt> edge) {
+        return executableEdges.contains(edge);
+    }
+
+    /**
+     * @return the dense in fact of {@code stmt}, i.e., the values of all
+     * variables that have executable definitions reaching {@code stmt},
+     * or null if {@code stmt} is not in the CFG. The definition of each
+     * variable reaching {@code stmt} is searched along the dominators
+     * of {@code stmt}.
+     */
+    CPFact getInFact(Stmt stmt) {
+        Integer i = indexes.get(stmt);
+        if (i == null) {
+            return null;
+        }
+        CPFact fact = new CPFact();
+        if (executable[i]) {
+            for (Var var : defsOfVar.keySet()) {
+                int def = getReachingDefinition(var, i);
+                if (def != NONE) {
+                    fact.update(var, defValues[def]);
+                }
+            }
+        }
+        return fact;
+    }
+
+    /**
+     * @return the definition (or phi) of {@code var} that reaches (the start
+     * of) the node at index {@code i}, or NONE if no definition reaches it.
+     */
+    private int getReachingDefinition(Var var, int i) {
+        for (int node = i; ; node = idom[node]) {
+            // at the same node, phis come before the definition
+            int def = defOf[node];
+            if (node != i && def != NONE && defVars.get(def) == var) {
+                return def;
+            }
+            for (int phi = firstPhi[node]; phi != NONE; phi = nextPhi.get(phi - nDefs)) {
+                if (defVars.get(phi) == var) {
+                    return phi;
+                }
+            }
+            if (node == entry) {
+                break;
+            }
+        }
+        BitSet defs = defsOfVar.get(var);
+        int first = defs.nextSetBit(0);
+        return defSites.get(first) == NONE ? first : NONE;
+    }
+
+    /**
+     * @return the dense out fact of {@code stmt}.
+     */
+    CPFact getOutFact(Stmt stmt, CPFact inFact) {
+        CPFact fact = inFact.copy();
+        int i = indexes.get(stmt);
+        if (executable[i] && defOf[i] != NONE) {
+            fact.update(defVars.get(defOf[i]), defValues[defOf[i]]);
+        }
+        return fact;
+    }
+
+    /**
+     * An operand of a phi, i.e., a definition (or phi) reaching the phi
+     * via the given in edge of the phi's node.
+     */
+    private record PhiOperand(int def, Edge<Stmt> edge) {
+    }
+
+    /**
+     * Growable array of ints, which is used as a list or a stack.
+     */
+    private static final class IntList {
+
+        private int[] elements = new int[4];
+
+        private int size = 0;
+
+        void add(int e) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = e;
+        }
+
+        int get(int index) {
+            return elements[index];
+        }
+
+        int pop() {
+            return elements[--size];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.graph.Graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Data-flow result which only keeps the facts of the first node of each
+ * basic block. The facts of the other nodes are recomputed on demand by
+ * replaying the transfer functions from the start of their block, and the
+ * facts of the most recently replayed blocks are cached.
+ * <p>
+ * Here "first" and "in/out" of a block follow the direction of the analysis,
+ * i.e., for a backward analysis a block starts at its last node. For a
+ * monotone analysis the replayed facts equal the ones computed by the solver,
+ * thus this result can replace a {@link DataflowResult} once the analysis
+ * reaches its fixed point.
+ * <p>
+ * The nodes are mapped to their blocks via an int array indexed by
+ * the indexes of the nodes, thus the nodes of the graph must have
+ * distinct non-negative indexes, which should be dense.
+ *
+ * @param <Node> type of nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class BlockDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    /**
+     * Recomputes the facts of the nodes in a basic block.
+     * Both methods work in the direction of the analysis.
+     */
+    public interface Replayer<Node, Fact> {
+
+        /**
+         * @return the fact flowing into {@code node} from {@code pred},
+         * given the fact flowing out of {@code pred}. {@code pred} is the
+         * only predecessor of {@code node} in the direction of the analysis.
+         */
+        Fact flow(Node pred, Node node, Fact fact);
+
+        /**
+         * @return the fact flowing out of {@code node}, given the fact
+         * flowing into it. The given fact must not be modified.
+         */
+        Fact transfer(Node node, Fact fact);
+    }
+
+    /**
+     * Maximum number of replayed blocks whose facts are cached.
+     */
+    private static final int CACHE_SIZE = 16;
+
+    /**
+     * Marks the nodes which are not in any block.
+     */
+    private static final int NONE = -1;
+
+    private final boolean forward;
+
+    private final Replayer<Node, Fact> replayer;
+
+    private final ToIntFunction<Node> indexer;
+
+    private final List<Block<Node, Fact>> blocks = new ArrayList<>();
+
+    /**
+     * Index of each node -> index of the basic block containing the node.
+     */
+    private final int[] blockIndexes;
+
+    /**
+     * Facts of the recently replayed blocks, in access order.
+     */
+    private final Map<Block<Node, Fact>, Replay<Node, Fact>> cache =
+            new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<Block<Node, Fact>, Replay<Node, Fact>> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    private BlockDataflowResult(boolean forward, Replayer<Node, Fact> replayer,
+                                ToIntFunction<Node> indexer, int nodeBound) {
+        this.forward = forward;
+        this.replayer = replayer;
+        this.indexer = indexer;
+        this.blockIndexes = new int[nodeBound];
+        Arrays.fill(blockIndexes, NONE);
+    }
+
+    /**
+     * Builds a compact result from the result of an analysis which has
+     * reached its fixed point on the given graph.
+     *
+     * @param result   the result computed by the solver
+     * @param graph    the graph where the analysis is performed on
+     * @param forward  whether the analysis is forward
+     * @param replayer recomputes the facts inside the basic blocks
+     * @param indexer  gives the index of each node of the graph
+     */
+    public static <Node, Fact> BlockDataflowResult<Node, Fact> compact(
+            DataflowResult<Node, Fact> result, Graph<Node> graph,
+            boolean forward, Replayer<Node, Fact> replayer,
+            ToIntFunction<Node> indexer) {
+        int nodeBound = 0;
+        for (Node node : graph) {
+            nodeBound = Math.max(nodeBound, indexer.applyAsInt(node) + 1);
+        }
+        BlockDataflowResult<Node, Fact> compact =
+                new BlockDataflowResult<>(forward, replayer, indexer, nodeBound);
+        for (Node node : graph) {
+            if (compact.isBlockStart(graph, node)) {
+                compact.addBlock(graph, node, result);
+            }
+        }
+        // the remaining nodes form cycles which cannot be entered
+        // from other nodes, and any of them can start a block
+        for (Node node : graph) {
+            if (compact.getBlock(node) == null) {
+                compact.addBlock(graph, node, result);
+            }
+        }
+        return compact;
+    }
+
+    private Set<Node> predsOf(Graph<Node> graph, Node node) {
+        return forward ? graph.getPredsOf(node) : graph.getSuccsOf(node);
+    }
+
+    private Set<Node> succsOf(Graph<Node> graph, Node node) {
+        return forward ? graph.getSuccsOf(node) : graph.getPredsOf(node);
+    }
+
+    /**
+     * @return true if {@code node} cannot be reached only by falling
+     * through from a single predecessor, i.e., it starts a basic block.
+     */
+    private boolean isBlockStart(Graph<Node> graph, Node node) {
+        Set<Node> preds = predsOf(graph, node);
+        if (preds.size() != 1) {
+            return true;
+        }
+        Node pred = preds.iterator().next();
+        return pred.equals(node) || succsOf(graph, pred).size() != 1;
+    }
+
+    private void addBlock(Graph<Node> graph, Node start,
+                          DataflowResult<Node, Fact> result) {
+        List<Node> nodes = new ArrayList<>();
+        Node node = start;
+        while (true) {
+            nodes.add(node);
+            Set<Node> succs = succsOf(graph, node);
+            if (succs.size() != 1) {
+                break;
+            }
+            Node succ = succs.iterator().next();
+            if (getBlock(succ) != null || succ.equals(start)
+                    || predsOf(graph, succ).size() != 1) {
+                break;
+            }
+            node = succ;
+        }
+        Fact in = result.getInFact(start);
+        Fact out = result.getOutFact(start);
+        Block<Node, Fact> block = forward ?
+                new Block<>(nodes, in, out) : new Block<>(nodes, out, in);
+        for (Node n : nodes) {
+            blockIndexes[indexer.applyAsInt(n)] = blocks.size();
+        }
+        blocks.add(block);
+    }
+
+    /**
+     * @return the basic block containing {@code node}, or null if
+     * {@code node} is not in any block.
+     */
+    private Block<Node, Fact> getBlock(Node node) {
+        int index = indexer.applyAsInt(node);
+        if (index < 0 || index >= blockIndexes.length
+                || blockIndexes[index] == NONE) {
+            return null;
+        }
+        return blocks.get(blockIndexes[index]);
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        Fact fact = super.getInFact(node);
+        return fact != null ? fact : getFact(node, forward);
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        Fact fact = super.getOutFact(node);
+        return fact != null ? fact : getFact(node, !forward);
+    }
+
+    /**
+     * @param entering true for the fact flowing into {@code node} in the
+     *                 direction of the analysis, false for the fact
+     *                 flowing out of it
+     */
+    private Fact getFact(Node node, boolean entering) {
+        Block<Node, Fact> block = getBlock(node);
+        if (block == null) {
+            return null;
+        }
+        // a node of another graph may have the same index as a node
+        // in the block, thus the facts are looked up by the node itself
+        if (block.nodes.get(0).equals(node)) {
+            return entering ? block.entering : block.leaving;
+        }
+        Replay<Node, Fact> replay;
+        synchronized (cache) {
+            replay = cache.get(block);
+            if (replay == null) {
+                replay = replay(block);
+                cache.put(block, replay);
+            }
+        }
+        return entering ? replay.entering.get(node) : replay.leaving.get(node);
+    }
+
+    private Replay<Node, Fact> replay(Block<Node, Fact> block) {
+        Replay<Node, Fact> replay = new Replay<>();
+        Node pred = block.nodes.get(0);
+        Fact fact = block.leaving;
+        for (int i = 1; i < block.nodes.size(); ++i) {
+            Node node = block.nodes.get(i);
+            Fact entering = replayer.flow(pred, node, fact);
+            fact = replayer.transfer(node, entering);
+            replay.entering.put(node, entering);
+            replay.leaving.put(node, fact);
+            pred = node;
+        }
+        return replay;
+    }
+
+    /**
+     * A basic block together with the facts flowing into and out of
+     * its first node.
+     */
+    private static class Block<Node, Fact> {
+
+        private final List<Node> nodes;
+
+        private final Fact entering;
+
+        private final Fact leaving;
+
+        private Block(List<Node> nodes, Fact entering, Fact leaving) {
+            this.nodes = List.copyOf(nodes);
+            this.entering = entering;
+            this.leaving = leaving;
+        }
+    }
+
+    /**
+     * Facts of the nodes of a block, except its first node.
+     */
+    private static class Replay<Node, Fact> {
+
+        private final Map<Node, Fact> entering = new HashMap<>();
+
+        private final Map<Node, Fact> leaving = new HashMap<>();
+    }
+}
@@ -22,9 +22,13 @@
 
 package pascal.taie.analysis.dataflow.solver;
 
+import pascal.taie.analysis.Analysis;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.BlockDataflowResult;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.Indexable;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -43,14 +47,27 @@ public abstract class Solver<Node, Fact> {
 
     /**
      * Static factory method to create a new solver for given analysis.
+     * The solver is chosen by the analysis option {@code solver}:
+     * "worklist" (default) or "rpo" for {@link PriorityWorkListSolver}.
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new WorkListSolver<>(analysis);
+        String solver = analysis instanceof Analysis a ?
+                a.getOptions().getString("solver") : null;
+        if (solver == null || solver.equals("worklist")) {
+            return new WorkListSolver<>(analysis);
+        } else if (solver.equals("rpo")) {
+            return new PriorityWorkListSolver<>(analysis);
+        } else {
+            throw new ConfigException("Unknown solver: " + solver);
+        }
     }
 
     /**
      * Starts this solver on the given CFG.
+     * If the analysis option {@code compact-result} is true, the returned
+     * result only keeps the facts at the start of basic blocks,
+     * see {@link BlockDataflowResult}.
      *
      * @param cfg control-flow graph where the analysis is performed on
      * @return the analysis result
@@ -58,9 +75,44 @@ public abstract class Solver<Node, Fact> {
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
         DataflowResult<Node, Fact> result = initialize(cfg);
         doSolve(cfg, result);
+        if (analysis instanceof Analysis a &&
+                a.getOptions().getBooleanOrDefault("compact-result", false)) {
+            return compact(cfg, result);
+        }
         return result;
     }
 
+    /**
+     * Converts the solved result to a {@link BlockDataflowResult}, which
+     * recomputes the facts inside basic blocks in the same way as
+     * the solver, i.e., without edge transfer. The nodes are indexed by
+     * their indexes in the IR, which requires the nodes to be
+     * {@link Indexable}, e.g., the nodes of CFGs of statements.
+     */
+    private DataflowResult<Node, Fact> compact(
+            CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        return BlockDataflowResult.compact(result, cfg, analysis.isForward(),
+                new BlockDataflowResult.Replayer<>() {
+                    @Override
+                    public Fact flow(Node pred, Node node, Fact fact) {
+                        Fact entering = analysis.newInitialFact();
+                        analysis.meetInto(fact, entering);
+                        return entering;
+                    }
+
+                    @Override
+                    public Fact transfer(Node node, Fact fact) {
+                        Fact leaving = analysis.newInitialFact();
+                        if (analysis.isForward()) {
+                            analysis.transferNode(node, fact, leaving);
+                        } else {
+                            analysis.transferNode(node, leaving, fact);
+                        }
+                        return leaving;
+                    }
+                }, node -> ((Indexable) node).getIndex());
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
@@ -0,0 +1,257 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static pascal.taie.analysis.dataflow.RandomIRGenerator.getReachable;
+import static pascal.taie.analysis.dataflow.RandomIRGenerator.newIR;
+import static pascal.taie.analysis.dataflow.RandomIRGenerator.newIntVar;
+import static pascal.taie.analysis.dataflow.RandomIRGenerator.newRandomIR;
+
+/**
+ * Checks the results of sparse conditional constant propagation against
+ * the ones of the dense data-flow analysis on random methods, which
+ * contain loops, multiple definitions of the same variables and
+ * unreachable statements.
+ */
+public class SparseConstantPropagationTest {
+
+    private static final int METHODS = 500;
+
+    /**
+     * When all branch conditions depend on parameters, all reachable
+     * statements are executable, thus the sparse analysis computes
+     * exactly the same facts as the dense one, unless unreachable
+     * statements flow into reachable ones (the dense analysis propagates
+     * the facts of unreachable statements, the sparse one does not).
+     */
+    @Test
+    public void testSameAsDense() {
+        Random random = new Random(1);
+        int compared = 0;
+        while (compared < METHODS) {
+            IR ir = newRandomIR(random, true);
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            List<Stmt> reachable = getReachable(cfg);
+            if (cfg.getNodes().stream().anyMatch(node ->
+                    !reachable.contains(node) &&
+                    cfg.getSuccsOf(node).stream().anyMatch(reachable::contains))) {
+                continue;
+            }
+            ++compared;
+            DataflowResult<Stmt, CPFact> dense = analyze(ir, false);
+            DataflowResult<Stmt, CPFact> sparse = analyze(ir, true);
+            for (Stmt stmt : reachable) {
+                assertEquals(ir.getStmts() + "\nin " + stmt,
+                        dense.getInFact(stmt), sparse.getInFact(stmt));
+                assertEquals(ir.getStmts() + "\nout " + stmt,
+                        dense.getOutFact(stmt), sparse.getOutFact(stmt));
+            }
+        }
+    }
+
+    /**
+     * When branch conditions may be constant, the sparse analysis skips
+     * the branches which are never taken, thus its facts are at least as
+     * precise as the dense ones.
+     */
+    @Test
+    public void testAtLeastAsPreciseAsDense() {
+        Random random = new Random(2);
+        ConstantPropagation cp = newAnalysis(false);
+        for (int i = 0; i < METHODS; ++i) {
+            IR ir = newRandomIR(random, false);
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            DataflowResult<Stmt, CPFact> dense = analyze(ir, false);
+            DataflowResult<Stmt, CPFact> sparse = analyze(ir, true);
+            for (Stmt stmt : getReachable(cfg)) {
+                CPFact denseIn = dense.getInFact(stmt);
+                CPFact sparseIn = sparse.getInFact(stmt);
+                for (Var var : ir.getVars()) {
+                    assertEquals(ir.getStmts() + "\nin " + stmt + ", " + var,
+                            denseIn.get(var),
+                            cp.meetValue(denseIn.get(var), sparseIn.get(var)));
+                }
+            }
+        }
+    }
+
+    /**
+     * <pre>
+     * 0: a = 1
+     * 1: b = 1
+     * 2: x = 1
+     * 3: if (a != b) goto 5
+     * 4: x = 2
+     * 5: y = x
+     * 6: return
+     * </pre>
+     * The branch to 5 is never taken, thus x at 5 is only defined by 4.
+     * The dense analysis meets the values of x from both in edges of 5.
+     */
+    @Test
+    public void testConstantBranch() {
+        Var p = newIntVar("p", 0);
+        Var a = newIntVar("a", 1);
+        Var b = newIntVar("b", 2);
+        Var x = newIntVar("x", 3);
+        Var y = newIntVar("y", 4);
+        If ifStmt = new If(new ConditionExp(ConditionExp.Op.NE, a, b));
+        Copy use = new Copy(y, x);
+        ifStmt.setTarget(use);
+        IR ir = newIR(List.of(p), List.of(p, a, b, x, y), List.of(
+                new AssignLiteral(a, IntLiteral.get(1)),
+                new AssignLiteral(b, IntLiteral.get(1)),
+                new AssignLiteral(x, IntLiteral.get(1)),
+                ifStmt,
+                new AssignLiteral(x, IntLiteral.get(2)),
+                use,
+                new Return()));
+        DataflowResult<Stmt, CPFact> sparse = analyze(ir, true);
+        assertEquals(Value.makeConstant(2), sparse.getInFact(use).get(x));
+        assertEquals(Value.makeConstant(2), sparse.getOutFact(use).get(y));
+        DataflowResult<Stmt, CPFact> dense = analyze(ir, false);
+        assertEquals(Value.getNAC(), dense.getOutFact(use).get(y));
+    }
+
+    /**
+     * <pre>
+     * 0: one = 1
+     * 1: i = 0
+     * 2: k = 1
+     * 3: if (k != one) goto 5
+     * 4: goto 6
+     * 5: i = p
+     * 6: j = i + k
+     * 7: if (p == p) goto 2
+     * 8: return
+     * </pre>
+     * The loop keeps i and k constant, as the assignment of p to i is
+     * never executed.
+     */
+    @Test
+    public void testConstantLoop() {
+        Var p = newIntVar("p", 0);
+        Var i = newIntVar("i", 1);
+        Var k = newIntVar("k", 2);
+        Var one = newIntVar("one", 3);
+        Var j = newIntVar("j", 4);
+        Stmt loopHead = new AssignLiteral(k, IntLiteral.get(1));
+        Stmt assignP = new Copy(i, p);
+        Stmt add = new Binary(j, new ArithmeticExp(ArithmeticExp.Op.ADD, i, k));
+        If exit = new If(new ConditionExp(ConditionExp.Op.NE, k, one));
+        exit.setTarget(assignP);
+        Goto skip = new Goto();
+        skip.setTarget(add);
+        If back = new If(new ConditionExp(ConditionExp.Op.EQ, p, p));
+        back.setTarget(loopHead);
+        IR ir = newIR(List.of(p), List.of(p, i, k, one, j), List.of(
+                new AssignLiteral(one, IntLiteral.get(1)),
+                new AssignLiteral(i, IntLiteral.get(0)),
+                loopHead,
+                exit,
+                skip,
+                assignP,
+                add,
+                back,
+                new Return()));
+        DataflowResult<Stmt, CPFact> sparse = analyze(ir, true);
+        assertEquals(Value.makeConstant(0), sparse.getInFact(add).get(i));
+        assertEquals(Value.makeConstant(1), sparse.getOutFact(add).get(j));
+        assertEquals(new CPFact(), sparse.getInFact(assignP));
+    }
+
+    /**
+     * Runs the test cases of {@link CPTest} with the sparse analysis.
+     */
+    void testCP(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/constprop/",
+                ConstantPropagation.ID, "edge-refine:false;sparse:true");
+    }
+
+    @Test
+    public void testAssign() {
+        testCP("Assign");
+    }
+
+    @Test
+    public void testSimpleConstant() {
+        testCP("SimpleConstant");
+    }
+
+    @Test
+    public void testSimpleBinary() {
+        testCP("SimpleBinary");
+    }
+
+    @Test
+    public void testSimpleBranch() {
+        testCP("SimpleBranch");
+    }
+
+    @Test
+    public void testSimpleChar() {
+        testCP("SimpleChar");
+    }
+
+    @Test
+    public void testBranchConstant() {
+        testCP("BranchConstant");
+    }
+
+    @Test
+    public void testInterprocedural() {
+        testCP("Interprocedural");
+    }
+
+    private static DataflowResult<Stmt, CPFact> analyze(IR ir, boolean sparse) {
+        return newAnalysis(sparse).analyze(ir);
+    }
+
+    private static ConstantPropagation newAnalysis(boolean sparse) {
+        return new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "sparse", sparse));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static pascal.taie.analysis.dataflow.RandomIRGenerator.newRandomIR;
+
+/**
+ * Checks that {@link PriorityWorkListSolver} (option {@code solver:rpo})
+ * computes the same results as {@link WorkListSolver} for constant
+ * propagation on random methods, and runs the test cases of {@link
+ * pascal.taie.analysis.dataflow.analysis.constprop.CPTest} with it.
+ */
+public class PriorityWorkListSolverTest {
+
+    private static final int METHODS = 500;
+
+    @Test
+    public void testConstPropOnRandomMethods() {
+        compareOnRandomMethods(2,
+                new ConstantPropagation(new AnalysisConfig(
+                        ConstantPropagation.ID)),
+                new ConstantPropagation(new AnalysisConfig(
+                        ConstantPropagation.ID, "solver", "rpo")));
+    }
+
+    private static <Fact> void compareOnRandomMethods(long seed,
+            AbstractDataflowAnalysis<Stmt, Fact> expected,
+            AbstractDataflowAnalysis<Stmt, Fact> actual) {
+        Random random = new Random(seed);
+        for (int i = 0; i < METHODS; ++i) {
+            IR ir = newRandomIR(random, false);
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            DataflowResult<Stmt, Fact> expectedResult = expected.analyze(ir);
+            DataflowResult<Stmt, Fact> actualResult = actual.analyze(ir);
+            for (Stmt node : cfg) {
+                assertEquals(ir.getStmts() + "\nin " + node,
+                        expectedResult.getInFact(node), actualResult.getInFact(node));
+                assertEquals(ir.getStmts() + "\nout " + node,
+                        expectedResult.getOutFact(node), actualResult.getOutFact(node));
+            }
+        }
+    }
+
+    void testCP(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/constprop/",
+                ConstantPropagation.ID, "edge-refine:false;solver:rpo");
+    }
+
+    @Test
+    public void testAssign() {
+        testCP("Assign");
+    }
+
+    @Test
+    public void testSimpleConstant() {
+        testCP("SimpleConstant");
+    }
+
+    @Test
+    public void testSimpleBinary() {
+        testCP("SimpleBinary");
+    }
+
+    @Test
+    public void testSimpleBranch() {
+        testCP("SimpleBranch");
+    }
+
+    @Test
+    public void testSimpleChar() {
+        testCP("SimpleChar");
+    }
+
+    @Test
+    public void testBranchConstant() {
+        testCP("BranchConstant");
+    }
+
+    @Test
+    public void testInterprocedural() {
+        testCP("Interprocedural");
+    }
+}
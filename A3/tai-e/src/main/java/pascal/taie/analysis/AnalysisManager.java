@@ -0,0 +1,202 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Creates and executes analyses based on given analysis configurations.
+ * Class and method analyses are run over their scopes concurrently in
+ * a dedicated {@link ForkJoinPool}, whose parallelism is given by
+ * the analysis option {@code parallelism} (absent or 0 means the number
+ * of available processors, and 1 means running on the calling thread).
+ */
+public class AnalysisManager {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisManager.class);
+
+    private static final String PARALLELISM = "parallelism";
+
+    private List<JClass> classScope;
+
+    private List<JMethod> methodScope;
+
+    public void execute(List<AnalysisConfig> analysisConfigs) {
+        analysisConfigs.forEach(config ->
+                Timer.runAndCount(() -> runAnalysis(config), config.getId()));
+    }
+
+    private void runAnalysis(AnalysisConfig config) {
+        Analysis analysis;
+        // Create analysis instance
+        try {
+            Class<?> clazz = Class.forName(config.getAnalysisClass());
+            analysis = (Analysis) clazz.getConstructor(AnalysisConfig.class)
+                    .newInstance(config);
+        } catch (ClassNotFoundException | NoSuchMethodException |
+                 InstantiationException | IllegalAccessException |
+                 InvocationTargetException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+        // Run the analysis
+        if (analysis instanceof ProgramAnalysis) {
+            runProgramAnalysis((ProgramAnalysis) analysis);
+        } else if (analysis instanceof ClassAnalysis) {
+            runClassAnalysis((ClassAnalysis) analysis);
+        } else if (analysis instanceof MethodAnalysis) {
+            runMethodAnalysis((MethodAnalysis) analysis);
+        } else {
+            logger.warn(analysis.getClass() + " is not an analysis class");
+        }
+    }
+
+    private void runProgramAnalysis(ProgramAnalysis analysis) {
+        Object result = analysis.analyze();
+        if (result != null) {
+            World.get().storeResult(analysis.getId(), result);
+        }
+    }
+
+    private void runClassAnalysis(ClassAnalysis analysis) {
+        runInParallel(analysis, getClassScope(), c -> {
+            Object result = analysis.analyze(c);
+            if (result != null) {
+                c.storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    private List<JClass> getClassScope() {
+        if (classScope == null) {
+            String scope = World.get().getOptions().getScope();
+            classScope = switch (scope) {
+                case "app" -> World.get()
+                        .getClassHierarchy()
+                        .applicationClasses()
+                        .toList();
+                case "all" -> World.get()
+                        .getClassHierarchy()
+                        .allClasses()
+                        .toList();
+                // this build ships no call graph, so the reachable
+                // scope cannot be computed
+                case "reachable" -> throw new ConfigException(
+                        "Scope 'reachable' requires a call graph");
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} classes in scope ({}) of class analyses",
+                    classScope.size(), scope);
+        }
+        return classScope;
+    }
+
+    private void runMethodAnalysis(MethodAnalysis analysis) {
+        runInParallel(analysis, getMethodScope(), m -> {
+            Object result = analysis.analyze(m.getIR());
+            if (result != null) {
+                m.getIR().storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    private List<JMethod> getMethodScope() {
+        if (methodScope == null) {
+            String scope = World.get().getOptions().getScope();
+            methodScope = switch (scope) {
+                case "app", "all" -> getClassScope()
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .toList();
+                case "reachable" -> throw new ConfigException(
+                        "Scope 'reachable' requires a call graph");
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} methods in scope ({}) of method analyses",
+                    methodScope.size(), scope);
+        }
+        return methodScope;
+    }
+
+    /**
+     * Applies {@code action} to every element of {@code scope}.
+     * The elements are processed concurrently by a fresh pool sized by
+     * the {@code parallelism} option of {@code analysis}; the pool is
+     * shut down once the whole scope has been processed. As in sequential
+     * runs, an unchecked exception thrown by any task is rethrown as is;
+     * other failures are wrapped in {@link AnalysisException}.
+     */
+    private static <T> void runInParallel(
+            Analysis analysis, List<T> scope, Consumer<T> action) {
+        int parallelism = getParallelism(analysis.getOptions());
+        if (parallelism == 1 || scope.size() <= 1) {
+            scope.forEach(action);
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> scope.parallelStream().forEach(action)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException(analysis.getId() + " is interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new AnalysisException("Failed to run " + analysis.getId(), cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int getParallelism(AnalysisOptions options) {
+        int parallelism = options.get(PARALLELISM) != null ?
+                options.getInt(PARALLELISM) : 0;
+        if (parallelism < 0) {
+            throw new ConfigException("Invalid parallelism: " + parallelism);
+        }
+        return parallelism != 0 ? parallelism :
+                Runtime.getRuntime().availableProcessors();
+    }
+}
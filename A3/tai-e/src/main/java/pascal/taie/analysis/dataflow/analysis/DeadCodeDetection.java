@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.SparseCPResult;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
@@ -66,6 +67,19 @@ public class DeadCodeDetection extends MethodAnalysis {
         // Your task is to recognize dead code in ir and add it to deadCode
         Set<Stmt> nodes = cfg.getNodes();
 
+        if (constants instanceof SparseCPResult sparse) {
+            // sparse constant propagation has already found the statements
+            // that are reachable via executable control-flow edges
+            for (Stmt node : nodes) {
+                if (!sparse.isExecutable(node) && !cfg.isExit(node)) {
+                    deadCode.add(node);
+                } else if (isDeadAssignment(node, liveVars)) {
+                    deadCode.add(node);
+                }
+            }
+            return deadCode;
+        }
+
         Queue<Stmt> workList = new LinkedList<>();
         workList.add(cfg.getEntry());
         workList.add(cfg.getExit());
@@ -79,16 +93,9 @@ public class DeadCodeDetection extends MethodAnalysis {
                 liveNodes.add(node);
             }
             if (node instanceof AssignStmt) {
-                LValue lValue = ((AssignStmt<?, ?>) node).getLValue();
-                RValue rValue = ((AssignStmt<?, ?>) node).getRValue();
-                if (lValue instanceof Var) {
-                    Var var = (Var) lValue;
-                    if (!liveVars.getOutFact(node).contains(var)) {
-                        if (hasNoSideEffect(rValue))
-                            deadCode.add(node);
-                    }
+                if (isDeadAssignment(node, liveVars)) {
+                    deadCode.add(node);
                 }
-
             }else if (node instanceof If) {
                 ConditionExp condition = ((If) node).getCondition();
 
@@ -151,6 +158,20 @@ public class DeadCodeDetection extends MethodAnalysis {
         return deadCode;
     }
 
+    /**
+     * @return true if given statement assigns a variable that is not live
+     * afterwards, and has no side effect, otherwise false.
+     */
+    private static boolean isDeadAssignment(
+            Stmt stmt, DataflowResult<Stmt, SetFact<Var>> liveVars) {
+        if (stmt instanceof AssignStmt<?, ?> assign &&
+                assign.getLValue() instanceof Var var) {
+            return !liveVars.getOutFact(stmt).contains(var) &&
+                    hasNoSideEffect(assign.getRValue());
+        }
+        return false;
+    }
+
     /**
      * @return true if given RValue has no side effect, otherwise false.
      */
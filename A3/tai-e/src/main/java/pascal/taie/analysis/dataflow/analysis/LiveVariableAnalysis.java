@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
@@ -53,7 +54,7 @@ public class LiveVariableAnalysis extends
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        return new SetFact<Var>();
+        return newInitialFact(cfg);
     }
 
     @Override
@@ -62,6 +63,15 @@ public class LiveVariableAnalysis extends
         return new SetFact<Var>();
     }
 
+    /**
+     * Variables of a method are numbered densely, so facts of the method
+     * are represented as bit sets over its variables.
+     */
+    @Override
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        return new BitSetFact<>(cfg.getIR()::getVar);
+    }
+
     @Override
     public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
         // TODO - finish me
@@ -72,6 +82,10 @@ public class LiveVariableAnalysis extends
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
         // TODO - finish me
+        if (in instanceof BitSetFact<Var> bitIn &&
+                out instanceof BitSetFact<Var> bitOut) {
+            return transferBits(stmt, bitIn, bitOut);
+        }
         SetFact<Var> copyOut = out.copy();
         Optional<LValue> def = stmt.getDef();
 
@@ -88,4 +102,25 @@ public class LiveVariableAnalysis extends
         }
         return in.union(copyOut);
     }
+
+    /**
+     * Computes in = in + (out - def) + uses directly on the bits,
+     * without copying out fact.
+     */
+    private static boolean transferBits(
+            Stmt stmt, BitSetFact<Var> in, BitSetFact<Var> out) {
+        boolean changed;
+        Optional<LValue> def = stmt.getDef();
+        if (def.isPresent() && def.get() instanceof Var defVar) {
+            changed = in.unionExcept(out, defVar);
+        } else {
+            changed = in.union(out);
+        }
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var useVar) {
+                changed |= in.add(useVar);
+            }
+        }
+        return changed;
+    }
 }
@@ -23,7 +23,9 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
@@ -45,6 +47,19 @@ public class ConstantPropagation extends
         super(config);
     }
 
+    /**
+     * If option {@code sparse} is true, runs sparse conditional constant
+     * propagation instead of the dense data-flow analysis.
+     */
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        if (getOptions().getBooleanOrDefault("sparse", false)) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            return new SparseConstantPropagation(this, cfg).solve();
+        }
+        return super.analyze(ir);
+    }
+
     @Override
     public boolean isForward() {
         return true;
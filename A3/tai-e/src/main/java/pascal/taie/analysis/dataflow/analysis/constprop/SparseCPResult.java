@@ -0,0 +1,83 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.stmt.Stmt;
+
+/**
+ * Result of sparse conditional constant propagation. It provides the same
+ * view as the result of the dense analysis, i.e., the in and out facts of
+ * each statement, which are built on demand from the values of the
+ * definitions and cached. In addition, it tells which statements and
+ * control-flow edges are executable.
+ */
+public class SparseCPResult extends DataflowResult<Stmt, CPFact> {
+
+    private final SparseConstantPropagation solver;
+
+    SparseCPResult(SparseConstantPropagation solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * @return true if {@code stmt} may be executed, i.e., it is reachable
+     * from the method entry via executable edges, otherwise false.
+     */
+    public boolean isExecutable(Stmt stmt) {
+        return solver.isExecutable(stmt);
+    }
+
+    /**
+     * @return true if control may flow along {@code edge}, otherwise false.
+     */
+    public boolean isExecutable(Edge<Stmt> edge) {
+        return solver.isExecutable(edge);
+    }
+
+    @Override
+    public CPFact getInFact(Stmt stmt) {
+        CPFact fact = super.getInFact(stmt);
+        if (fact == null) {
+            fact = solver.getInFact(stmt);
+            if (fact != null) {
+                setInFact(stmt, fact);
+            }
+        }
+        return fact;
+    }
+
+    @Override
+    public CPFact getOutFact(Stmt stmt) {
+        CPFact fact = super.getOutFact(stmt);
+        if (fact == null) {
+            CPFact inFact = getInFact(stmt);
+            if (inFact != null) {
+                fact = solver.getOutFact(stmt, inFact);
+                setOutFact(stmt, fact);
+            }
+        }
+        return fact;
+    }
+}
@@ -0,0 +1,575 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Hash map backed by a hash array mapped trie (HAMT) whose nodes are
+ * shared between copies. Copying a map via {@link #PersistentMap(Map)}
+ * takes O(1) time; afterwards, the first update of a path in either map
+ * copies the O(log n) nodes on the path, and the other nodes stay shared.
+ * <p>
+ * Each map owns the nodes it has created, and updates them in place,
+ * so repeated updates of the same map do not allocate. Copying a map
+ * freezes the root of the copied map, which is then shared. Frozen nodes
+ * are never updated in place, and the freezing is pushed down to the
+ * children of a frozen node when an update goes through it, so that
+ * shared nodes are never updated in place. Copying does not change the
+ * content or the token of the copied map.
+ * <p>
+ * This map does not permit null keys. This class is not thread-safe:
+ * copying a map marks its nodes as frozen, thus a map must not be copied
+ * while it is being updated. Copies of a map can be used by different
+ * threads once they are safely published.
+ */
+public class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final Object NOT_FOUND = new Object();
+
+    private Node root;
+
+    private int size;
+
+    /**
+     * Token of this map. Nodes created with this token are owned by this
+     * map, and can be modified in place unless they are frozen.
+     */
+    private Object edit = new Object();
+
+    /**
+     * Old value of the key of the last update, or {@link #NOT_FOUND}.
+     */
+    private Object oldValue;
+
+    public PersistentMap() {
+    }
+
+    public PersistentMap(Map<? extends K, ? extends V> m) {
+        if (m instanceof PersistentMap<? extends K, ? extends V> other) {
+            setTo(other);
+        } else {
+            putAll(m);
+        }
+    }
+
+    /**
+     * Replaces the content of this map with the content of other map.
+     * This takes O(1) time, as the two maps share the nodes afterwards.
+     */
+    public void setTo(PersistentMap<? extends K, ? extends V> other) {
+        if (other != this) {
+            if (other.root != null) {
+                // the nodes are shared now, thus neither map can update
+                // them in place
+                other.root.frozen = true;
+            }
+            root = other.root;
+            size = other.size;
+            edit = new Object();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) != NOT_FOUND;
+    }
+
+    @Override
+    public V get(Object key) {
+        Object value = find(key);
+        return value != NOT_FOUND ? cast(value) : null;
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        Object value = find(key);
+        return value != NOT_FOUND ? cast(value) : defaultValue;
+    }
+
+    private Object find(Object key) {
+        return root == null ? NOT_FOUND : root.find(0, hash(key), key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        oldValue = NOT_FOUND;
+        int hash = hash(key);
+        root = root == null ?
+                new Node(edit, 0, new Object[0]).put(edit, 0, hash, key, value, this) :
+                root.put(edit, 0, hash, key, value, this);
+        return takeOldValue();
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (root == null) {
+            return null;
+        }
+        oldValue = NOT_FOUND;
+        root = root.remove(edit, 0, hash(key), key, this);
+        return takeOldValue();
+    }
+
+    private V takeOldValue() {
+        Object old = oldValue;
+        oldValue = null;
+        if (old == NOT_FOUND) {
+            return null;
+        }
+        return cast(old);
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Cursor<>() {
+                    @Override
+                    Entry<K, V> current() {
+                        return new SimpleImmutableEntry<>(cast(key), cast(value));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<K> iterator() {
+                return new Cursor<>() {
+                    @Override
+                    K current() {
+                        return cast(key);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                int oldSize = size;
+                PersistentMap.this.remove(o);
+                return size != oldSize;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof PersistentMap<?, ?> other && other.root == root) {
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    private static int hash(Object key) {
+        return key.hashCode();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object o) {
+        return (T) o;
+    }
+
+    /**
+     * Trie node. The array holds key-value pairs; a null key means that
+     * the value is a child node. In bitmap nodes, the pairs are indexed
+     * by the bitmap of their hash fragments. Collision nodes hold the keys
+     * with the same full hash.
+     */
+    private static final class Node {
+
+        private final Object edit;
+
+        /**
+         * Whether this node is shared by multiple maps. Frozen nodes are
+         * never updated in place.
+         */
+        private boolean frozen;
+
+        private int bitmap;
+
+        private Object[] array;
+
+        /**
+         * Hash of all keys if this is a collision node.
+         */
+        private final int collisionHash;
+
+        private final boolean isCollision;
+
+        private Node(Object edit, int bitmap, Object[] array) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.array = array;
+            this.collisionHash = 0;
+            this.isCollision = false;
+        }
+
+        private Node(Object edit, int collisionHash, Object[] array, boolean unused) {
+            this.edit = edit;
+            this.array = array;
+            this.collisionHash = collisionHash;
+            this.isCollision = true;
+        }
+
+        private Object find(int shift, int hash, Object key) {
+            Node node = this;
+            while (true) {
+                Object[] a = node.array;
+                if (node.isCollision) {
+                    for (int i = 0; i < a.length; i += 2) {
+                        if (key.equals(a[i])) {
+                            return a[i + 1];
+                        }
+                    }
+                    return NOT_FOUND;
+                }
+                int bit = bitpos(hash, shift);
+                if ((node.bitmap & bit) == 0) {
+                    return NOT_FOUND;
+                }
+                int i = 2 * index(node.bitmap, bit);
+                if (a[i] == null) {
+                    node = (Node) a[i + 1];
+                    shift += BITS;
+                } else {
+                    return key.equals(a[i]) ? a[i + 1] : NOT_FOUND;
+                }
+            }
+        }
+
+        private Node put(Object edit, int shift, int hash, Object key,
+                         Object value, PersistentMap<?, ?> map) {
+            if (isCollision) {
+                return putCollision(edit, shift, hash, key, value, map);
+            }
+            int bit = bitpos(hash, shift);
+            int i = 2 * index(bitmap, bit);
+            if ((bitmap & bit) != 0) {
+                Object k = array[i];
+                Object v = array[i + 1];
+                if (k == null) {
+                    Node child = freezeIfShared(edit, (Node) v);
+                    Node newChild = child.put(edit, shift + BITS, hash, key, value, map);
+                    return newChild == child ? this : set(edit, i + 1, newChild);
+                }
+                if (key.equals(k)) {
+                    map.oldValue = v;
+                    return v == value ? this : set(edit, i + 1, value);
+                }
+                ++map.size;
+                Node child = createNode(edit, shift + BITS, k, v, hash, key, value);
+                Node node = set(edit, i, null);
+                node.array[i + 1] = child;
+                return node;
+            }
+            ++map.size;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            newArray[i] = key;
+            newArray[i + 1] = value;
+            System.arraycopy(array, i, newArray, i + 2, array.length - i);
+            if (isOwnedBy(edit)) {
+                bitmap |= bit;
+                array = newArray;
+                return this;
+            }
+            return new Node(edit, bitmap | bit, freezeChildren(newArray));
+        }
+
+        private Node putCollision(Object edit, int shift, int hash, Object key,
+                                  Object value, PersistentMap<?, ?> map) {
+            if (hash != collisionHash) {
+                // nest this node in a bitmap node, and insert the key there
+                return new Node(edit, bitpos(collisionHash, shift),
+                        new Object[]{ null, this })
+                        .put(edit, shift, hash, key, value, map);
+            }
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    map.oldValue = array[i + 1];
+                    return array[i + 1] == value ? this : set(edit, i + 1, value);
+                }
+            }
+            ++map.size;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            if (isOwnedBy(edit)) {
+                array = newArray;
+                return this;
+            }
+            return new Node(edit, collisionHash, newArray, true);
+        }
+
+        /**
+         * @return the node without the key, or null if the node becomes empty.
+         */
+        private Node remove(Object edit, int shift, int hash, Object key,
+                            PersistentMap<?, ?> map) {
+            if (isCollision) {
+                for (int i = 0; i < array.length; i += 2) {
+                    if (key.equals(array[i])) {
+                        map.oldValue = array[i + 1];
+                        --map.size;
+                        return array.length == 2 ? null : removePair(edit, i, 0);
+                    }
+                }
+                return this;
+            }
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = 2 * index(bitmap, bit);
+            Object k = array[i];
+            if (k == null) {
+                Node child = freezeIfShared(edit, (Node) array[i + 1]);
+                Node newChild = child.remove(edit, shift + BITS, hash, key, map);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild != null) {
+                    return set(edit, i + 1, newChild);
+                }
+            } else if (key.equals(k)) {
+                map.oldValue = array[i + 1];
+                --map.size;
+            } else {
+                return this;
+            }
+            return bitmap == bit ? null : removePair(edit, i, bit);
+        }
+
+        private Node removePair(Object edit, int i, int bit) {
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            if (isOwnedBy(edit)) {
+                bitmap ^= bit;
+                array = newArray;
+                return this;
+            }
+            return isCollision ?
+                    new Node(edit, collisionHash, newArray, true) :
+                    new Node(edit, bitmap ^ bit, freezeChildren(newArray));
+        }
+
+        /**
+         * Sets array[i] to x, in place if this node is owned by edit,
+         * otherwise on a copy of this node.
+         */
+        private Node set(Object edit, int i, Object x) {
+            Node node = this;
+            if (!isOwnedBy(edit)) {
+                node = isCollision ?
+                        new Node(edit, collisionHash, array.clone(), true) :
+                        new Node(edit, bitmap, freezeChildren(array.clone()));
+            }
+            node.array[i] = x;
+            return node;
+        }
+
+        /**
+         * @return true if this node can be updated in place by the map
+         * of given token.
+         */
+        private boolean isOwnedBy(Object edit) {
+            return this.edit == edit && !frozen;
+        }
+
+        /**
+         * Freezes given child of this node if this node is not owned by
+         * edit, as this node is shared and will be copied if the child
+         * changes.
+         *
+         * @return the given child.
+         */
+        private Node freezeIfShared(Object edit, Node child) {
+            if (!isOwnedBy(edit)) {
+                child.frozen = true;
+            }
+            return child;
+        }
+
+        /**
+         * Freezes the child nodes in given array of a copied node, as they
+         * are shared by the node and its copy.
+         *
+         * @return the given array.
+         */
+        private static Object[] freezeChildren(Object[] array) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).frozen = true;
+                }
+            }
+            return array;
+        }
+
+        private static Node createNode(Object edit, int shift,
+                                       Object k1, Object v1,
+                                       int h2, Object k2, Object v2) {
+            int h1 = hash(k1);
+            if (h1 == h2) {
+                return new Node(edit, h1, new Object[]{ k1, v1, k2, v2 }, true);
+            }
+            int b1 = bitpos(h1, shift), b2 = bitpos(h2, shift);
+            if (b1 == b2) {
+                Node child = createNode(edit, shift + BITS, k1, v1, h2, k2, v2);
+                return new Node(edit, b1, new Object[]{ null, child });
+            }
+            Object[] array = Integer.compareUnsigned(b1, b2) < 0 ?
+                    new Object[]{ k1, v1, k2, v2 } :
+                    new Object[]{ k2, v2, k1, v1 };
+            return new Node(edit, b1 | b2, array);
+        }
+
+        private static int bitpos(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private static int index(int bitmap, int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+
+    /**
+     * Depth-first traversal of the key-value pairs in the trie.
+     */
+    private abstract class Cursor<T> implements Iterator<T> {
+
+        // the depth of a trie is at most 7 bitmap levels plus a collision node
+        private final Object[][] arrays = new Object[8][];
+
+        private final int[] positions = new int[8];
+
+        private int depth = -1;
+
+        Object key;
+
+        Object value;
+
+        private boolean hasNext;
+
+        private Cursor() {
+            if (root != null) {
+                arrays[0] = root.array;
+                depth = 0;
+            }
+            advance();
+        }
+
+        private void advance() {
+            while (depth >= 0) {
+                Object[] a = arrays[depth];
+                int i = positions[depth];
+                if (i >= a.length) {
+                    --depth;
+                    continue;
+                }
+                positions[depth] = i + 2;
+                if (a[i] == null) {
+                    ++depth;
+                    arrays[depth] = ((Node) a[i + 1]).array;
+                    positions[depth] = 0;
+                } else {
+                    key = a[i];
+                    value = a[i + 1];
+                    hasNext = true;
+                    return;
+                }
+            }
+            hasNext = false;
+        }
+
+        abstract T current();
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            T result = current();
+            advance();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates methods of int variables for testing data-flow analyses
+ * without the front end. The generated methods contain loops, multiple
+ * definitions of the same variables and unreachable statements.
+ */
+public final class RandomIRGenerator {
+
+    private static final int[] CONSTANTS = {0, 1, 2, 3};
+
+    private RandomIRGenerator() {
+    }
+
+    /**
+     * Generates a method with random assignments and jumps.
+     *
+     * @param paramConditions if true, all branch conditions compare
+     *                        parameters, otherwise they compare any variables.
+     * @return the IR of the method, whose CFG has been built.
+     */
+    public static IR newRandomIR(Random random, boolean paramConditions) {
+        List<Var> params = new ArrayList<>();
+        List<Var> vars = new ArrayList<>();
+        int nParams = 1 + random.nextInt(2);
+        int nVars = nParams + 1 + random.nextInt(4);
+        for (int i = 0; i < nVars; ++i) {
+            Var var = newIntVar((i < nParams ? "p" : "x") + i, i);
+            vars.add(var);
+            if (i < nParams) {
+                params.add(var);
+            }
+        }
+        int nStmts = 2 + random.nextInt(30);
+        List<Stmt> stmts = new ArrayList<>();
+        List<Stmt> jumps = new ArrayList<>();
+        for (int i = 0; i < nStmts - 1; ++i) {
+            Var lhs = vars.get(nParams + random.nextInt(nVars - nParams));
+            Stmt stmt = switch (random.nextInt(6)) {
+                case 0, 1 -> new AssignLiteral(lhs,
+                        IntLiteral.get(CONSTANTS[random.nextInt(CONSTANTS.length)]));
+                case 2 -> new Copy(lhs, pick(random, vars));
+                case 3 -> new Binary(lhs, new ArithmeticExp(
+                        pick(random, ArithmeticExp.Op.values()),
+                        pick(random, vars), pick(random, vars)));
+                case 4 -> {
+                    List<Var> operands = paramConditions ? params : vars;
+                    yield new If(new ConditionExp(
+                            pick(random, ConditionExp.Op.values()),
+                            pick(random, operands), pick(random, operands)));
+                }
+                default -> new Goto();
+            };
+            stmts.add(stmt);
+            if (stmt instanceof If || stmt instanceof Goto) {
+                jumps.add(stmt);
+            }
+        }
+        stmts.add(new Return());
+        for (Stmt jump : jumps) {
+            Stmt target = pick(random, stmts);
+            if (jump instanceof If ifStmt) {
+                ifStmt.setTarget(target);
+            } else {
+                ((Goto) jump).setTarget(target);
+            }
+        }
+        return newIR(params, vars, stmts);
+    }
+
+    /**
+     * @return the IR of given statements, whose CFG has been built.
+     */
+    public static IR newIR(List<Var> params, List<Var> vars, List<Stmt> stmts) {
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+        }
+        IR ir = new DefaultIR(null, null, params, Set.of(), vars, stmts, List.of());
+        ir.storeResult(CFGBuilder.ID,
+                new CFGBuilder(new AnalysisConfig(CFGBuilder.ID,
+                        "exception", "none", "dump", false)).analyze(ir));
+        return ir;
+    }
+
+    public static Var newIntVar(String name, int index) {
+        return new Var(null, name, PrimitiveType.INT, index);
+    }
+
+    /**
+     * @return the nodes of {@code cfg} which are reachable from its entry.
+     */
+    public static <Node> List<Node> getReachable(CFG<Node> cfg) {
+        List<Node> reachable = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(cfg.getEntry());
+        reachable.add(cfg.getEntry());
+        while (!stack.isEmpty()) {
+            for (Node succ : cfg.getSuccsOf(stack.pop())) {
+                if (!reachable.contains(succ)) {
+                    reachable.add(succ);
+                    stack.push(succ);
+                }
+            }
+        }
+        return reachable;
+    }
+
+    private static <T> T pick(Random random, List<T> list) {
+        return list.get(random.nextInt(list.size()));
+    }
+
+    private static <T> T pick(Random random, T[] array) {
+        return array[random.nextInt(array.length)];
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static pascal.taie.analysis.dataflow.RandomIRGenerator.newRandomIR;
+
+/**
+ * Checks that the compact results of live variable analysis and constant
+ * propagation (option {@code compact-result:true}) give the same facts as
+ * the full ones on random methods, and runs the test cases of
+ * {@link pascal.taie.analysis.dataflow.analysis.DeadCodeTest} with them.
+ */
+public class BlockDataflowResultTest {
+
+    private static final int METHODS = 500;
+
+    @Test
+    public void testLiveVarOnRandomMethods() {
+        compareOnRandomMethods(1,
+                new LiveVariableAnalysis(new AnalysisConfig(
+                        LiveVariableAnalysis.ID)),
+                new LiveVariableAnalysis(new AnalysisConfig(
+                        LiveVariableAnalysis.ID, "compact-result", true)));
+    }
+
+    @Test
+    public void testConstPropOnRandomMethods() {
+        compareOnRandomMethods(2,
+                new ConstantPropagation(new AnalysisConfig(
+                        ConstantPropagation.ID)),
+                new ConstantPropagation(new AnalysisConfig(
+                        ConstantPropagation.ID, "compact-result", true)));
+    }
+
+    /**
+     * Compares the compact result of each random method with the full one
+     * at every statement, including the ones inside basic blocks.
+     */
+    private static <Fact> void compareOnRandomMethods(long seed,
+            AbstractDataflowAnalysis<Stmt, Fact> full,
+            AbstractDataflowAnalysis<Stmt, Fact> compact) {
+        Random random = new Random(seed);
+        int compared = 0;
+        while (compared < METHODS) {
+            IR ir = newRandomIR(random, false);
+            if (hasDivision(ir)) {
+                continue;
+            }
+            ++compared;
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            DataflowResult<Stmt, Fact> expected = full.analyze(ir);
+            DataflowResult<Stmt, Fact> actual = compact.analyze(ir);
+            assertTrue(actual instanceof BlockDataflowResult);
+            for (Stmt node : cfg) {
+                assertEquals(ir.getStmts() + "\nin " + node,
+                        expected.getInFact(node), actual.getInFact(node));
+                assertEquals(ir.getStmts() + "\nout " + node,
+                        expected.getOutFact(node), actual.getOutFact(node));
+            }
+        }
+    }
+
+    /**
+     * Constant propagation may give UNDEF for x / 0 and x % 0 even if x
+     * was NAC before, thus the solver may keep facts which are not
+     * the transfer of their predecessors at such statements, and
+     * the recomputed facts inside basic blocks differ from the kept ones.
+     */
+    private static boolean hasDivision(IR ir) {
+        return ir.getStmts().stream().anyMatch(stmt ->
+                stmt instanceof Binary binary &&
+                binary.getRValue() instanceof ArithmeticExp exp &&
+                (exp.getOperator() == ArithmeticExp.Op.DIV ||
+                        exp.getOperator() == ArithmeticExp.Op.REM));
+    }
+
+    void testDCD(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false;compact-result:true",
+                "-a", "constprop=edge-refine:false;compact-result:true");
+    }
+
+    @Test
+    public void testControlFlowUnreachable() {
+        testDCD("ControlFlowUnreachable");
+    }
+
+    @Test
+    public void testUnreachableIfBranch() {
+        testDCD("UnreachableIfBranch");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranch() {
+        testDCD("UnreachableSwitchBranch");
+    }
+
+    @Test
+    public void testDeadAssignment() {
+        testDCD("DeadAssignment");
+    }
+
+    @Test
+    public void testLoops() {
+        testDCD("Loops");
+    }
+}
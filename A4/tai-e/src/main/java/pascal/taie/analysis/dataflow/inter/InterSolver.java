@@ -22,15 +22,22 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import pascal.taie.analysis.Analysis;
+import pascal.taie.analysis.dataflow.fact.BlockDataflowResult;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.util.Indexable;
 import pascal.taie.util.collection.SetQueue;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -55,13 +62,73 @@ class InterSolver<Method, Node, Fact> {
         this.icfg = icfg;
     }
 
+    /**
+     * If the analysis option {@code compact-result} is true, the returned
+     * result only keeps the facts at the start of basic blocks of the ICFG,
+     * see {@link BlockDataflowResult}.
+     */
     DataflowResult<Node, Fact> solve() {
         result = new DataflowResult<>();
         initialize();
         doSolve();
+        if (analysis instanceof Analysis a &&
+                a.getOptions().getBooleanOrDefault("compact-result", false)) {
+            return compact();
+        }
         return result;
     }
 
+    /**
+     * Converts the solved result to a {@link BlockDataflowResult}.
+     * The nodes are indexed by {@link #newIndexer()}.
+     * Call sites with callees end basic blocks, so the edges inside
+     * a block are normal or call-to-return edges, which are transferred
+     * in the same way as the solver does.
+     */
+    private DataflowResult<Node, Fact> compact() {
+        return BlockDataflowResult.compact(result, icfg, true,
+                new BlockDataflowResult.Replayer<>() {
+                    @Override
+                    public Fact flow(Node pred, Node node, Fact fact) {
+                        Fact in = analysis.newInitialFact();
+                        for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                            analysis.meetInto(analysis.transferEdge(edge, fact), in);
+                        }
+                        return in;
+                    }
+
+                    @Override
+                    public Fact transfer(Node node, Fact in) {
+                        Fact out = analysis.newInitialFact();
+                        analysis.transferNode(node, in, out);
+                        return out;
+                    }
+                }, newIndexer());
+    }
+
+    /**
+     * @return the indexer which gives each ICFG node a distinct index.
+     * The nodes are indexed by their indexes in the IR of their methods,
+     * which are offset by the total size of the preceding methods.
+     */
+    private ToIntFunction<Node> newIndexer() {
+        Map<Method, Integer> sizes = new LinkedHashMap<>();
+        for (Node node : icfg) {
+            sizes.merge(icfg.getContainingMethodOf(node),
+                    ((Indexable) node).getIndex() + 1, Math::max);
+        }
+        Map<Method, Integer> offsets = new HashMap<>();
+        int offset = 0;
+        for (Map.Entry<Method, Integer> e : sizes.entrySet()) {
+            offsets.put(e.getKey(), offset);
+            offset += e.getValue();
+        }
+        return node -> {
+            Integer base = offsets.get(icfg.getContainingMethodOf(node));
+            return base != null ? base + ((Indexable) node).getIndex() : -1;
+        };
+    }
+
     private void initialize() {
         // TODO - finish me
         Stream<Method> entryMethods = icfg.entryMethods();
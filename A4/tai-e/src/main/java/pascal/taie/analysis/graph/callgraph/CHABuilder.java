@@ -117,13 +117,6 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      */
     private JMethod dispatch(JClass jclass, Subsignature subsignature) {
         // TODO - finish me
-        JMethod declaredMethod = jclass.getDeclaredMethod(subsignature);
-        if (declaredMethod==null|| declaredMethod.isAbstract()){
-            JClass superClass = jclass.getSuperClass();
-            if (superClass==null)
-                return null;
-            return dispatch(superClass,subsignature);
-        }
-        return declaredMethod;
+        return DispatchCache.lookupInSuperclasses(jclass, subsignature);
     }
 }
@@ -27,6 +27,7 @@ import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.DispatchCache;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
@@ -274,7 +275,7 @@ class Solver {
      */
     private JMethod resolveCallee(Obj recv, Invoke callSite) {
         Type type = recv != null ? recv.getType() : null;
-        return CallGraphs.resolveCallee(type, callSite);
+        return DispatchCache.resolveCallee(type, callSite);
     }
 
     CIPTAResult getResult() {
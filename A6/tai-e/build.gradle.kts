@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("application")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -25,6 +26,14 @@ tasks.test {
     maxHeapSize = "4G"
 }
 
+jmh {
+    // the benchmarks share the program generator with the tests
+    includeTests.set(true)
+    // report allocation rates of the benchmarks
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
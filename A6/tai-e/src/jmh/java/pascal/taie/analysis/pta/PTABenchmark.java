@@ -0,0 +1,131 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.cs.CSPTA;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmarks of context-sensitive pointer analysis,
+ * including building the world and IR of the analyzed program.
+ * <p>
+ * Context-insensitive analysis is measured by cs variant "ci",
+ * which runs the same solver with {@code CISelector}.
+ * <p>
+ * Run by {@code ./gradlew jmh}; the gc profiler is enabled in the
+ * build script to report allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+@State(Scope.Benchmark)
+public class PTABenchmark {
+
+    /**
+     * Programs to be analyzed. "dir/Main" refers to a test program
+     * in src/test/resources/pta, and "gen/n" refers to a program
+     * generated by {@link ProgramGenerator} with n classes.
+     */
+    @Param({"cspta/TwoObject", "cspta/TwoType", "cspta/TwoCall",
+            "gen/100", "gen/1000"})
+    public String program;
+
+    @Param({"ci", "1-call", "1-obj", "2-obj", "2-type"})
+    public String cs;
+
+    private String classPath;
+
+    private String mainClass;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String[] splits = program.split("/");
+        if (splits[0].equals("gen")) {
+            Path dir = Files.createTempDirectory("pta-bench");
+            new ProgramGenerator(Integer.parseInt(splits[1])).generate(dir);
+            classPath = dir.toString();
+            mainClass = ProgramGenerator.MAIN_CLASS;
+        } else {
+            classPath = "src/test/resources/pta/" + splits[0];
+            mainClass = splits[1];
+        }
+    }
+
+    /**
+     * Sizes of the points-to sets of the last analysis.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PointsToSize {
+
+        /**
+         * The size of the largest points-to set of variables.
+         */
+        public long maxPointsToSize;
+
+        /**
+         * The sum of the sizes of points-to sets of variables.
+         */
+        public long totalPointsToSize;
+    }
+
+    @Benchmark
+    public PointerAnalysisResult analyze(PointsToSize size) {
+        Main.main(new String[]{
+                "-pp", "-cp", classPath, "-m", mainClass,
+                "-a", CSPTA.ID + "=cs:" + cs +
+                ";implicit-entries:false;only-app:true;action:null",
+        });
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        long max = 0, total = 0;
+        for (CSVar csVar : result.getCSVars()) {
+            int s = csVar.getPointsToSet().size();
+            max = Math.max(max, s);
+            total += s;
+        }
+        size.maxPointsToSize = max;
+        size.totalPointsToSize = total;
+        return result;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global, thread-safe cache of virtual dispatch results, shared by
+ * the call graph builders and the pointer analyses.
+ * <p>
+ * The cache keeps three tables, all of which also record failed lookups:
+ * <ul>
+ *     <li>for each (class, subsignature), the first non-abstract method
+ *     declared in the class or its superclasses, see
+ *     {@link #lookupInSuperclasses(JClass, Subsignature)}. The entries of
+ *     a class reuse the ones of its superclass.</li>
+ *     <li>for each (receiver type, subsignature), the method dispatched
+ *     on the objects of the type, see {@link #dispatch(Type, Subsignature)},
+ *     which gives the same results as
+ *     {@link pascal.taie.language.classes.ClassHierarchy#dispatch(Type, MethodRef)}.
+ *     The dispatch table of the class hierarchy is not thread-safe, and
+ *     it does not record failed lookups.</li>
+ *     <li>for each method reference of static and special calls,
+ *     the resolved method, see {@link MethodRef#resolveNullable()}.</li>
+ * </ul>
+ * The cache is cleared when {@link World} is reset.
+ */
+public final class DispatchCache {
+
+    /**
+     * Marks the lookups which found no method.
+     */
+    private static final Object NOT_FOUND = new Object();
+
+    private static final Map<JClass, Map<Subsignature, Object>> superclassTable =
+            new ConcurrentHashMap<>();
+
+    private static final Map<Type, Map<Subsignature, Object>> dispatchTable =
+            new ConcurrentHashMap<>();
+
+    private static final Map<MethodRef, Object> resolvedTable =
+            new ConcurrentHashMap<>();
+
+    static {
+        World.registerResetCallback(DispatchCache::clear);
+    }
+
+    private DispatchCache() {
+    }
+
+    /**
+     * Resolves the callee of a call site on a receiver object of given
+     * type, like {@link CallGraphs#resolveCallee(Type, Invoke)}.
+     *
+     * @param type     type of the receiver object, which is ignored for
+     *                 static and special calls.
+     * @param callSite the call site to be resolved.
+     * @return the resolved callee, or null if the callee cannot be found.
+     */
+    public static JMethod resolveCallee(Type type, Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        if (callSite.isInterface() || callSite.isVirtual()) {
+            return dispatch(type, methodRef.getSubsignature());
+        } else if (callSite.isSpecial() || callSite.isStatic()) {
+            return resolve(methodRef);
+        } else {
+            throw new AnalysisException("Cannot resolve Invoke: " + callSite);
+        }
+    }
+
+    /**
+     * Looks up the method which is dispatched on the objects of given
+     * type, i.e., the first non-abstract method with given subsignature
+     * declared in the class of the type or its superclasses, or else
+     * the default method declared in their superinterfaces.
+     * The class of array types is java.lang.Object.
+     *
+     * @return the dispatched method, or null if no method can be found.
+     */
+    public static JMethod dispatch(Type type, Subsignature subsignature) {
+        Map<Subsignature, Object> table = dispatchTable.get(type);
+        if (table == null) {
+            table = dispatchTable.computeIfAbsent(type,
+                    t -> new ConcurrentHashMap<>());
+        }
+        Object result = table.get(subsignature);
+        if (result == null) {
+            JClass jclass = getClassOf(type);
+            JMethod method = lookupInSuperclasses(jclass, subsignature);
+            if (method == null) {
+                for (JClass c = jclass; c != null && method == null;
+                     c = c.getSuperClass()) {
+                    method = lookupInSuperinterfaces(c, subsignature);
+                }
+            }
+            result = method != null ? method : NOT_FOUND;
+            table.put(subsignature, result);
+        }
+        return result != NOT_FOUND ? (JMethod) result : null;
+    }
+
+    /**
+     * @return the first non-abstract method with given subsignature
+     * declared in given class or its superclasses, or null if no such
+     * method or the class is null.
+     */
+    public static JMethod lookupInSuperclasses(JClass jclass, Subsignature subsignature) {
+        if (jclass == null) {
+            return null;
+        }
+        Map<Subsignature, Object> table = superclassTable.get(jclass);
+        if (table == null) {
+            table = superclassTable.computeIfAbsent(jclass,
+                    c -> new ConcurrentHashMap<>());
+        }
+        Object result = table.get(subsignature);
+        if (result == null) {
+            JMethod method = jclass.getDeclaredMethod(subsignature);
+            if (method == null || method.isAbstract()) {
+                method = lookupInSuperclasses(jclass.getSuperClass(), subsignature);
+            }
+            result = method != null ? method : NOT_FOUND;
+            table.put(subsignature, result);
+        }
+        return result != NOT_FOUND ? (JMethod) result : null;
+    }
+
+    /**
+     * @return the first non-abstract method with given subsignature
+     * declared in the superinterfaces of given class (transitively),
+     * or null if no such method.
+     */
+    private static JMethod lookupInSuperinterfaces(JClass jclass, Subsignature subsignature) {
+        for (JClass iface : jclass.getInterfaces()) {
+            JMethod method = iface.getDeclaredMethod(subsignature);
+            if (method == null || method.isAbstract()) {
+                method = lookupInSuperinterfaces(iface, subsignature);
+            }
+            if (method != null) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the method referenced by given method reference, or null if
+     * it cannot be resolved. The resolution in the class hierarchy is not
+     * thread-safe, thus the absent entries are resolved one at a time.
+     */
+    private static JMethod resolve(MethodRef methodRef) {
+        Object result = resolvedTable.get(methodRef);
+        if (result == null) {
+            synchronized (resolvedTable) {
+                result = resolvedTable.computeIfAbsent(methodRef, ref -> {
+                    JMethod method = ref.resolveNullable();
+                    return method != null ? method : NOT_FOUND;
+                });
+            }
+        }
+        return result != NOT_FOUND ? (JMethod) result : null;
+    }
+
+    private static JClass getClassOf(Type type) {
+        if (type instanceof ClassType classType) {
+            return classType.getJClass();
+        } else if (type instanceof ArrayType) {
+            return World.get().getClassHierarchy().getJREClass("java.lang.Object");
+        } else {
+            throw new AnalysisException(type + " cannot be dispatched");
+        }
+    }
+
+    private static void clear() {
+        superclassTable.clear();
+        dispatchTable.clear();
+        resolvedTable.clear();
+    }
+}
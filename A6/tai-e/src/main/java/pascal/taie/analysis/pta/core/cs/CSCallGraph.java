@@ -35,6 +35,7 @@ import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.Views;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -58,11 +59,13 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     /**
      * Adds a reachable method to this call graph.
+     * This method is atomic, i.e., when multiple threads add the same
+     * method, only one of them gets true.
      *
      * @return true if this call graph changed as a result of the call,
      * otherwise false.
      */
-    public boolean addReachableMethod(CSMethod csMethod) {
+    public synchronized boolean addReachableMethod(CSMethod csMethod) {
         if (reachableMethods.add(csMethod)) {
             callSitesIn(csMethod).forEach(csCallSite ->
                     csCallSite.setContainer(csMethod));
@@ -74,12 +77,14 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     /**
      * Adds a new call graph edge to this call graph.
+     * This method is atomic, i.e., when multiple threads add the same
+     * edge, only one of them gets true.
      *
      * @param edge the call edge to be added
      * @return true if the call graph changed as a result of the call,
      * otherwise false.
      */
-    public boolean addEdge(Edge<CSCallSite, CSMethod> edge) {
+    public synchronized boolean addEdge(Edge<CSCallSite, CSMethod> edge) {
         if (edge.getCallSite().addEdge(edge)) {
             edge.getCallee().addEdge(edge);
             return true;
@@ -88,6 +93,16 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
         }
     }
 
+    /**
+     * Removes all call edges from given call site.
+     */
+    public synchronized void removeEdgesOutOf(CSCallSite csCallSite) {
+        for (Edge<CSCallSite, CSMethod> edge : List.copyOf(csCallSite.getEdges())) {
+            csCallSite.removeEdge(edge);
+            edge.getCallee().removeEdge(edge);
+        }
+    }
+
     @Override
     public Set<CSCallSite> getCallersOf(CSMethod callee) {
         return Views.toMappedSet(callee.getEdges(), Edge::getCallSite);
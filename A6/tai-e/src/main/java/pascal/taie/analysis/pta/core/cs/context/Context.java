@@ -22,11 +22,15 @@
 
 package pascal.taie.analysis.pta.core.cs.context;
 
+import pascal.taie.util.Indexable;
+
 /**
  * Representation of contexts in context-sensitive pointer analysis.
  * Each context can be seen as a list of zero or more context elements.
+ * Contexts are indexable, and their indexes are dense, so that
+ * context-sensitive elements can be stored in arrays.
  */
-public interface Context {
+public interface Context extends Indexable {
 
     /**
      * @return the length (i.e., the number of elements) of this context.
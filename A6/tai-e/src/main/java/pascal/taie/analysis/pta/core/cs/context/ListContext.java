@@ -23,79 +23,163 @@
 package pascal.taie.analysis.pta.core.cs.context;
 
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Maps;
 
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * List-based contexts. Each context is represented by a list of context elements.
+ * <p>
+ * The contexts are hash-consed in a trie: each context is a node which
+ * consists of its parent (the context without the last element) and
+ * the last element, and the same list of elements always yields the same
+ * context object. Thus, contexts can be compared by identity, and
+ * appending an element to a context is a lookup in its children.
+ * Each node also links to its suffix (the context without the first
+ * element), so that truncating a context to its last k elements follows
+ * the links instead of rebuilding the context from the root.
+ * <p>
+ * Each trie, together with the index space of its contexts, is owned by
+ * a {@link ListContextFactory}, which makes all the contexts.
  *
  * @param <T> type of context elements
  */
-public class ListContext<T> implements Context {
+public class ListContext<T> implements Context, Indexable {
 
     /**
-     * The empty context.
+     * Counter for assigning dense indexes to the contexts in the trie.
      */
-    private static final ListContext<?> EMPTY_CONTEXT = new ListContext<>(List.of());
+    private final AtomicInteger counter;
 
     /**
-     * List of elements in the context.
+     * The context without the last element, null for the empty context.
      */
-    private final List<T> elements;
+    private final ListContext<T> parent;
 
-    private ListContext(List<T> elements) {
-        this.elements = elements;
+    /**
+     * The last element of the context.
+     */
+    private final T elem;
+
+    private final int length;
+
+    private final int index;
+
+    /**
+     * Contexts which extend this context by one element, created lazily.
+     */
+    private Map<T, ListContext<T>> children;
+
+    /**
+     * The context without the first element, computed lazily.
+     */
+    private volatile ListContext<T> suffix;
+
+    private ListContext(AtomicInteger counter, ListContext<T> parent, T elem) {
+        this.counter = counter;
+        this.parent = parent;
+        this.elem = elem;
+        this.length = parent == null ? 0 : parent.length + 1;
+        this.index = counter.getAndIncrement();
+    }
+
+    /**
+     * @return the empty context, i.e., the root, of a new trie.
+     */
+    static <T> ListContext<T> newTrie() {
+        return new ListContext<>(new AtomicInteger(), null, null);
+    }
+
+    /**
+     * @return the context which extends this context by given element.
+     */
+    synchronized ListContext<T> getChild(T elem) {
+        if (children == null) {
+            children = Maps.newHybridMap();
+        }
+        return children.computeIfAbsent(elem,
+                e -> new ListContext<>(counter, this, e));
     }
 
     /**
-     * @return an empty context.
+     * @return the context without the first element of this context.
+     * The suffix of the empty context is itself.
      */
-    public static Context make() {
-        return EMPTY_CONTEXT;
+    ListContext<T> getSuffix() {
+        ListContext<T> result = suffix;
+        if (result == null) {
+            // the suffix is hash-consed, thus a racing computation
+            // yields the same object
+            result = length <= 1 ? getRoot() : parent.getSuffix().getChild(elem);
+            suffix = result;
+        }
+        return result;
     }
 
     /**
-     * @return a context that consists of given context elements.
+     * @return the context that consists of the last k elements of
+     * this context. If this context is not longer than k, returns itself.
      */
-    @SafeVarargs
-    public static <T> Context make(T... elements) {
-        return elements.length == 0 ?
-                EMPTY_CONTEXT : new ListContext<>(List.of(elements));
+    ListContext<T> getLastK(int k) {
+        ListContext<T> result = this;
+        while (result.length > Math.max(k, 0)) {
+            result = result.getSuffix();
+        }
+        return result;
+    }
+
+    private ListContext<T> getRoot() {
+        ListContext<T> root = this;
+        while (root.parent != null) {
+            root = root.parent;
+        }
+        return root;
     }
 
     @Override
     public int getLength() {
-        return elements.size();
+        return length;
     }
 
     @Override
     public Object getElementAt(int i) {
-        if (i >= elements.size()) {
+        if (i < 0 || i >= length) {
             throw new AnalysisException(
                     "Context " + this + " doesn't have " + i + "-th element");
         }
-        return elements.get(i);
+        ListContext<T> context = this;
+        for (int j = length - 1; j > i; --j) {
+            context = context.parent;
+        }
+        return context.elem;
     }
 
+    /**
+     * @return the dense index of this context.
+     */
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        ListContext<?> that = (ListContext<?>) o;
-        return elements.equals(that.elements);
+    public int getIndex() {
+        return index;
     }
 
+    // equals() is inherited from Object, as contexts are hash-consed
+
     @Override
     public int hashCode() {
-        return elements.hashCode();
+        return index;
     }
 
     @Override
     public String toString() {
-        return elements.toString();
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < length; ++i) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(getElementAt(i));
+        }
+        return sb.append(']').toString();
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+/**
+ * Makes {@link ListContext}s. Each factory owns a context trie and the
+ * index space of the contexts in it, thus the contexts of different
+ * analyses are independent, and they are reclaimed together with
+ * the analysis. The contexts given to a factory must be made by it.
+ * <p>
+ * This class is thread-safe.
+ */
+public class ListContextFactory {
+
+    private final ListContext<Object> empty = ListContext.newTrie();
+
+    /**
+     * @return the empty context.
+     */
+    public Context make() {
+        return empty;
+    }
+
+    /**
+     * @return a context that consists of given context elements.
+     */
+    @SafeVarargs
+    public final <T> Context make(T... elements) {
+        ListContext<Object> context = empty;
+        for (T elem : elements) {
+            context = context.getChild(elem);
+        }
+        return context;
+    }
+
+    /**
+     * @return a context that consists of the elements of parent followed
+     * by elem. If the result is longer than limit, then the first elements
+     * are dropped so that only the last limit elements are kept.
+     */
+    public <T> Context append(Context parent, T elem, int limit) {
+        if (limit <= 0) {
+            return empty;
+        }
+        return asListContext(parent).getLastK(limit - 1).getChild(elem);
+    }
+
+    /**
+     * @return a context that consists of the last k elements of given
+     * context. If the context is not longer than k, returns itself.
+     */
+    public Context makeLastK(Context context, int k) {
+        return asListContext(context).getLastK(k);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ListContext<Object> asListContext(Context context) {
+        return (ListContext<Object>) context;
+    }
+}
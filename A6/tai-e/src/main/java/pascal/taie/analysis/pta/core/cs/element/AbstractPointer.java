@@ -26,8 +26,30 @@ import pascal.taie.analysis.pta.pts.PointsToSet;
 
 abstract class AbstractPointer implements Pointer {
 
+    /**
+     * Index of this pointer, which is assigned by {@link PointerIndexer}.
+     */
+    private int index = -1;
+
+    /**
+     * Objects which have been propagated from this pointer.
+     */
     private PointsToSet pointsToSet;
 
+    /**
+     * Objects which have flowed to this pointer but have not been
+     * propagated yet. This set is created lazily.
+     */
+    private PointsToSet pending;
+
+    int getIndex() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
     @Override
     public PointsToSet getPointsToSet() {
         return pointsToSet;
@@ -38,4 +60,20 @@ abstract class AbstractPointer implements Pointer {
         this.pointsToSet = pointsToSet;
     }
 
+    @Override
+    public boolean addPending(PointsToSet pts) {
+        if (pending == null) {
+            pending = pointsToSet.makeEmpty();
+        }
+        boolean wasEmpty = pending.isEmpty();
+        return pending.addAll(pts) && wasEmpty;
+    }
+
+    @Override
+    public PointsToSet pollPending() {
+        PointsToSet result = pending;
+        pending = null;
+        return result != null ? result : pointsToSet.makeEmpty();
+    }
+
 }
@@ -0,0 +1,407 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Implementation of {@link CSManager} via arrays.
+ * <p>
+ * The context-sensitive elements are grouped by methods, and the groups
+ * are stored in an array indexed by {@link JMethod#getIndex()}. Within
+ * a group, the contexts of the method are given dense numbers by a small
+ * open-addressed table, and variables (call sites, objects) are indexed
+ * by the context numbers and then by their indexes in the method (the
+ * indexes of the allocation sites for objects). Thus, looking up
+ * a context-sensitive variable does not hash the variable, and the memory
+ * is proportional to the (method, context) pairs which are actually used.
+ * <p>
+ * Objects which are not allocated by the statements of methods (e.g.,
+ * merged objects and constant objects) are kept in a map.
+ */
+public class ArrayBasedCSManager implements CSManager {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Context-sensitive elements of each method, indexed by method indexes.
+     */
+    private MethodElements[] methodElements = new MethodElements[1024];
+
+    private final TwoKeyMap<Obj, Context, CSObj> otherObjs = Maps.newTwoKeyMap();
+
+    private final List<CSVar> csVars = new ArrayList<>(4096);
+
+    private final Map<JField, StaticField> staticFields = Maps.newMap();
+
+    private final TwoKeyMap<CSObj, JField, InstanceField> instanceFields = Maps.newTwoKeyMap();
+
+    private final Map<CSObj, ArrayIndex> arrayIndexes = Maps.newMap();
+
+    private final CSObjIndexer objIndexer = new CSObjIndexer();
+
+    private final PointerIndexer pointerIndexer = new PointerIndexer();
+
+    private final PointsToSetFactory ptsFactory;
+
+    /**
+     * Creates a manager whose pointers use hybrid points-to sets.
+     */
+    public ArrayBasedCSManager() {
+        ptsFactory = new PointsToSetFactory();
+    }
+
+    /**
+     * Creates a manager whose pointers use the points-to sets
+     * selected by option "pts-set".
+     */
+    public ArrayBasedCSManager(AnalysisOptions options) {
+        ptsFactory = new PointsToSetFactory(options, objIndexer);
+    }
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        MethodElements elems = getElements(var.getMethod());
+        int ctx = elems.getNumber(context);
+        int index = var.getIndex();
+        elems.vars = grow(elems.vars, ctx, CSVar[][]::new);
+        CSVar[] vars = elems.vars[ctx] = grow(elems.vars[ctx], index, CSVar[]::new);
+        CSVar csVar = vars[index];
+        if (csVar == null) {
+            csVar = vars[index] = initializePointsToSet(new CSVar(var, context));
+            csVars.add(csVar);
+        }
+        return csVar;
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        if (obj.getAllocation() instanceof New allocSite) {
+            MethodElements elems = getElements(allocSite.getLValue().getMethod());
+            int ctx = elems.getNumber(heapContext);
+            int index = allocSite.getIndex();
+            elems.objs = grow(elems.objs, ctx, CSObj[][]::new);
+            CSObj[] objs = elems.objs[ctx] = grow(elems.objs[ctx], index, CSObj[]::new);
+            CSObj csObj = objs[index];
+            if (csObj == null) {
+                csObj = objs[index] = objIndexer.newCSObj(obj, heapContext);
+            }
+            // a heap model may give different objects for the same
+            // allocation site; only the first one is kept in the array
+            if (csObj.getObject() == obj) {
+                return csObj;
+            }
+        }
+        return otherObjs.computeIfAbsent(obj, heapContext, objIndexer::newCSObj);
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        MethodElements elems = getElements(callSite.getContainer());
+        int ctx = elems.getNumber(context);
+        int index = callSite.getIndex();
+        elems.callSites = grow(elems.callSites, ctx, CSCallSite[][]::new);
+        CSCallSite[] callSites = elems.callSites[ctx] =
+                grow(elems.callSites[ctx], index, CSCallSite[]::new);
+        CSCallSite csCallSite = callSites[index];
+        if (csCallSite == null) {
+            csCallSite = callSites[index] = new CSCallSite(callSite, context);
+        }
+        return csCallSite;
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        MethodElements elems = getElements(method);
+        int ctx = elems.getNumber(context);
+        CSMethod[] methods = elems.methods = grow(elems.methods, ctx, CSMethod[]::new);
+        CSMethod csMethod = methods[ctx];
+        if (csMethod == null) {
+            csMethod = methods[ctx] = new CSMethod(method, context);
+        }
+        return csMethod;
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return staticFields.computeIfAbsent(field,
+                f -> initializePointsToSet(new StaticField(f)));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        return instanceFields.computeIfAbsent(base, field,
+                (b, f) -> initializePointsToSet(new InstanceField(b, f)));
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        return arrayIndexes.computeIfAbsent(array,
+                a -> initializePointsToSet(new ArrayIndex(a)));
+    }
+
+    /**
+     * The elements are indexed by the indexes of the variables and
+     * call sites, which the new IR of the method reuses, thus the slots
+     * holding the stale elements are cleared.
+     */
+    @Override
+    public void removeElementsOf(IR ir) {
+        int methodIndex = ir.getMethod().getIndex();
+        MethodElements elems = methodIndex < methodElements.length ?
+                methodElements[methodIndex] : null;
+        if (elems == null) {
+            return;
+        }
+        if (elems.vars != null) {
+            for (CSVar[] vars : elems.vars) {
+                for (int i = 0; vars != null && i < vars.length; ++i) {
+                    if (vars[i] != null && i < ir.getVars().size() &&
+                            vars[i].getVar() == ir.getVar(i)) {
+                        vars[i] = null;
+                    }
+                }
+            }
+            Set<Var> staleVars = Set.copyOf(ir.getVars());
+            csVars.removeIf(csVar -> staleVars.contains(csVar.getVar()));
+        }
+        if (elems.callSites != null) {
+            for (CSCallSite[] callSites : elems.callSites) {
+                for (int i = 0; callSites != null && i < callSites.length; ++i) {
+                    if (callSites[i] != null && i < ir.getStmts().size() &&
+                            callSites[i].getCallSite() == ir.getStmt(i)) {
+                        callSites[i] = null;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        Set<Var> vars = new LinkedHashSet<>();
+        csVars.forEach(csVar -> vars.add(csVar.getVar()));
+        return Collections.unmodifiableSet(vars);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return Collections.unmodifiableList(csVars);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        int methodIndex = var.getMethod().getIndex();
+        MethodElements elems = methodIndex < methodElements.length ?
+                methodElements[methodIndex] : null;
+        if (elems == null || elems.vars == null) {
+            return List.of();
+        }
+        int index = var.getIndex();
+        List<CSVar> result = new ArrayList<>();
+        for (CSVar[] vars : elems.vars) {
+            if (vars != null && index < vars.length && vars[index] != null) {
+                result.add(vars[index]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return objIndexer.getObjects();
+    }
+
+    @Override
+    public Indexer<CSObj> getObjectIndexer() {
+        return objIndexer;
+    }
+
+    @Override
+    public Indexer<Pointer> getPointerIndexer() {
+        return pointerIndexer;
+    }
+
+    @Override
+    public PointsToSetFactory getPointsToSetFactory() {
+        return ptsFactory;
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return instanceFields.values();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableCollection(arrayIndexes.values());
+    }
+
+    private MethodElements getElements(JMethod method) {
+        int index = method.getIndex();
+        methodElements = grow(methodElements, index, MethodElements[]::new);
+        MethodElements elems = methodElements[index];
+        if (elems == null) {
+            elems = methodElements[index] = new MethodElements();
+        }
+        return elems;
+    }
+
+    private <P extends AbstractPointer> P initializePointsToSet(P pointer) {
+        pointer.setPointsToSet(ptsFactory.make());
+        return pointerIndexer.register(pointer);
+    }
+
+    /**
+     * @return an array which can hold given index. If given array is null,
+     * creates a new array by generator; if it is not large enough,
+     * returns a larger copy; otherwise, returns itself.
+     */
+    private static <T> T[] grow(T[] array, int index, IntFunction<T[]> generator) {
+        if (array == null) {
+            return generator.apply(Math.max(index + 1, INITIAL_CAPACITY));
+        }
+        if (index < array.length) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
+    }
+
+    /**
+     * Context-sensitive elements of a method. The arrays are indexed by
+     * the numbers of the contexts in this method, and are created lazily.
+     */
+    private static class MethodElements {
+
+        private static final int EMPTY = -1;
+
+        /**
+         * Open-addressed table from context indexes to context numbers.
+         * The table is never more than half full.
+         */
+        private int[] keys = newKeys(INITIAL_CAPACITY);
+
+        private int[] numbers = new int[INITIAL_CAPACITY];
+
+        private int size = 0;
+
+        /**
+         * Indexed by context numbers and then by variable indexes.
+         */
+        private CSVar[][] vars;
+
+        /**
+         * Indexed by context numbers and then by statement indexes.
+         */
+        private CSCallSite[][] callSites;
+
+        /**
+         * Indexed by context numbers and then by statement indexes of
+         * allocation sites.
+         */
+        private CSObj[][] objs;
+
+        /**
+         * Indexed by context numbers.
+         */
+        private CSMethod[] methods;
+
+        /**
+         * @return the number of given context in this method. The contexts
+         * are numbered in the order in which they are first looked up.
+         */
+        private int getNumber(Context context) {
+            int key = context.getIndex();
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return numbers[i];
+                }
+                if (keys[i] == EMPTY) {
+                    int number = size++;
+                    keys[i] = key;
+                    numbers[i] = number;
+                    if (size * 2 > keys.length) {
+                        rehash();
+                    }
+                    return number;
+                }
+            }
+        }
+
+        private void rehash() {
+            int[] oldKeys = keys;
+            int[] oldNumbers = numbers;
+            keys = newKeys(oldKeys.length * 2);
+            numbers = new int[keys.length];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; ++j) {
+                if (oldKeys[j] != EMPTY) {
+                    int i = mix(oldKeys[j]) & mask;
+                    while (keys[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    numbers[i] = oldNumbers[j];
+                }
+            }
+        }
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -72,6 +72,10 @@ public class CSCallSite extends AbstractCSElement {
         return edges.add(edge);
     }
 
+    public void removeEdge(Edge<CSCallSite, CSMethod> edge) {
+        edges.remove(edge);
+    }
+
     public Set<Edge<CSCallSite, CSMethod>> getEdges() {
         return Collections.unmodifiableSet(edges);
     }
@@ -24,10 +24,13 @@ package pascal.taie.analysis.pta.core.cs.element;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexer;
 
 import java.util.Collection;
 
@@ -72,6 +75,14 @@ public interface CSManager {
      */
     ArrayIndex getArrayIndex(CSObj array);
 
+    /**
+     * Removes the context-sensitive variables and call sites of the
+     * variables and call sites in given IR, i.e., the stale IR of a method
+     * whose IR has been replaced, so that they are no longer returned
+     * by this manager, and the ones in the new IR are created afresh.
+     */
+    void removeElementsOf(IR ir);
+
     /**
      * @return all variables (without contexts).
      */
@@ -92,6 +103,24 @@ public interface CSManager {
      */
     Collection<CSObj> getObjects();
 
+    /**
+     * @return the indexer of context-sensitive objects. The indexes are
+     * dense and are assigned in the order in which the objects are created.
+     */
+    Indexer<CSObj> getObjectIndexer();
+
+    /**
+     * @return the indexer of pointers. The indexes are dense and are
+     * assigned in the order in which the pointers are created.
+     */
+    Indexer<Pointer> getPointerIndexer();
+
+    /**
+     * @return the factory which makes the points-to sets of the pointers
+     * managed by this manager.
+     */
+    PointsToSetFactory getPointsToSetFactory();
+
     /**
      * @return all static field pointers.
      */
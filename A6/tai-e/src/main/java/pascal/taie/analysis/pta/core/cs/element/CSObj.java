@@ -24,17 +24,24 @@ package pascal.taie.analysis.pta.core.cs.element;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.util.Indexable;
 
 /**
  * Represents context-sensitive objects.
  */
-public class CSObj extends AbstractCSElement {
+public class CSObj extends AbstractCSElement implements Indexable {
 
     private final Obj obj;
 
-    CSObj(Obj obj, Context context) {
+    /**
+     * Dense index of this object given by {@link CSManager}.
+     */
+    private final int index;
+
+    CSObj(Obj obj, Context context, int index) {
         super(context);
         this.obj = obj;
+        this.index = index;
     }
 
     /**
@@ -44,6 +51,11 @@ public class CSObj extends AbstractCSElement {
         return obj;
     }
 
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
     @Override
     public String toString() {
         return context + ":" + obj;
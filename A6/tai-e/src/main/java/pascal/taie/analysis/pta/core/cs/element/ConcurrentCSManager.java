@@ -0,0 +1,224 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+/**
+ * Thread-safe implementation of {@link CSManager} via concurrent hash
+ * maps, which is used by the parallel solver. Each element is created
+ * exactly once even if it is requested by multiple threads
+ * simultaneously, and the indexes of pointers and objects are assigned
+ * by indexers which can be appended and read concurrently.
+ * <p>
+ * The collections of elements returned by this manager should be
+ * obtained after the solver finishes.
+ */
+public class ConcurrentCSManager implements CSManager {
+
+    private final ConcurrentMap<Var, ConcurrentMap<Context, CSVar>> vars =
+            new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Obj, ConcurrentMap<Context, CSObj>> objs =
+            new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Invoke, ConcurrentMap<Context, CSCallSite>> callSites =
+            new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<JMethod, ConcurrentMap<Context, CSMethod>> methods =
+            new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<JField, StaticField> staticFields =
+            new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<CSObj, ConcurrentMap<JField, InstanceField>> instanceFields =
+            new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<CSObj, ArrayIndex> arrayIndexes =
+            new ConcurrentHashMap<>();
+
+    private final CSObjIndexer objIndexer = new CSObjIndexer();
+
+    private final PointerIndexer pointerIndexer = new PointerIndexer();
+
+    private final PointsToSetFactory ptsFactory;
+
+    /**
+     * Creates a manager whose pointers use the points-to sets
+     * selected by option "pts-set".
+     */
+    public ConcurrentCSManager(AnalysisOptions options) {
+        ptsFactory = new PointsToSetFactory(options, objIndexer);
+    }
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        return computeIfAbsent(vars, var, context,
+                (v, c) -> initializePointsToSet(new CSVar(v, c)));
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return computeIfAbsent(objs, obj, heapContext, objIndexer::newCSObj);
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        return computeIfAbsent(callSites, callSite, context, CSCallSite::new);
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        return computeIfAbsent(methods, method, context, CSMethod::new);
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        StaticField staticField = staticFields.get(field);
+        return staticField != null ? staticField :
+                staticFields.computeIfAbsent(field,
+                        f -> initializePointsToSet(new StaticField(f)));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        return computeIfAbsent(instanceFields, base, field,
+                (b, f) -> initializePointsToSet(new InstanceField(b, f)));
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        ArrayIndex arrayIndex = arrayIndexes.get(array);
+        return arrayIndex != null ? arrayIndex :
+                arrayIndexes.computeIfAbsent(array,
+                        a -> initializePointsToSet(new ArrayIndex(a)));
+    }
+
+    @Override
+    public void removeElementsOf(IR ir) {
+        ir.getVars().forEach(vars::remove);
+        for (Stmt stmt : ir) {
+            if (stmt instanceof Invoke invoke) {
+                callSites.remove(invoke);
+            }
+        }
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return Collections.unmodifiableSet(vars.keySet());
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return flatten(vars);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        Map<Context, CSVar> csVars = vars.get(var);
+        return csVars != null ?
+                Collections.unmodifiableCollection(csVars.values()) : Set.of();
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return objIndexer.getObjects();
+    }
+
+    @Override
+    public Indexer<CSObj> getObjectIndexer() {
+        return objIndexer;
+    }
+
+    @Override
+    public Indexer<Pointer> getPointerIndexer() {
+        return pointerIndexer;
+    }
+
+    @Override
+    public PointsToSetFactory getPointsToSetFactory() {
+        return ptsFactory;
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return flatten(instanceFields);
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableCollection(arrayIndexes.values());
+    }
+
+    private <P extends AbstractPointer> P initializePointsToSet(P pointer) {
+        pointer.setPointsToSet(ptsFactory.make());
+        return pointerIndexer.register(pointer);
+    }
+
+    /**
+     * Looks up the element for (k1, k2), and creates it by creator
+     * if it is absent. The lookups of existing elements do not lock.
+     */
+    private static <K1, K2, V> V computeIfAbsent(
+            ConcurrentMap<K1, ConcurrentMap<K2, V>> map, K1 k1, K2 k2,
+            BiFunction<K1, K2, V> creator) {
+        ConcurrentMap<K2, V> inner = map.get(k1);
+        if (inner == null) {
+            inner = map.computeIfAbsent(k1, k -> new ConcurrentHashMap<>(4));
+        }
+        V value = inner.get(k2);
+        return value != null ? value :
+                inner.computeIfAbsent(k2, k -> creator.apply(k1, k));
+    }
+
+    private static <V> Collection<V> flatten(Map<?, ? extends Map<?, V>> map) {
+        return map.values()
+                .stream()
+                .flatMap(inner -> inner.values().stream())
+                .toList();
+    }
+}
@@ -41,6 +41,22 @@ public interface Pointer {
      */
     void setPointsToSet(PointsToSet pointsToSet);
 
+    /**
+     * Adds objects to the pending set of the pointer. Pending objects
+     * have flowed to the pointer but have not been propagated yet.
+     *
+     * @return true if the pending set was empty before the call,
+     * otherwise false.
+     */
+    boolean addPending(PointsToSet pts);
+
+    /**
+     * Retrieves and clears the pending set of the pointer.
+     *
+     * @return the pending objects, or an empty set if there is none.
+     */
+    PointsToSet pollPending();
+
     /**
      * @return the type of this pointer
      */
@@ -0,0 +1,54 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.AppendOnlyList;
+
+/**
+ * Assigns dense indexes to pointers. Pointers can be registered and
+ * looked up by different threads concurrently.
+ */
+class PointerIndexer implements Indexer<Pointer> {
+
+    private final AppendOnlyList<Pointer> pointers = new AppendOnlyList<>();
+
+    /**
+     * Assigns the next index to given pointer.
+     */
+    <P extends AbstractPointer> P register(P pointer) {
+        return pointers.add(index -> {
+            pointer.setIndex(index);
+            return pointer;
+        });
+    }
+
+    @Override
+    public int getIndex(Pointer o) {
+        return ((AbstractPointer) o).getIndex();
+    }
+
+    @Override
+    public Pointer getObject(int index) {
+        return pointers.get(index);
+    }
+}
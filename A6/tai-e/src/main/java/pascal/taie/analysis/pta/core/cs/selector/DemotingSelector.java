@@ -0,0 +1,94 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.core.cs.selector;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Selects contexts by a delegate selector, except for the demoted
+ * methods, which are analyzed under the empty context, and the objects
+ * allocated in them, which have the empty heap context.
+ * <p>
+ * Methods can be demoted during the analysis. The result is still
+ * sound, as the contexts created before the demotion are kept, and the
+ * demoted methods are merely analyzed less precisely afterwards.
+ */
+public class DemotingSelector implements ContextSelector {
+
+    private final ContextSelector delegate;
+
+    private final Set<JMethod> demoted = ConcurrentHashMap.newKeySet();
+
+    public DemotingSelector(ContextSelector delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Demotes given method to the empty context.
+     *
+     * @return true if the method was not demoted before the call,
+     * otherwise false.
+     */
+    public boolean demote(JMethod method) {
+        return demoted.add(method);
+    }
+
+    public boolean isDemoted(JMethod method) {
+        return demoted.contains(method);
+    }
+
+    public Set<JMethod> getDemotedMethods() {
+        return Collections.unmodifiableSet(demoted);
+    }
+
+    @Override
+    public Context getEmptyContext() {
+        return delegate.getEmptyContext();
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, JMethod callee) {
+        return demoted.contains(callee) ? getEmptyContext() :
+                delegate.selectContext(callSite, callee);
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
+        return demoted.contains(callee) ? getEmptyContext() :
+                delegate.selectContext(callSite, recv, callee);
+    }
+
+    @Override
+    public Context selectHeapContext(CSMethod method, Obj obj) {
+        return demoted.contains(method.getMethod()) ? getEmptyContext() :
+                delegate.selectHeapContext(method, obj);
+    }
+}
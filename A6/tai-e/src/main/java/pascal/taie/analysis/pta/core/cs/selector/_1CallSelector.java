@@ -23,7 +23,7 @@
 package pascal.taie.analysis.pta.core.cs.selector;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
-import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.context.ListContextFactory;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
@@ -35,21 +35,27 @@ import pascal.taie.language.classes.JMethod;
  */
 public class _1CallSelector implements ContextSelector {
 
+    private final ListContextFactory contextFactory;
+
+    public _1CallSelector(ListContextFactory contextFactory) {
+        this.contextFactory = contextFactory;
+    }
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return contextFactory.make();
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
         // TODO - finish me
-        return ListContext.make(callSite.getCallSite());
+        return contextFactory.make(callSite.getCallSite());
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
         // TODO - finish me
-        return ListContext.make(callSite.getCallSite());
+        return contextFactory.make(callSite.getCallSite());
     }
 
     @Override
@@ -23,7 +23,7 @@
 package pascal.taie.analysis.pta.core.cs.selector;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
-import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.context.ListContextFactory;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
@@ -35,9 +35,15 @@ import pascal.taie.language.classes.JMethod;
  */
 public class _2ObjSelector implements ContextSelector {
 
+    private final ListContextFactory contextFactory;
+
+    public _2ObjSelector(ListContextFactory contextFactory) {
+        this.contextFactory = contextFactory;
+    }
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return contextFactory.make();
     }
 
     @Override
@@ -49,24 +55,12 @@ public class _2ObjSelector implements ContextSelector {
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
         // TODO - finish me
-        Context context = recv.getContext();
-        return switch (context.getLength()) {
-            case 0 -> ListContext.make(recv.getObject());
-            case 1 -> ListContext.make(context.getElementAt(0), recv.getObject());
-            case 2 -> ListContext.make(context.getElementAt(1), recv.getObject());
-            default -> null;
-        };
+        return contextFactory.append(recv.getContext(), recv.getObject(), 2);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
         // TODO - finish me
-        Context context = method.getContext();
-        return switch (context.getLength()) {
-            case 0 -> context;
-            case 1 -> ListContext.make(context.getElementAt(0));
-            case 2 -> ListContext.make(context.getElementAt(1));
-            default -> null;
-        };
+        return contextFactory.makeLastK(method.getContext(), 1);
     }
 }
@@ -23,7 +23,7 @@
 package pascal.taie.analysis.pta.core.cs.selector;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
-import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.context.ListContextFactory;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
@@ -36,9 +36,15 @@ import pascal.taie.language.type.Type;
  */
 public class _2TypeSelector implements ContextSelector {
 
+    private final ListContextFactory contextFactory;
+
+    public _2TypeSelector(ListContextFactory contextFactory) {
+        this.contextFactory = contextFactory;
+    }
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return contextFactory.make();
     }
 
     @Override
@@ -50,24 +56,12 @@ public class _2TypeSelector implements ContextSelector {
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
         // TODO - finish me
-        Context context = recv.getContext();
-        return switch (context.getLength()) {
-            case 0 -> ListContext.make(recv.getObject().getContainerType());
-            case 1 -> ListContext.make(context.getElementAt(0), recv.getObject().getContainerType());
-            case 2 -> ListContext.make(context.getElementAt(1), recv.getObject().getContainerType());
-            default -> null;
-        };
+        return contextFactory.append(recv.getContext(), recv.getObject().getContainerType(), 2);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
         // TODO - finish me
-        Context context = method.getContext();
-        return switch (context.getLength()) {
-            case 0 -> context;
-            case 1 -> ListContext.make(context.getElementAt(0));
-            case 2 -> ListContext.make(context.getElementAt(1));
-            default -> null;
-        };
+        return contextFactory.makeLastK(method.getContext(), 1);
     }
 }
@@ -0,0 +1,93 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.core.heap;
+
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heap model which merges the objects allocated in cold code by type,
+ * i.e., all objects of the same type allocated in the cold classes are
+ * represented by one {@link MergedObj}, while the objects allocated
+ * in other classes are abstracted by allocation sites.
+ * <p>
+ * The cold classes are given by option "allocation-type-packages", which
+ * is a list of package names; the classes in the packages (including
+ * sub-packages) are cold. If the option is absent, all non-application
+ * classes are cold.
+ */
+public class AllocationTypeBasedModel extends AbstractHeapModel {
+
+    /**
+     * Package names of cold classes, null if all non-application
+     * classes are cold.
+     */
+    private final List<String> packages;
+
+    private final Map<JClass, Boolean> coldClasses = Maps.newMap();
+
+    public AllocationTypeBasedModel(AnalysisOptions options) {
+        super(options);
+        packages = getPackages(options.get("allocation-type-packages"));
+    }
+
+    private static List<String> getPackages(Object option) {
+        if (option == null) {
+            return null;
+        } else if (option instanceof List<?> list) {
+            return list.stream().map(Object::toString).toList();
+        } else {
+            // packages given in command line are separated by commas
+            return Arrays.stream(option.toString().split(","))
+                    .map(String::strip)
+                    .filter(s -> !s.isEmpty())
+                    .toList();
+        }
+    }
+
+    @Override
+    protected Obj doGetObj(New allocSite) {
+        JClass jclass = allocSite.getContainer().getDeclaringClass();
+        return coldClasses.computeIfAbsent(jclass, this::isCold) ?
+                getMergedObj(allocSite) : getNewObj(allocSite);
+    }
+
+    private boolean isCold(JClass jclass) {
+        if (packages == null) {
+            return !jclass.isApplication();
+        }
+        String name = jclass.getName();
+        for (String pkg : packages) {
+            if (name.startsWith(pkg)
+                    && (name.length() == pkg.length() || name.charAt(pkg.length()) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -24,17 +24,29 @@ package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.context.ListContextFactory;
 import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.AllocationTypeBasedModel;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
+import pascal.taie.analysis.pta.toolkit.scaler.Scaler;
+import pascal.taie.analysis.pta.toolkit.snapshot.ResultSnapshot;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.Strings;
+import pascal.taie.util.collection.Maps;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Context-sensitive pointer analysis.
@@ -43,6 +55,20 @@ public class CSPTA extends ProgramAnalysis {
 
     public static final String ID = "cspta";
 
+    /**
+     * The options passed on to the pre-analysis of Scaler.
+     */
+    private static final List<String> PRE_ANALYSIS_OPTIONS = List.of(
+            "merge-string-constants", "merge-string-objects",
+            "merge-string-builders", "merge-exception-objects",
+            "heap-model", "allocation-type-packages",
+            "pts-set", "cs-manager", "type-filter");
+
+    /**
+     * The solver of the last analysis, kept for incremental re-analysis.
+     */
+    private Solver solver;
+
     public CSPTA(AnalysisConfig config) {
         super(config);
     }
@@ -50,18 +76,109 @@ public class CSPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
-        Solver solver = new Solver(options,
-                new AllocationSiteBasedModel(options),
-                getContextSelector(options.getString("cs")));
+        String load = options.getString("load");
+        if (load != null) {
+            // the snapshot given by option "load" serves as the result
+            // without running the analysis
+            PointerAnalysisResult result = ResultSnapshot.open(Path.of(load));
+            ResultProcessor.process(options, result);
+            return result;
+        }
+        String cs = options.getString("cs");
+        // each analysis makes its contexts in its own trie
+        ListContextFactory contextFactory = new ListContextFactory();
+        solver = new Solver(options, getHeapModel(options),
+                cs.equals("scaler") ?
+                        getScalerSelector(options, contextFactory) :
+                        getContextSelector(cs, contextFactory));
         solver.solve();
         PointerAnalysisResult result = solver.getResult();
         ResultProcessor.process(options, result);
         return result;
     }
 
-    private static ContextSelector getContextSelector(String cs) {
+    /**
+     * Incrementally re-analyzes the program after given methods changed,
+     * by reusing the state of the last analysis. Requires option
+     * "incremental" to be true.
+     */
+    public PointerAnalysisResult reanalyze(Collection<JMethod> changedMethods) {
+        if (solver == null) {
+            return analyze();
+        }
+        solver.update(changedMethods);
+        PointerAnalysisResult result = solver.getResult();
+        ResultProcessor.process(getOptions(), result);
+        return result;
+    }
+
+    /**
+     * Runs a context-insensitive pre-analysis, and selects the context
+     * sensitivity variant for each method by Scaler under the total
+     * scalability threshold given by option "scaler-tst".
+     */
+    private static ContextSelector getScalerSelector(
+            AnalysisOptions options, ListContextFactory contextFactory) {
+        Map<String, ContextSelector> variants = Maps.newMap();
+        Map<JMethod, ContextSelector> selectors = Maps.newMap();
+        selectVariants(options).forEach((method, variant) ->
+                selectors.put(method, variants.computeIfAbsent(
+                        variant, v -> getContextSelector(v, contextFactory))));
+        return new SelectiveSelector(selectors, new CISelector(contextFactory));
+    }
+
+    /**
+     * @return the context sensitivity variants selected by Scaler for
+     * the instance methods reachable in the context-insensitive pre-analysis.
+     */
+    static Map<JMethod, String> selectVariants(AnalysisOptions options) {
+        AnalysisOptions preOptions = getPreAnalysisOptions(options);
+        Solver preSolver = new Solver(preOptions, getHeapModel(preOptions),
+                new CISelector(new ListContextFactory()));
+        preSolver.solve();
+        Scaler scaler = options.get("scaler-tst") == null ?
+                new Scaler(preSolver.getResult()) :
+                new Scaler(preSolver.getResult(), options.getInt("scaler-tst"));
+        return scaler.selectContext();
+    }
+
+    /**
+     * @return the options of the pre-analysis of Scaler, which keep only
+     * the options of heap and points-to set modeling, so that the
+     * pre-analysis is not bounded by the budgets, and does not report
+     * progress or load/save the result of the main analysis.
+     */
+    private static AnalysisOptions getPreAnalysisOptions(AnalysisOptions options) {
+        Map<String, Object> preOptions = Maps.newMap();
+        for (String key : PRE_ANALYSIS_OPTIONS) {
+            preOptions.put(key, options.get(key));
+        }
+        preOptions.put("progress-interval", 0);
+        return new AnalysisOptions(preOptions);
+    }
+
+    /**
+     * @return the heap model given by option "heap-model":
+     * <ul>
+     *     <li>allocation-site (default): {@link AllocationSiteBasedModel}</li>
+     *     <li>allocation-type: {@link AllocationTypeBasedModel}</li>
+     * </ul>
+     */
+    public static HeapModel getHeapModel(AnalysisOptions options) {
+        String model = options.getString("heap-model");
+        if (model == null || model.equals("allocation-site")) {
+            return new AllocationSiteBasedModel(options);
+        } else if (model.equals("allocation-type")) {
+            return new AllocationTypeBasedModel(options);
+        } else {
+            throw new ConfigException("Unknown heap model: " + model);
+        }
+    }
+
+    private static ContextSelector getContextSelector(
+            String cs, ListContextFactory contextFactory) {
         if (cs.equals("ci")) {
-            return new CISelector();
+            return new CISelector(contextFactory);
         } else {
             try {
                 // we expect that the argument of context-sensitivity variant
@@ -73,8 +190,8 @@ public class CSPTA extends ProgramAnalysis {
                 String selectorName = "pascal.taie.analysis.pta.core.cs.selector." +
                         "_" + k + kind + "Selector";
                 Class<?> c = Class.forName(selectorName);
-                Constructor<?> ctor = c.getConstructor();
-                return (ContextSelector) ctor.newInstance();
+                Constructor<?> ctor = c.getConstructor(ListContextFactory.class);
+                return (ContextSelector) ctor.newInstance(contextFactory);
             } catch (RuntimeException e) {
                 throw new ConfigException("Unexpected context-sensitivity variants: " + cs, e);
             } catch (ClassNotFoundException | NoSuchMethodException |
@@ -23,20 +23,73 @@
 package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.CSRAdjacency;
+import pascal.taie.util.collection.ConcurrentAdjacency;
+import pascal.taie.util.collection.IntAdjacency;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.SimpleGraph;
+import pascal.taie.util.graph.TopoSorter;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Represents pointer flow graph in context-sensitive pointer analysis.
+ * <p>
+ * The edges are stored in an {@link IntAdjacency} over the indexes of
+ * pointers, so that an edge costs an int instead of a hash-set entry.
+ * <p>
+ * Pointers on a cycle of the graph can be collapsed into a single
+ * representative node (see {@link #collapse(Set)}). After that, edges
+ * from/to any of the collapsed pointers are redirected to the
+ * representative.
+ * <p>
+ * A concurrent PFG stores the edges in a {@link ConcurrentAdjacency},
+ * which allows modifying the edges from different pointers simultaneously
+ * without a global lock; the successors of the same pointer must still be
+ * guarded by the caller. Concurrent PFG does not support collapsing.
  */
 class PointerFlowGraph {
 
+    private final Indexer<Pointer> indexer;
+
+    /**
+     * Successors of each pointer (node) in PFG.
+     */
+    private final IntAdjacency successors;
+
+    /**
+     * Map from a collapsed pointer to its representative.
+     * Pointers which have not been collapsed are absent in this map.
+     */
+    private final Map<Pointer, Pointer> reps = Maps.newMap();
+
     /**
-     * Map from a pointer (node) to its successors in PFG.
+     * Map from a representative to all pointers collapsed into it,
+     * including the representative itself.
      */
-    private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
+    private final MultiMap<Pointer, Pointer> members = Maps.newMultiMap();
+
+    /**
+     * Buffer of the collapsed successors to be redirected.
+     */
+    private final List<Pointer> redirected = new ArrayList<>();
+
+    PointerFlowGraph(Indexer<Pointer> indexer, boolean concurrent) {
+        this.indexer = indexer;
+        this.successors = concurrent
+                ? new ConcurrentAdjacency() : new CSRAdjacency();
+    }
 
     /**
      * Adds an edge (source -> target) to this PFG.
@@ -45,13 +98,225 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        Pointer s = getRep(source);
+        Pointer t = getRep(target);
+        return s != t && put(s, t);
+    }
+
+    /**
+     * Removes edge (source -> target) from this PFG.
+     */
+    void removeEdge(Pointer source, Pointer target) {
+        successors.remove(indexer.getIndex(getRep(source)),
+                indexer.getIndex(getRep(target)));
+    }
+
+    /**
+     * @return the pointers reachable from given pointers in this PFG,
+     * including the given pointers.
+     */
+    Set<Pointer> getReachableFrom(Collection<Pointer> roots) {
+        Set<Pointer> reachable = Sets.newSet();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        for (Pointer root : roots) {
+            if (reachable.add(root)) {
+                stack.push(root);
+            }
+        }
+        while (!stack.isEmpty()) {
+            forEachSuccOf(stack.pop(), succ -> {
+                if (reachable.add(succ)) {
+                    stack.push(succ);
+                }
+            });
+        }
+        return reachable;
+    }
+
+    /**
+     * Performs the action for each successor of given pointer in the PFG,
+     * without copying the successors. The action must not modify the
+     * edges from the pointer.
+     */
+    void forEachSuccOf(Pointer pointer, Consumer<Pointer> action) {
+        Pointer rep = getRep(pointer);
+        int source = indexer.getIndex(rep);
+        if (!reps.isEmpty()) {
+            // redirect the edges to the pointers collapsed after the edges
+            // were added, so that only representatives are visited
+            successors.forEachTarget(source, target -> {
+                Pointer succ = indexer.getObject(target);
+                if (reps.containsKey(succ)) {
+                    redirected.add(succ);
+                }
+            });
+            for (Pointer succ : redirected) {
+                successors.remove(source, indexer.getIndex(succ));
+                Pointer succRep = getRep(succ);
+                if (succRep != rep) {
+                    put(rep, succRep);
+                }
+            }
+            redirected.clear();
+        }
+        successors.forEachTarget(source,
+                target -> action.accept(indexer.getObject(target)));
+    }
+
+    /**
+     * Adds edge (s -> t) to the adjacency.
+     */
+    private boolean put(Pointer s, Pointer t) {
+        return successors.add(indexer.getIndex(s), indexer.getIndex(t));
+    }
+
+    /**
+     * @return the successors of s in the adjacency. The returned list
+     * is a snapshot, i.e., it is not affected by later changes of the PFG.
+     */
+    private List<Pointer> get(Pointer s) {
+        List<Pointer> succs = new ArrayList<>(
+                successors.getDegree(indexer.getIndex(s)));
+        successors.forEachTarget(indexer.getIndex(s),
+                target -> succs.add(indexer.getObject(target)));
+        return succs;
     }
 
     /**
-     * @return successors of given pointer in the PFG.
+     * @return the nodes of this PFG in topological order. The pointers
+     * on the cycles that cannot reach any sink of the PFG are absent.
+     */
+    List<Pointer> getTopologicalOrder() {
+        SimpleGraph<Pointer> graph = new SimpleGraph<>();
+        for (int source = 0; source < successors.getNodeBound(); ++source) {
+            if (successors.getDegree(source) == 0) {
+                continue;
+            }
+            Pointer s = getRep(indexer.getObject(source));
+            graph.addNode(s);
+            successors.forEachTarget(source, target -> {
+                Pointer t = getRep(indexer.getObject(target));
+                graph.addNode(t);
+                if (s != t) {
+                    graph.addEdge(s, t);
+                }
+            });
+        }
+        return new TopoSorter<>(graph).get();
+    }
+
+    /**
+     * @return the representative of given pointer. If the pointer has not
+     * been collapsed, then returns the pointer itself.
+     */
+    Pointer getRep(Pointer pointer) {
+        Pointer rep = reps.get(pointer);
+        if (rep == null) {
+            return pointer;
+        }
+        Pointer root = getRep(rep);
+        if (root != rep) { // path compression
+            reps.put(pointer, root);
+        }
+        return root;
+    }
+
+    /**
+     * @return all pointers which have been collapsed together with
+     * given pointer, including the pointer itself.
+     */
+    Set<Pointer> getMembersOf(Pointer pointer) {
+        Pointer rep = getRep(pointer);
+        Set<Pointer> result = members.get(rep);
+        return result.isEmpty() ? Set.of(rep) : result;
+    }
+
+    /**
+     * Searches the cycles which go through edge (source -> target), i.e.,
+     * the representatives that are reachable from target and can reach
+     * source in this PFG.
+     * <p>
+     * The search first traverses the PFG forwards from target, and records
+     * the predecessors of the visited nodes; if source is visited, then
+     * it traverses the recorded predecessors backwards from source, and
+     * the nodes reached are exactly the ones on the cycles.
+     *
+     * @return the representatives on the found cycles (including the ones
+     * of source and target), or an empty set if no cycle is found.
+     */
+    Set<Pointer> findCycle(Pointer source, Pointer target) {
+        Pointer s = getRep(source);
+        Pointer t = getRep(target);
+        Set<Pointer> onCycle = Sets.newHybridSet();
+        if (s == t) {
+            return onCycle;
+        }
+        MultiMap<Pointer, Pointer> preds = Maps.newMultiMap();
+        Set<Pointer> visited = Sets.newSet();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        visited.add(t);
+        stack.push(t);
+        while (!stack.isEmpty()) {
+            Pointer node = stack.pop();
+            for (Pointer succ : get(node)) {
+                Pointer succRep = getRep(succ);
+                if (succRep != node) {
+                    preds.put(succRep, node);
+                    if (visited.add(succRep)) {
+                        stack.push(succRep);
+                    }
+                }
+            }
+        }
+        if (!visited.contains(s)) {
+            return onCycle;
+        }
+        // edge (source -> target) closes the cycles
+        onCycle.add(t);
+        onCycle.add(s);
+        stack.push(s);
+        while (!stack.isEmpty()) {
+            for (Pointer pred : preds.get(stack.pop())) {
+                if (onCycle.add(pred)) {
+                    stack.push(pred);
+                }
+            }
+        }
+        return onCycle;
+    }
+
+    /**
+     * Collapses given representatives into one node.
+     * The caller is responsible for merging the points-to sets.
+     *
+     * @return the representative of the collapsed node.
      */
-    Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+    Pointer collapse(Set<Pointer> nodes) {
+        Iterator<Pointer> it = nodes.iterator();
+        Pointer rep = getRep(it.next());
+        if (!members.containsKey(rep)) {
+            members.put(rep, rep);
+        }
+        while (it.hasNext()) {
+            Pointer node = getRep(it.next());
+            if (node == rep) {
+                continue;
+            }
+            members.putAll(rep, getMembersOf(node));
+            members.removeAll(node);
+            reps.put(node, rep);
+            for (Pointer succ : get(node)) {
+                Pointer succRep = getRep(succ);
+                if (succRep != rep) {
+                    put(rep, succRep);
+                }
+            }
+            successors.removeAll(indexer.getIndex(node));
+        }
+        // drop the edges to the collapsed nodes (including self-loops)
+        for (Pointer node : nodes) {
+            successors.remove(indexer.getIndex(rep), indexer.getIndex(node));
+        }
+        return rep;
     }
 }
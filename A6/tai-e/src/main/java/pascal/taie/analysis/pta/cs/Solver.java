@@ -27,17 +27,20 @@ import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DispatchCache;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.ConcurrentCSManager;
 import pascal.taie.analysis.pta.core.cs.element.InstanceField;
 import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
@@ -48,19 +51,49 @@ import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.FieldRef;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
-
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    /**
+     * Number of striped locks used in parallel mode, must be a power of 2.
+     */
+    private static final int LOCK_STRIPES = 1 << 10;
+
+    /**
+     * Default interval (in seconds) of progress reports.
+     */
+    private static final int DEFAULT_PROGRESS_INTERVAL = 10;
+
     private final AnalysisOptions options;
 
     private final HeapModel heapModel;
@@ -69,19 +102,103 @@ class Solver {
 
     private CSManager csManager;
 
+    private PointsToSetFactory ptsFactory;
+
     private CSCallGraph callGraph;
 
     private PointerFlowGraph pointerFlowGraph;
 
     private WorkList workList;
 
+    /**
+     * Whether collapse the cycles of the PFG found by lazy cycle detection.
+     */
+    private boolean cycleDetection;
+
+    /**
+     * PFG edges which have been checked by lazy cycle detection.
+     */
+    private MultiMap<Pointer, Pointer> checkedEdges;
+
+    /**
+     * Filter of the objects flowing along PFG edges, null if
+     * type filtering is disabled.
+     */
+    private TypeFilter typeFilter;
+
+    private SolverTelemetry telemetry;
+
+    /**
+     * Resource budget of this solver, null if no budget is set.
+     */
+    private final SolverBudget budget;
+
+    /**
+     * Whether the contributions of methods are recorded for
+     * incremental re-analysis (see {@link #update(Collection)}).
+     */
+    private boolean incremental;
+
+    /**
+     * The method whose statements are being processed, i.e., the
+     * contributor of the PFG edges and objects being added.
+     */
+    private JMethod contributor;
+
+    /**
+     * PFG edges added by each method.
+     */
+    private MultiMap<JMethod, Pair<Pointer, Pointer>> edgeContribs;
+
+    /**
+     * Objects added to pointers directly (by allocations and receiver
+     * objects) by each method.
+     */
+    private MultiMap<JMethod, Pair<Pointer, CSObj>> objContribs;
+
+    /**
+     * The IR of each method when its statements were processed, used to
+     * find the methods whose IR has been replaced since then.
+     */
+    private Map<JMethod, IR> processedIRs;
+
     private PointerAnalysisResult result;
 
+    /**
+     * Number of solver threads.
+     */
+    private int parallelism;
+
+    /**
+     * Striped locks for points-to sets and PFG edges in parallel mode,
+     * null in sequential mode.
+     */
+    private Object[] locks;
+
+    /**
+     * Memo tables of the program structures which are built on demand,
+     * i.e., method IR, the objects given by the heap model, and the
+     * resolved fields, in parallel mode, null in sequential mode.
+     * See {@link #memoize(Map, Object, Function)}.
+     */
+    private Map<JMethod, IR> irs;
+
+    private Map<New, Obj> objs;
+
+    private Map<FieldRef, JField> fields;
+
+    /**
+     * Lock for building the absent entries of the memo tables,
+     * as the builders are not thread-safe.
+     */
+    private final Object builderLock = new Object();
+
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
         this.heapModel = heapModel;
-        this.contextSelector = contextSelector;
+        this.budget = SolverBudget.of(options, contextSelector);
+        this.contextSelector = budget != null ? budget.getSelector() : contextSelector;
     }
 
     void solve() {
@@ -90,10 +207,56 @@ class Solver {
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
+        parallelism = getParallelism(options);
+        csManager = getCSManager(options, parallelism);
+        ptsFactory = csManager.getPointsToSetFactory();
         callGraph = new CSCallGraph(csManager);
-        pointerFlowGraph = new PointerFlowGraph();
-        workList = new WorkList();
+        telemetry = new SolverTelemetry(options.get("progress-interval") == null ?
+                DEFAULT_PROGRESS_INTERVAL : options.getInt("progress-interval"));
+        if (budget != null) {
+            budget.start();
+        }
+        if (parallelism > 1) {
+            for (String option : List.of(
+                    "delta-propagation", "cycle-detection", "incremental")) {
+                if (options.getBooleanOrDefault(option, false)) {
+                    throw new ConfigException(option +
+                            " is not supported by parallel solver");
+                }
+            }
+            if (getWorkListPolicy(options) != WorkList.Policy.FIFO) {
+                throw new ConfigException("worklist:" + options.getString("worklist")
+                        + " is not supported by parallel solver");
+            }
+            pointerFlowGraph = new PointerFlowGraph(csManager.getPointerIndexer(), true);
+            workList = WorkList.newConcurrentWorkList();
+            cycleDetection = false;
+            locks = new Object[LOCK_STRIPES];
+            Arrays.setAll(locks, i -> new Object());
+            irs = new ConcurrentHashMap<>();
+            objs = new ConcurrentHashMap<>();
+            fields = new ConcurrentHashMap<>();
+        } else {
+            pointerFlowGraph = new PointerFlowGraph(csManager.getPointerIndexer(), false);
+            workList = newWorkList(options, pointerFlowGraph);
+            cycleDetection = options.getBooleanOrDefault("cycle-detection", false);
+            incremental = options.getBooleanOrDefault("incremental", false);
+            if (incremental) {
+                if (cycleDetection) {
+                    logger.warn("cycle-detection is ignored in incremental mode");
+                }
+                // collapsed PFG edges cannot be retracted
+                cycleDetection = false;
+                edgeContribs = Maps.newMultiMap();
+                objContribs = Maps.newMultiMap();
+                processedIRs = Maps.newMap();
+            }
+        }
+        checkedEdges = Maps.newMultiMap();
+        if (options.getBooleanOrDefault("type-filter", false)) {
+            typeFilter = new TypeFilter(World.get().getClassHierarchy(),
+                    World.get().getTypeSystem(), ptsFactory);
+        }
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -109,13 +272,32 @@ class Solver {
         // TODO - finish me
         // add reachable method to call graph
         if (callGraph.addReachableMethod(csMethod)) {
-            //Set of reachable statements
-            List<Stmt> stmts = csMethod.getMethod().getIR().getStmts();
-            StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
-            //add stmts to Set of reachable statements
-            for (Stmt stmt : stmts) {
-                stmt.accept(stmtProcessor);
+            telemetry.onReachable(csMethod);
+            if (budget != null) {
+                budget.onReachable(csMethod);
             }
+            processStmts(csMethod);
+        }
+    }
+
+    private void processStmts(CSMethod csMethod) {
+        JMethod prevContributor = contributor;
+        if (incremental) {
+            contributor = csMethod.getMethod();
+        }
+        IR ir = getIR(csMethod.getMethod());
+        if (incremental) {
+            processedIRs.put(csMethod.getMethod(), ir);
+        }
+        //Set of reachable statements
+        List<Stmt> stmts = ir.getStmts();
+        StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
+        //add stmts to Set of reachable statements
+        for (Stmt stmt : stmts) {
+            stmt.accept(stmtProcessor);
+        }
+        if (incremental) {
+            contributor = prevContributor;
         }
     }
 
@@ -137,13 +319,11 @@ class Solver {
         //  via visitor pattern, then finish me
         public Void visit(New stmt) {
             ;
-            Obj obj = heapModel.getObj(stmt);
+            Obj obj = getObj(stmt);
             Context ct = contextSelector.selectHeapContext(csMethod, obj);
             CSObj csObj = csManager.getCSObj(ct, obj);
             CSVar csVar = csManager.getCSVar(context, stmt.getLValue());
-
-            PointsToSet pts = PointsToSetFactory.make(csObj);
-            workList.addEntry(csVar, pts);
+            addObject(csVar, csObj);
             return null;
         }
 
@@ -152,8 +332,18 @@ class Solver {
             return null;
         }
 
+        public Void visit(Cast stmt) {
+            // casts are only modeled when the objects can be filtered
+            // by the cast type (i.e., the type of the left-hand side)
+            if (typeFilter != null) {
+                addPFGEdge(csManager.getCSVar(context, stmt.getRValue().getValue()),
+                        csManager.getCSVar(context, stmt.getLValue()));
+            }
+            return null;
+        }
+
         public Void visit(LoadField stmt) {
-            JField field = stmt.getFieldRef().resolve();
+            JField field = resolveField(stmt.getFieldRef());
             if (field.isStatic()) {
                 StaticField staticField = csManager.getStaticField(field);
                 CSVar csVar = csManager.getCSVar(context, stmt.getLValue());
@@ -163,7 +353,7 @@ class Solver {
         }
 
         public Void visit(StoreField stmt) {
-            JField field = stmt.getFieldRef().resolve();
+            JField field = resolveField(stmt.getFieldRef());
             if (field.isStatic()) {
 
                 StaticField staticField = csManager.getStaticField(field);
@@ -180,10 +370,11 @@ class Solver {
                 if (callee != null) {
                     Context ct = contextSelector.selectContext(csManager.getCSCallSite(context, stmt), callee);
                     addReachable(csManager.getCSMethod(ct, callee));
-                    callee.getIR().getParams().forEach(param -> {
+                    IR calleeIR = getIR(callee);
+                    calleeIR.getParams().forEach(param -> {
                         addPFGEdge(csManager.getCSVar(context,stmt.getInvokeExp().getArgs().get(param.getIndex())), csManager.getCSVar(ct,param));
                     });
-                    callee.getIR().getReturnVars().forEach(retVar -> {
+                    calleeIR.getReturnVars().forEach(retVar -> {
                         if (stmt.getResult() != null){
                             addPFGEdge(csManager.getCSVar(ct,retVar), csManager.getCSVar(context,stmt.getResult()));
                         }
@@ -199,9 +390,79 @@ class Solver {
      */
     private void addPFGEdge(Pointer source, Pointer target) {
         // TODO - finish me
-        if (pointerFlowGraph.addEdge(source, target))
+        if (incremental) {
+            edgeContribs.put(contributor, new Pair<>(source, target));
+        }
+        if (locks != null) {
+            // the edge and pt(source) are guarded by the same lock, thus
+            // each object of source reaches target via either this method
+            // or propagate(source, ...)
+            synchronized (lockOf(source)) {
+                if (pointerFlowGraph.addEdge(source, target)
+                        && countPFGEdge()
+                        && !source.getPointsToSet().isEmpty()) {
+                    // pt(source) may change after the lock is released
+                    PointsToSet pts = ptsFactory.make();
+                    pts.addAll(source.getPointsToSet());
+                    addFilteredEntry(target, pts);
+                }
+            }
+            return;
+        }
+        if (pointerFlowGraph.addEdge(source, target)) {
+            countPFGEdge();
             if (!source.getPointsToSet().isEmpty())
-                workList.addEntry(target, source.getPointsToSet());
+                addFilteredEntry(target, source.getPointsToSet());
+        }
+    }
+
+    /**
+     * Counts a new PFG edge.
+     *
+     * @return true, so that it can be used in conditions.
+     */
+    private boolean countPFGEdge() {
+        telemetry.onPFGEdge();
+        return true;
+    }
+
+    /**
+     * Adds an object to a pointer directly, i.e., not via PFG edges.
+     * If type filtering is enabled, the object is added only if it is
+     * assignable to the type of the pointer.
+     */
+    private void addObject(Pointer pointer, CSObj obj) {
+        if (typeFilter != null && !typeFilter.isAssignable(
+                obj.getObject().getType(), pointer.getType())) {
+            return;
+        }
+        if (incremental) {
+            objContribs.put(contributor, new Pair<>(pointer, obj));
+        }
+        workList.addEntry(pointer, ptsFactory.make(obj));
+    }
+
+    /**
+     * Adds the objects flowing along a PFG edge to the work list.
+     * If type filtering is enabled, only the objects assignable to
+     * the type of target are added.
+     */
+    private void addFilteredEntry(Pointer target, PointsToSet pts) {
+        if (typeFilter != null) {
+            pts = typeFilter.filter(pts, target.getType());
+            if (pts.isEmpty()) {
+                return;
+            }
+        }
+        workList.addEntry(target, pts);
+    }
+
+    /**
+     * @return the lock which guards pt(pointer) and the PFG edges from
+     * the pointer in parallel mode.
+     */
+    private Object lockOf(Pointer pointer) {
+        return locks[pointer.hashCode() & (locks.length - 1)];
     }
 
     /**
@@ -209,60 +470,259 @@ class Solver {
      */
     private void analyze() {
         // TODO - finish me
-        while (!workList.isEmpty()) {
+        if (parallelism > 1) {
+            analyzeInParallel();
+        } else {
+            long fruitless = 0;
+            while (!workList.isEmpty()) {
+                if (!processEntry(workList.pollEntry())) {
+                    ++fruitless;
+                }
+                if (telemetry.isReportDue()) {
+                    telemetry.report(callGraph, csManager, true);
+                }
+            }
+            logger.info("{}, {} polled without new objects",
+                    workList.getStatistics(), fruitless);
+        }
+        telemetry.report(callGraph, csManager, true);
+        if (budget != null) {
+            budget.report();
+        }
+    }
 
-            WorkList.Entry entry = workList.pollEntry();
-            Pointer pointer = entry.pointer();
-            PointsToSet pointsToSet = entry.pointsToSet();
+    /**
+     * Processes work-list entries by multiple threads until all entries
+     * are finished. Both the propagation along PFG edges and the processing
+     * of new objects of variables run concurrently; only the building of
+     * the program structures on demand (see {@link #builderLock})
+     * is serialized.
+     */
+    private void analyzeInParallel() {
+        logger.info("Solving with {} threads", parallelism);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Callable<Void> worker = () -> {
+            while (failure.get() == null) {
+                WorkList.Entry entry;
+                try {
+                    entry = workList.takeEntry();
+                } catch (InterruptedException e) {
+                    failure.compareAndSet(null, e);
+                    break;
+                }
+                if (entry == null) {
+                    break;
+                }
+                try {
+                    processEntry(entry);
+                    if (telemetry.isReportDue()) {
+                        // other threads may be modifying the call graph
+                        // and points-to sets, thus only counters are reported
+                        telemetry.report(callGraph, csManager, false);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    workList.finishEntry();
+                }
+            }
+            return null;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            executor.invokeAll(Collections.nCopies(parallelism, worker));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException("Pointer analysis is interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException re) {
+            throw re;
+        } else if (e instanceof Error err) {
+            throw err;
+        } else if (e != null) {
+            throw new AnalysisException(e);
+        }
+    }
 
-            PointsToSet diff = propagate(pointer, pointsToSet);
-            if (pointer instanceof CSVar) {
-                Var var = ((CSVar) pointer).getVar();
-                Context context = ((CSVar) pointer).getContext();
-                for (CSObj obj : diff) {
-                    var.getLoadFields().forEach(loadField -> {
+    /**
+     * Processes a work-list entry.
+     *
+     * @return true if any new objects are propagated to the pointer
+     * of the entry, otherwise false.
+     */
+    private boolean processEntry(WorkList.Entry entry) {
+        Pointer pointer = entry.pointer();
+        PointsToSet pointsToSet = entry.pointsToSet();
+
+        PointsToSet diff = propagate(pointer, pointsToSet);
+        telemetry.onPop();
+        if (budget != null) {
+            budget.onPop();
+        }
+        if (!diff.isEmpty()) {
+            telemetry.onPropagated(pointer, diff.size());
+            processNewObjectsOfMembers(pointer, diff);
+            return true;
+        }
+        return false;
+    }
 
-                        addPFGEdge(csManager.getInstanceField(obj, loadField.getFieldRef().resolve()), csManager.getCSVar(context, loadField.getLValue()));
-                    });
-                    var.getStoreFields().forEach(storeField -> {
-                        addPFGEdge(csManager.getCSVar(context, storeField.getRValue()), csManager.getInstanceField(obj, storeField.getFieldRef().resolve()));
-                    });
-                    var.getLoadArrays().forEach(loadArray -> {
-                        addPFGEdge(csManager.getArrayIndex(obj), csManager.getCSVar(context, loadArray.getLValue()));
-                    });
-                    var.getStoreArrays().forEach(storeArray -> {
-                        addPFGEdge(csManager.getCSVar(context, storeArray.getRValue()), csManager.getArrayIndex(obj));
-                    });
-                    processCall((CSVar) pointer, obj);
-                }
+    private void processNewObjectsOfMembers(Pointer pointer, PointsToSet diff) {
+        // pointers collapsed with the pointer share its points-to set,
+        // thus they all receive the new objects
+        for (Pointer member : pointerFlowGraph.getMembersOf(pointer)) {
+            if (member instanceof CSVar csVar) {
+                processNewObjects(csVar, diff);
             }
         }
     }
 
+    /**
+     * Processes the field/array accesses and instance calls on
+     * the variable for the objects newly pointed to by it.
+     */
+    private void processNewObjects(CSVar csVar, PointsToSet diff) {
+        Var var = csVar.getVar();
+        Context context = csVar.getContext();
+        JMethod prevContributor = contributor;
+        if (incremental) {
+            contributor = var.getMethod();
+        }
+        for (CSObj obj : diff) {
+            var.getLoadFields().forEach(loadField -> {
+
+                addPFGEdge(csManager.getInstanceField(obj, resolveField(loadField.getFieldRef())), csManager.getCSVar(context, loadField.getLValue()));
+            });
+            var.getStoreFields().forEach(storeField -> {
+                addPFGEdge(csManager.getCSVar(context, storeField.getRValue()), csManager.getInstanceField(obj, resolveField(storeField.getFieldRef())));
+            });
+            var.getLoadArrays().forEach(loadArray -> {
+                addPFGEdge(csManager.getArrayIndex(obj), csManager.getCSVar(context, loadArray.getLValue()));
+            });
+            var.getStoreArrays().forEach(storeArray -> {
+                addPFGEdge(csManager.getCSVar(context, storeArray.getRValue()), csManager.getArrayIndex(obj));
+            });
+            processCall(csVar, obj);
+        }
+        if (incremental) {
+            contributor = prevContributor;
+        }
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finish me
+        if (locks != null) {
+            synchronized (lockOf(pointer)) {
+                return doPropagate(pointer, pointsToSet);
+            }
+        }
+        return doPropagate(pointer, pointsToSet);
+    }
+
+    private PointsToSet doPropagate(Pointer pointer, PointsToSet pointsToSet) {
         if (!pointsToSet.isEmpty()) {
             PointsToSet ptn = pointer.getPointsToSet();
             //计算pointsToSet和ptn的差集，并把pointsToSet加入ptn
-            PointsToSet diff = PointsToSetFactory.make();
-            pointsToSet.objects().forEach(obj -> {
-                if (ptn.addObject(obj)) {
-                    diff.addObject(obj);
-                }
-            });
+            PointsToSet diff = ptn.addAllDiff(pointsToSet);
             if (!diff.isEmpty()){
-                pointerFlowGraph.getSuccsOf(pointer).forEach(succ -> {
-                    workList.addEntry(succ, pointsToSet);
-                });
+                // only the new objects need to flow to the successors
+                pointerFlowGraph.forEachSuccOf(pointer,
+                        succ -> addFilteredEntry(succ, diff));
+                if (cycleDetection) {
+                    // collapsing modifies the PFG, thus the candidates
+                    // are collected before any cycle is detected
+                    List<Pointer> cycleCandidates = new ArrayList<>();
+                    pointerFlowGraph.forEachSuccOf(pointer, succ -> {
+                        if (isCycleCandidate(pointer, succ)) {
+                            cycleCandidates.add(succ);
+                        }
+                    });
+                    cycleCandidates.forEach(succ -> detectCycle(pointer, succ));
+                }
             }
             return diff;
 
         }
-        return null;
+        return ptsFactory.make();
+    }
+
+    /**
+     * Lazy cycle detection: an edge (source -> target) whose endpoints
+     * have identical points-to sets is likely on a cycle of the PFG.
+     * Each edge is checked at most once.
+     */
+    private boolean isCycleCandidate(Pointer source, Pointer target) {
+        PointsToSet sourcePts = source.getPointsToSet();
+        PointsToSet targetPts = target.getPointsToSet();
+        return sourcePts != targetPts
+                && sourcePts.size() == targetPts.size()
+                && sourcePts.getObjects().equals(targetPts.getObjects())
+                && checkedEdges.put(source, target);
+    }
+
+    /**
+     * Searches the cycle through edge (source -> target) and collapses it.
+     */
+    private void detectCycle(Pointer source, Pointer target) {
+        Set<Pointer> cycle = pointerFlowGraph.findCycle(source, target);
+        if (!cycle.isEmpty() && (typeFilter == null || haveSameType(cycle))) {
+            collapseCycle(cycle);
+        }
+    }
+
+    /**
+     * Collapsed pointers share a points-to set, thus with type filtering,
+     * only the pointers of the same type can be collapsed.
+     */
+    private static boolean haveSameType(Set<Pointer> pointers) {
+        Type type = null;
+        for (Pointer pointer : pointers) {
+            if (type == null) {
+                type = pointer.getType();
+            } else if (!type.equals(pointer.getType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collapses the PFG nodes on a cycle into one node, and makes all
+     * the pointers on the cycle share a single points-to set.
+     */
+    private void collapseCycle(Set<Pointer> cycle) {
+        PointsToSet shared = ptsFactory.make();
+        cycle.forEach(node -> shared.addAll(node.getPointsToSet()));
+        // objects which are new to each node (and to its members)
+        Map<Pointer, PointsToSet> diffs = Maps.newMap();
+        Map<Pointer, List<Pointer>> members = Maps.newMap();
+        for (Pointer node : cycle) {
+            diffs.put(node, node.getPointsToSet().addAllDiff(shared));
+            members.put(node, List.copyOf(pointerFlowGraph.getMembersOf(node)));
+        }
+        Pointer rep = pointerFlowGraph.collapse(cycle);
+        members.values().forEach(ms -> ms.forEach(m -> m.setPointsToSet(shared)));
+        for (Pointer node : cycle) {
+            PointsToSet diff = diffs.get(node);
+            if (!diff.isEmpty()) {
+                for (Pointer member : members.get(node)) {
+                    if (member instanceof CSVar csVar) {
+                        processNewObjects(csVar, diff);
+                    }
+                }
+            }
+        }
+        // the successors of the collapsed node may miss the objects
+        // from other nodes on the cycle
+        pointerFlowGraph.forEachSuccOf(rep, succ ->
+                addFilteredEntry(succ, shared));
     }
 
     /**
@@ -278,14 +738,16 @@ class Solver {
             if (callee != null) {
                 //pointerFlowGraph.get
                 Context ct = contextSelector.selectContext(csManager.getCSCallSite(recv.getContext(), invoke),recvObj, callee);
-                workList.addEntry(csManager.getCSVar(ct,callee.getIR().getThis() ), PointsToSetFactory.make(recvObj));
+                IR calleeIR = getIR(callee);
+                addObject(csManager.getCSVar(ct,calleeIR.getThis() ), recvObj);
 
                 if (callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(invoke), csManager.getCSCallSite(recv.getContext(),invoke), csManager.getCSMethod(ct,callee)))) {
+                    telemetry.onCallEdge();
                     addReachable(csManager.getCSMethod(ct,callee));
-                    callee.getIR().getParams().forEach(param -> {
+                    calleeIR.getParams().forEach(param -> {
                         addPFGEdge(csManager.getCSVar(recv.getContext(),invoke.getInvokeExp().getArgs().get(param.getIndex()-1)), csManager.getCSVar(ct,param));
                     });
-                    callee.getIR().getReturnVars().forEach(retVar -> {
+                    calleeIR.getReturnVars().forEach(retVar -> {
                         if (invoke.getResult() != null){
                             addPFGEdge(csManager.getCSVar(ct,retVar), csManager.getCSVar(recv.getContext(),invoke.getResult()));
 
@@ -308,7 +770,206 @@ class Solver {
      */
     private JMethod resolveCallee(CSObj recv, Invoke callSite) {
         Type type = recv != null ? recv.getObject().getType() : null;
-        return CallGraphs.resolveCallee(type, callSite);
+        return DispatchCache.resolveCallee(type, callSite);
+    }
+
+    private IR getIR(JMethod method) {
+        return irs != null ?
+                memoize(irs, method, JMethod::getIR) : method.getIR();
+    }
+
+    private Obj getObj(New stmt) {
+        return objs != null ?
+                memoize(objs, stmt, heapModel::getObj) : heapModel.getObj(stmt);
+    }
+
+    private JField resolveField(FieldRef fieldRef) {
+        return fields != null ?
+                memoize(fields, fieldRef, FieldRef::resolve) : fieldRef.resolve();
+    }
+
+    /**
+     * @return the value of given key in given memo table. Reading the
+     * table needs no lock, and the absent value is built by given builder
+     * under {@link #builderLock}.
+     */
+    private <K, V> V memoize(Map<K, V> table, K key, Function<K, V> builder) {
+        V value = table.get(key);
+        if (value == null) {
+            synchronized (builderLock) {
+                value = table.computeIfAbsent(key, builder);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return the CSManager given by option "cs-manager":
+     * <ul>
+     *     <li>array (default): {@link ArrayBasedCSManager}</li>
+     *     <li>map: {@link MapBasedCSManager}</li>
+     * </ul>
+     * The parallel solver always uses {@link ConcurrentCSManager}.
+     */
+    private static CSManager getCSManager(AnalysisOptions options, int parallelism) {
+        if (parallelism > 1) {
+            return new ConcurrentCSManager(options);
+        }
+        String kind = options.getString("cs-manager");
+        if (kind == null || kind.equals("array")) {
+            return new ArrayBasedCSManager(options);
+        } else if (kind.equals("map")) {
+            return new MapBasedCSManager(options);
+        } else {
+            throw new ConfigException("Unknown CSManager kind: " + kind);
+        }
+    }
+
+    /**
+     * @return the number of solver threads given by option "parallelism".
+     * 0 means the number of available processors.
+     */
+    private static int getParallelism(AnalysisOptions options) {
+        if (options.get("parallelism") == null) {
+            return 1;
+        }
+        int parallelism = options.getInt("parallelism");
+        return parallelism > 0 ? parallelism :
+                Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return the work list given by options "delta-propagation" (true
+     * by default) and "worklist". With delta propagation, the work list
+     * holds only pointers, ordered by the work-list policy; otherwise,
+     * it holds (pointer, points-to set) entries in FIFO order.
+     */
+    private static WorkList newWorkList(AnalysisOptions options,
+                                        PointerFlowGraph pointerFlowGraph) {
+        WorkList.Policy policy = getWorkListPolicy(options);
+        if (options.getBooleanOrDefault("delta-propagation", true)) {
+            return new WorkList(policy, pointerFlowGraph);
+        }
+        if (policy != WorkList.Policy.FIFO) {
+            throw new ConfigException("worklist:" + options.getString("worklist")
+                    + " requires delta-propagation:true");
+        }
+        return WorkList.newEntryWorkList();
+    }
+
+    /**
+     * @return the work-list policy given by option "worklist"
+     * (fifo by default).
+     */
+    private static WorkList.Policy getWorkListPolicy(AnalysisOptions options) {
+        String name = options.getString("worklist");
+        return name != null ? WorkList.Policy.of(name) : WorkList.Policy.FIFO;
+    }
+
+    /**
+     * Re-analyzes the program after given methods changed. The PFG edges
+     * and objects contributed by the methods are retracted, the points-to
+     * sets of the pointers which may be affected, i.e., the ones reachable
+     * from the retracted edges and objects in the PFG, are reset, and then
+     * the statements of the methods are re-processed and the affected
+     * pointers are re-propagated.
+     * <p>
+     * If the IR of a changed method has been replaced (see
+     * {@link JMethod#setIR(IR)}), the call edges out of the call sites in
+     * the stale IR are removed, the elements of the stale IR are removed
+     * from {@link CSManager}, and the callers of the method are
+     * re-analyzed as well, as they connect the arguments and results of
+     * their calls to the variables in the stale IR.
+     * <p>
+     * Deletions are handled conservatively: the PFG edges, call edges and
+     * reachable methods derived from the objects of the reset pointers
+     * are kept.
+     */
+    void update(Collection<JMethod> changedMethods) {
+        if (!incremental) {
+            throw new AnalysisException(
+                    "Incremental re-analysis requires option incremental");
+        }
+        Set<JMethod> changed = Sets.newSet();
+        changed.addAll(changedMethods);
+        List<IR> staleIRs = new ArrayList<>();
+        for (JMethod method : changedMethods) {
+            IR processedIR = processedIRs.get(method);
+            if (processedIR != null && processedIR != method.getIR()) {
+                staleIRs.add(processedIR);
+            }
+        }
+        for (IR staleIR : staleIRs) {
+            callGraph.reachableMethods()
+                    .filter(m -> m.getMethod() == staleIR.getMethod())
+                    .toList()
+                    .forEach(csMethod -> {
+                        callGraph.getCallersOf(csMethod).forEach(callSite ->
+                                changed.add(callSite.getContainer().getMethod()));
+                        Context context = csMethod.getContext();
+                        for (Stmt stmt : staleIR) {
+                            if (stmt instanceof Invoke invoke) {
+                                callGraph.removeEdgesOutOf(
+                                        csManager.getCSCallSite(context, invoke));
+                            }
+                        }
+                    });
+            csManager.removeElementsOf(staleIR);
+        }
+        // retract the contributions of the changed methods
+        List<Pair<Pointer, Pointer>> retracted = new ArrayList<>();
+        Set<Pointer> roots = Sets.newSet();
+        for (JMethod method : changed) {
+            retracted.addAll(edgeContribs.get(method));
+            objContribs.get(method).forEach(c -> roots.add(c.first()));
+            edgeContribs.removeAll(method);
+            objContribs.removeAll(method);
+        }
+        Set<Pair<Pointer, Pointer>> remaining = Sets.newSet();
+        remaining.addAll(edgeContribs.values());
+        for (Pair<Pointer, Pointer> edge : retracted) {
+            roots.add(edge.second());
+            if (!remaining.contains(edge)) {
+                pointerFlowGraph.removeEdge(edge.first(), edge.second());
+            }
+        }
+        // the call edges of the changed methods are rebuilt when
+        // their variables are re-propagated
+        List<CSMethod> changedCSMethods = callGraph.reachableMethods()
+                .filter(m -> changed.contains(m.getMethod()))
+                .toList();
+        for (CSMethod csMethod : changedCSMethods) {
+            callGraph.callSitesIn(csMethod).forEach(csCallSite -> {
+                // the call sites in a new IR have no container yet
+                csCallSite.setContainer(csMethod);
+                callGraph.removeEdgesOutOf(csCallSite);
+            });
+            Context context = csMethod.getContext();
+            csMethod.getMethod().getIR().getVars().forEach(var ->
+                    roots.add(csManager.getCSVar(context, var)));
+        }
+        // reset the affected pointers, and re-add the objects flowing
+        // to them from the unaffected part
+        Set<Pointer> affected = pointerFlowGraph.getReachableFrom(roots);
+        affected.forEach(p -> p.setPointsToSet(ptsFactory.make()));
+        objContribs.forEach((method, c) -> {
+            if (affected.contains(c.first())) {
+                workList.addEntry(c.first(), ptsFactory.make(c.second()));
+            }
+        });
+        for (Pair<Pointer, Pointer> edge : remaining) {
+            Pointer source = edge.first();
+            if (!affected.contains(source) && affected.contains(edge.second())
+                    && !source.getPointsToSet().isEmpty()) {
+                addFilteredEntry(edge.second(), source.getPointsToSet());
+            }
+        }
+        logger.info("Incremental update: {} changed methods, {} PFG edges" +
+                        " retracted, {} pointers reset",
+                changed.size(), retracted.size(), affected.size());
+        changedCSMethods.forEach(this::processStmts);
+        result = null;
+        analyze();
     }
 
     PointerAnalysisResult getResult() {
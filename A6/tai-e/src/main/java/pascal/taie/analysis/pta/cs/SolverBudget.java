@@ -0,0 +1,220 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.cs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.DemotingSelector;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.language.classes.JMethod;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Resource budgets of pointer analysis solver, given by options:
+ * <ul>
+ *     <li>time-budget: wall time in seconds</li>
+ *     <li>heap-budget: heap in use after garbage collection, in MB</li>
+ *     <li>max-contexts-per-method: number of contexts of each method</li>
+ * </ul>
+ * 0 (default) means unlimited. A method that gets more contexts than
+ * the limit is demoted to the empty context at once. When the time or
+ * heap budget is exceeded, the methods with the most contexts are demoted,
+ * and more methods are demoted at each check while the budget is still
+ * exceeded, so that the analysis finishes with a sound but less precise
+ * result instead of running for hours or running out of memory.
+ */
+class SolverBudget {
+
+    private static final Logger logger = LogManager.getLogger(SolverBudget.class);
+
+    /**
+     * Number of work-list pops between two checks of time and heap.
+     */
+    private static final int CHECK_INTERVAL = 4096;
+
+    /**
+     * Minimum interval between two demotions caused by time or heap,
+     * which gives the previous demotion a chance to take effect.
+     */
+    private static final long DEMOTION_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Fraction of the context-sensitive methods demoted at once when
+     * the time or heap budget is exceeded.
+     */
+    private static final int DEMOTION_DIVISOR = 10;
+
+    private final long timeBudget;
+
+    private final long heapBudget;
+
+    private final int maxContexts;
+
+    private final DemotingSelector selector;
+
+    private final Map<JMethod, Integer> contextCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Reasons of the demotions.
+     */
+    private final Map<JMethod, String> demotions = new ConcurrentHashMap<>();
+
+    private final AtomicLong pops = new AtomicLong();
+
+    private long startTime;
+
+    private long lastDemotion;
+
+    /**
+     * @return the budget given by the options, or null if no budget is set.
+     */
+    static SolverBudget of(AnalysisOptions options, ContextSelector selector) {
+        long time = getOption(options, "time-budget");
+        long heap = getOption(options, "heap-budget");
+        long contexts = getOption(options, "max-contexts-per-method");
+        return time == 0 && heap == 0 && contexts == 0 ? null :
+                new SolverBudget(TimeUnit.SECONDS.toNanos(time),
+                        heap << 20, (int) contexts, new DemotingSelector(selector));
+    }
+
+    private static long getOption(AnalysisOptions options, String key) {
+        return options.get(key) == null ? 0 : options.getInt(key);
+    }
+
+    private SolverBudget(long timeBudget, long heapBudget, int maxContexts,
+                         DemotingSelector selector) {
+        this.timeBudget = timeBudget;
+        this.heapBudget = heapBudget;
+        this.maxContexts = maxContexts;
+        this.selector = selector;
+    }
+
+    /**
+     * @return the selector which applies the demotions of this budget.
+     */
+    ContextSelector getSelector() {
+        return selector;
+    }
+
+    /**
+     * Starts counting the wall time.
+     */
+    void start() {
+        startTime = lastDemotion = System.nanoTime();
+    }
+
+    void onReachable(CSMethod csMethod) {
+        JMethod method = csMethod.getMethod();
+        int count = contextCounts.merge(method, 1, Integer::sum);
+        if (maxContexts > 0 && count > maxContexts) {
+            demote(method, count + " contexts");
+        }
+    }
+
+    /**
+     * Called at each work-list pop; checks the time and heap budgets
+     * periodically, and demotes methods if any budget is exceeded.
+     */
+    void onPop() {
+        if (pops.incrementAndGet() % CHECK_INTERVAL != 0
+                || (timeBudget == 0 && heapBudget == 0)) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - lastDemotion < DEMOTION_INTERVAL) {
+                return;
+            }
+            String reason = null;
+            if (timeBudget > 0 && now - startTime > timeBudget) {
+                reason = "time budget exceeded";
+            } else if (heapBudget > 0 && getUsedHeap() > heapBudget) {
+                reason = "heap budget exceeded";
+            }
+            if (reason != null) {
+                lastDemotion = now;
+                List<Map.Entry<JMethod, Integer>> candidates = contextCounts.entrySet()
+                        .stream()
+                        .filter(e -> e.getValue() > 1 && !selector.isDemoted(e.getKey()))
+                        .sorted(Map.Entry.<JMethod, Integer>comparingByValue().reversed())
+                        .toList();
+                int n = Math.max(1, candidates.size() / DEMOTION_DIVISOR);
+                for (Map.Entry<JMethod, Integer> e : candidates.subList(
+                        0, Math.min(n, candidates.size()))) {
+                    demote(e.getKey(), reason + ", " + e.getValue() + " contexts");
+                }
+            }
+        }
+    }
+
+    private void demote(JMethod method, String reason) {
+        if (selector.demote(method)) {
+            demotions.put(method, reason);
+            logger.debug("Demoted {} to the empty context: {}", method, reason);
+        }
+    }
+
+    /**
+     * @return heap in use after the last garbage collection, or current
+     * heap in use if the JVM does not report it.
+     */
+    private static long getUsedHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                MemoryUsage usage = pool.isCollectionUsageThresholdSupported() ?
+                        pool.getCollectionUsage() : null;
+                used += (usage != null ? usage : pool.getUsage()).getUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Logs the demoted methods.
+     */
+    void report() {
+        if (demotions.isEmpty()) {
+            logger.info("No method was demoted by the budget");
+        } else {
+            logger.info("{} methods were demoted to the empty context:\n{}",
+                    demotions.size(),
+                    demotions.entrySet()
+                            .stream()
+                            .map(e -> "  " + e.getKey() + ": " + e.getValue())
+                            .sorted()
+                            .collect(Collectors.joining("\n")));
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.cs;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the counters of pointer analysis solver, and reports them
+ * as JFR events and progress lines in the log.
+ * <p>
+ * The counters are updated on the hot paths of the solver, thus they
+ * are {@link LongAdder}s, which are cheap and thread-safe. The costly
+ * statistics, i.e., the histogram of points-to set sizes and the methods
+ * and contexts with the most context-sensitive methods, are computed
+ * only when a detailed report is made.
+ */
+class SolverTelemetry {
+
+    private static final Logger logger = LogManager.getLogger(SolverTelemetry.class);
+
+    /**
+     * Number of methods and contexts shown in detailed reports.
+     */
+    private static final int TOP_N = 5;
+
+    private static final String[] POINTER_KINDS = {
+            "var", "instance field", "array index", "static field"
+    };
+
+    private final long intervalNanos;
+
+    private final AtomicLong nextReport;
+
+    private final long startTime = System.nanoTime();
+
+    private final LongAdder pops = new LongAdder();
+
+    private final LongAdder[] propagated = new LongAdder[POINTER_KINDS.length];
+
+    private final LongAdder pfgEdges = new LongAdder();
+
+    private final LongAdder callEdges = new LongAdder();
+
+    private final LongAdder reachableMethods = new LongAdder();
+
+    /**
+     * @param intervalSeconds interval of periodic reports, 0 to disable them.
+     */
+    SolverTelemetry(long intervalSeconds) {
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(intervalSeconds);
+        this.nextReport = new AtomicLong(startTime + intervalNanos);
+        for (int i = 0; i < propagated.length; ++i) {
+            propagated[i] = new LongAdder();
+        }
+    }
+
+    void onPop() {
+        pops.increment();
+    }
+
+    void onPropagated(Pointer pointer, int nObjects) {
+        propagated[kindOf(pointer)].add(nObjects);
+    }
+
+    void onPFGEdge() {
+        pfgEdges.increment();
+    }
+
+    void onCallEdge() {
+        callEdges.increment();
+    }
+
+    void onReachable(CSMethod csMethod) {
+        reachableMethods.increment();
+        ReachableMethodEvent event = new ReachableMethodEvent();
+        if (event.isEnabled()) {
+            event.method = csMethod.getMethod().getSignature();
+            event.context = csMethod.getContext().toString();
+            event.commit();
+        }
+    }
+
+    /**
+     * @return true if a periodic report is due. Among the threads calling
+     * this method concurrently, only one gets true for each period.
+     */
+    boolean isReportDue() {
+        if (intervalNanos <= 0) {
+            return false;
+        }
+        long next = nextReport.get();
+        return System.nanoTime() >= next &&
+                nextReport.compareAndSet(next, System.nanoTime() + intervalNanos);
+    }
+
+    /**
+     * Reports the counters. A detailed report also includes the statistics
+     * which are computed from the call graph and the points-to sets,
+     * thus it must not be made while other threads are modifying them.
+     */
+    void report(CSCallGraph callGraph, CSManager csManager, boolean detailed) {
+        ProgressEvent event = new ProgressEvent();
+        event.pops = pops.sum();
+        event.propagatedToVars = propagated[0].sum();
+        event.propagatedToInstanceFields = propagated[1].sum();
+        event.propagatedToArrayIndexes = propagated[2].sum();
+        event.propagatedToStaticFields = propagated[3].sum();
+        event.pfgEdges = pfgEdges.sum();
+        event.callEdges = callEdges.sum();
+        event.reachableMethods = reachableMethods.sum();
+        StringBuilder line = new StringBuilder();
+        line.append(String.format("[%ds] %,d pops, propagated",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime),
+                event.pops));
+        for (int i = 0; i < POINTER_KINDS.length; ++i) {
+            line.append(String.format(" %,d to %ss%s", propagated[i].sum(),
+                    POINTER_KINDS[i], i < POINTER_KINDS.length - 1 ? "," : ""));
+        }
+        line.append(String.format(", %,d PFG edges, %,d call edges," +
+                        " %,d reachable CS methods",
+                event.pfgEdges, event.callEdges, event.reachableMethods));
+        if (detailed) {
+            event.ptsSizeHistogram = getPointsToSizeHistogram(csManager);
+            event.topMethods = getTop(callGraph, CSMethod::getMethod);
+            event.topContexts = getTop(callGraph, CSMethod::getContext);
+            line.append("\n  points-to set sizes: ").append(event.ptsSizeHistogram)
+                    .append("\n  methods with most contexts: ").append(event.topMethods)
+                    .append("\n  contexts with most methods: ").append(event.topContexts);
+        }
+        logger.info(line);
+        event.commit();
+    }
+
+    private static int kindOf(Pointer pointer) {
+        if (pointer instanceof CSVar) {
+            return 0;
+        } else if (pointer instanceof InstanceField) {
+            return 1;
+        } else if (pointer instanceof ArrayIndex) {
+            return 2;
+        } else {
+            return 3;
+        }
+    }
+
+    /**
+     * @return histogram of the sizes of points-to sets of variables, where
+     * the bucket [2^(i-1), 2^i) is written as "<2^i: count".
+     */
+    private static String getPointsToSizeHistogram(CSManager csManager) {
+        long[] buckets = new long[Integer.SIZE];
+        for (CSVar csVar : csManager.getCSVars()) {
+            int size = csVar.getPointsToSet().size();
+            ++buckets[Integer.SIZE - Integer.numberOfLeadingZeros(size)];
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < buckets.length; ++i) {
+            if (buckets[i] > 0) {
+                if (!sb.isEmpty()) {
+                    sb.append(", ");
+                }
+                sb.append('<').append(1L << i).append(": ").append(buckets[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the keys (methods or contexts) with the most reachable
+     * context-sensitive methods.
+     */
+    private static <K> String getTop(CSCallGraph callGraph,
+                                     Function<CSMethod, K> key) {
+        Map<K, Long> counts = callGraph.reachableMethods()
+                .collect(Collectors.groupingBy(key, Collectors.counting()));
+        return counts.entrySet()
+                .stream()
+                .sorted(Map.Entry.<K, Long>comparingByValue().reversed())
+                .limit(TOP_N)
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    @Name("pascal.taie.pta.Progress")
+    @Label("Pointer Analysis Progress")
+    @Category({"Tai-e", "Pointer Analysis"})
+    @Description("Counters of pointer analysis solver")
+    static class ProgressEvent extends Event {
+
+        @Label("Work-list Pops")
+        long pops;
+
+        @Label("Objects Propagated to Variables")
+        long propagatedToVars;
+
+        @Label("Objects Propagated to Instance Fields")
+        long propagatedToInstanceFields;
+
+        @Label("Objects Propagated to Array Indexes")
+        long propagatedToArrayIndexes;
+
+        @Label("Objects Propagated to Static Fields")
+        long propagatedToStaticFields;
+
+        @Label("PFG Edges")
+        long pfgEdges;
+
+        @Label("Call Edges")
+        long callEdges;
+
+        @Label("Reachable CS Methods")
+        long reachableMethods;
+
+        @Label("Points-to Set Size Histogram")
+        String ptsSizeHistogram;
+
+        @Label("Methods with Most Contexts")
+        String topMethods;
+
+        @Label("Contexts with Most Methods")
+        String topContexts;
+    }
+
+    @Name("pascal.taie.pta.ReachableMethod")
+    @Label("New Reachable CS Method")
+    @Category({"Tai-e", "Pointer Analysis"})
+    @Enabled(false)
+    static class ReachableMethodEvent extends Event {
+
+        @Label("Method")
+        String method;
+
+        @Label("Context")
+        String context;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filters the objects which flow along PFG edges by the declared types
+ * of the target pointers, so that a pointer only holds the objects
+ * which are assignable to its type.
+ * <p>
+ * Each class in the class hierarchy is given an id, and the subclasses
+ * (including subinterfaces and implementors) of a class are represented
+ * by a bit set over the ids, which is computed once on demand. Thus,
+ * checking whether a class type is a subtype of another one is a bit
+ * lookup. Other types (e.g., array types) are checked by {@link TypeSystem}.
+ * <p>
+ * This class is thread-safe.
+ */
+class TypeFilter {
+
+    private final ClassHierarchy hierarchy;
+
+    private final TypeSystem typeSystem;
+
+    private final PointsToSetFactory ptsFactory;
+
+    /**
+     * Ids of all classes in the hierarchy.
+     */
+    private final Map<JClass, Integer> classIds = Maps.newMap();
+
+    /**
+     * Map from a class to the ids of its subclasses (including itself).
+     */
+    private final Map<JClass, BitSet> subclasses = Maps.newConcurrentMap();
+
+    TypeFilter(ClassHierarchy hierarchy, TypeSystem typeSystem,
+               PointsToSetFactory ptsFactory) {
+        this.hierarchy = hierarchy;
+        this.typeSystem = typeSystem;
+        this.ptsFactory = ptsFactory;
+        hierarchy.allClasses().forEach(c -> classIds.put(c, classIds.size()));
+    }
+
+    /**
+     * @return the objects in pts which are assignable to given type.
+     * If all objects are assignable, returns pts itself.
+     */
+    PointsToSet filter(PointsToSet pts, Type type) {
+        boolean allAssignable = true;
+        for (CSObj obj : pts) {
+            if (!isAssignable(obj.getObject().getType(), type)) {
+                allAssignable = false;
+                break;
+            }
+        }
+        if (allAssignable) {
+            return pts;
+        }
+        List<CSObj> objs = new ArrayList<>(pts.size());
+        for (CSObj obj : pts) {
+            if (isAssignable(obj.getObject().getType(), type)) {
+                objs.add(obj);
+            }
+        }
+        PointsToSet result = ptsFactory.make();
+        result.addObjects(objs);
+        return result;
+    }
+
+    /**
+     * @return true if a value of type from can be assigned to
+     * a variable of type to.
+     */
+    boolean isAssignable(Type from, Type to) {
+        if (from == to) {
+            return true;
+        }
+        if (from instanceof ClassType fromType && to instanceof ClassType toType) {
+            JClass fromClass = fromType.getJClass();
+            JClass toClass = toType.getJClass();
+            if (fromClass != null && toClass != null) {
+                Integer id = classIds.get(fromClass);
+                if (id != null && classIds.containsKey(toClass)) {
+                    return getSubclasses(toClass).get(id);
+                }
+            }
+        }
+        return typeSystem.isSubtype(to, from);
+    }
+
+    private BitSet getSubclasses(JClass jclass) {
+        return subclasses.computeIfAbsent(jclass, c -> {
+            BitSet bits = new BitSet(classIds.size());
+            hierarchy.getAllSubclassesOf(c, true).forEach(sub -> {
+                Integer id = classIds.get(sub);
+                if (id != null) {
+                    bits.set(id);
+                }
+            });
+            return bits;
+        });
+    }
+}
@@ -24,22 +24,214 @@ package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.collection.Maps;
 
 import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents work list in pointer analysis.
+ * <p>
+ * With delta propagation, the work list holds only pointers, and the
+ * objects which flow to a pointer are accumulated in its pending set (see
+ * {@link Pointer#addPending(PointsToSet)}) until the pointer is polled,
+ * so that each pointer is queued at most once. The order of processing
+ * the pointers is decided by the {@link Policy}.
+ * <p>
+ * Without delta propagation (see {@link #newEntryWorkList()}), the work
+ * list holds entries in FIFO order, and each entry carries its own
+ * points-to set.
+ * <p>
+ * A concurrent work list can be shared by multiple solver threads.
+ * It is always FIFO, and it counts the entries which have been added
+ * but not finished (see {@link #finishEntry()}). A thread which finds
+ * the work list empty waits (see {@link #takeEntry()}) until another
+ * thread adds an entry or finishes the last entry.
  */
 class WorkList {
 
-    private final Queue<Entry> entries = new ArrayDeque<>();
+    /**
+     * Scheduling policies of work list.
+     */
+    enum Policy {
+
+        /**
+         * Processes pointers in the order they are added.
+         */
+        FIFO,
+
+        /**
+         * Processes the least recently fired (polled) pointer first.
+         */
+        LRF,
+
+        /**
+         * Processes pointers in topological order of the PFG, which is
+         * computed at the first poll and recomputed periodically.
+         * Pointers added to the PFG after the last computation are
+         * processed last.
+         */
+        TOPO;
+
+        static Policy of(String name) {
+            for (Policy policy : values()) {
+                if (policy.name().equalsIgnoreCase(name)) {
+                    return policy;
+                }
+            }
+            throw new ConfigException("Unknown work list policy: " + name);
+        }
+    }
+
+    /**
+     * Default minimum number of polls between two computations
+     * of topological order.
+     */
+    private static final int MIN_TOPO_PERIOD = 1024;
+
+    private final Policy policy;
+
+    /**
+     * Minimum number of polls between two computations of topological
+     * order, for TOPO policy.
+     */
+    private final int topoPeriod;
+
+    /**
+     * The entries, only used by the work list without delta propagation.
+     */
+    private final Queue<Entry> entries;
+
+    /**
+     * The queued pointers, null for the work list without delta propagation.
+     */
+    private Queue<Pointer> pointers;
+
+    /**
+     * Number of unfinished entries, only maintained by concurrent work list.
+     */
+    private final AtomicInteger unfinished;
+
+    /**
+     * Monitor on which idle threads wait, only used by concurrent work list.
+     */
+    private final Object idle;
+
+    /**
+     * Number of waiting threads, only maintained by concurrent work list.
+     */
+    private final AtomicInteger waiters;
+
+    /**
+     * The PFG, only used by TOPO policy.
+     */
+    private final PointerFlowGraph pointerFlowGraph;
+
+    /**
+     * Time (in polls) when each pointer was last polled, for LRF policy.
+     */
+    private Map<Pointer, Long> lastFired;
+
+    /**
+     * Positions of the pointers in the last topological order, for TOPO policy.
+     */
+    private Map<Pointer, Integer> topoRanks;
+
+    /**
+     * The number of polls when topological order is computed next time.
+     */
+    private long nextSort;
+
+    private long nAdded;
+
+    private long nCoalesced;
+
+    private long nPolled;
+
+    WorkList(Policy policy, PointerFlowGraph pointerFlowGraph) {
+        this(policy, pointerFlowGraph, MIN_TOPO_PERIOD);
+    }
+
+    WorkList(Policy policy, PointerFlowGraph pointerFlowGraph, int topoPeriod) {
+        this.policy = policy;
+        this.topoPeriod = topoPeriod;
+        this.pointerFlowGraph = pointerFlowGraph;
+        this.entries = null;
+        this.unfinished = null;
+        this.idle = null;
+        this.waiters = null;
+        switch (policy) {
+            case FIFO -> pointers = new ArrayDeque<>();
+            case LRF -> {
+                lastFired = Maps.newMap();
+                pointers = new PriorityQueue<>(Comparator.comparingLong(
+                        p -> lastFired.getOrDefault(p, -1L)));
+            }
+            case TOPO -> {
+                topoRanks = Maps.newMap();
+                pointers = new PriorityQueue<>(topoOrder());
+            }
+        }
+    }
+
+    private WorkList(boolean concurrent) {
+        this.policy = Policy.FIFO;
+        this.topoPeriod = MIN_TOPO_PERIOD;
+        this.pointerFlowGraph = null;
+        this.entries = concurrent ?
+                new ConcurrentLinkedQueue<>() : new ArrayDeque<>();
+        this.unfinished = concurrent ? new AtomicInteger() : null;
+        this.idle = concurrent ? new Object() : null;
+        this.waiters = concurrent ? new AtomicInteger() : null;
+    }
+
+    /**
+     * @return a work list which holds entries in FIFO order,
+     * i.e., without delta propagation.
+     */
+    static WorkList newEntryWorkList() {
+        return new WorkList(false);
+    }
+
+    /**
+     * @return a work list which can be accessed by multiple threads.
+     * It holds entries in FIFO order.
+     */
+    static WorkList newConcurrentWorkList() {
+        return new WorkList(true);
+    }
 
     /**
      * Adds an entry to the work list.
      */
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        entries.add(new Entry(pointer, pointsToSet));
+        if (unfinished != null) {
+            unfinished.incrementAndGet();
+            entries.add(new Entry(pointer, pointsToSet));
+            // a thread which starts waiting after the check
+            // polls the work list again before it waits
+            if (waiters.get() > 0) {
+                synchronized (idle) {
+                    idle.notify();
+                }
+            }
+            return;
+        }
+        ++nAdded;
+        if (pointers == null) {
+            entries.add(new Entry(pointer, pointsToSet));
+        } else if (pointer.addPending(pointsToSet)) {
+            pointers.add(pointer);
+        } else {
+            ++nCoalesced;
+        }
     }
 
     /**
@@ -47,14 +239,108 @@ class WorkList {
      * if this work list is empty.
      */
     Entry pollEntry() {
-        return entries.poll();
+        if (unfinished != null) {
+            return entries.poll();
+        }
+        if (policy == Policy.TOPO && nPolled >= nextSort) {
+            sort();
+        }
+        Entry entry;
+        if (pointers == null) {
+            entry = entries.poll();
+        } else {
+            Pointer pointer = pointers.poll();
+            entry = pointer != null ?
+                    new Entry(pointer, pointer.pollPending()) : null;
+            if (pointer != null && policy == Policy.LRF) {
+                lastFired.put(pointer, nPolled);
+            }
+        }
+        if (entry != null) {
+            ++nPolled;
+        }
+        return entry;
+    }
+
+    /**
+     * Recomputes topological order of the PFG, and reorders
+     * the queued pointers accordingly.
+     */
+    private void sort() {
+        List<Pointer> order = pointerFlowGraph.getTopologicalOrder();
+        topoRanks.clear();
+        for (int i = 0; i < order.size(); ++i) {
+            topoRanks.put(order.get(i), i);
+        }
+        Queue<Pointer> reordered = new PriorityQueue<>(
+                Math.max(pointers.size(), 1), topoOrder());
+        reordered.addAll(pointers);
+        pointers = reordered;
+        nextSort = nPolled + Math.max(topoPeriod, topoRanks.size());
+    }
+
+    private Comparator<Pointer> topoOrder() {
+        return Comparator.comparingInt(
+                p -> topoRanks.getOrDefault(p, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Retrieves and removes an entry from this work list, waiting if
+     * necessary until an entry is added or all entries are finished.
+     * Only for concurrent work list.
+     *
+     * @return the entry, or null if all entries added to this work list
+     * have been finished.
+     */
+    Entry takeEntry() throws InterruptedException {
+        Entry entry = entries.poll();
+        if (entry != null) {
+            return entry;
+        }
+        synchronized (idle) {
+            waiters.incrementAndGet();
+            try {
+                while ((entry = entries.poll()) == null) {
+                    if (unfinished.get() == 0) {
+                        return null;
+                    }
+                    idle.wait();
+                }
+                return entry;
+            } finally {
+                waiters.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Marks an entry retrieved from this work list as finished.
+     * Only for concurrent work list.
+     */
+    void finishEntry() {
+        if (unfinished.decrementAndGet() == 0) {
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
     }
 
     /**
      * @return true if the work list is empty, otherwise false.
      */
     boolean isEmpty() {
-        return entries.isEmpty();
+        return pointers == null ? entries.isEmpty() : pointers.isEmpty();
+    }
+
+    /**
+     * @return the statistics of this work list. Not maintained by
+     * concurrent work list.
+     */
+    String getStatistics() {
+        return String.format("%s work list: %d entries added," +
+                        " %d coalesced, %d polled",
+                pointers == null ? "Entry" : policy,
+                nAdded, nCoalesced, nPolled);
     }
 
     /**
@@ -0,0 +1,546 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.demand;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.DispatchCache;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContextFactory;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Demand-driven context-insensitive pointer analysis, which computes
+ * the points-to sets of the queried variables without solving the
+ * whole program.
+ * <p>
+ * A query traverses the pointer flow graph backward from the queried
+ * variable, and the graph is built lazily along the traversal: the
+ * incoming edges of a pointer are added only when its points-to set
+ * is demanded. A load {@code x = y.f} demands the points-to set of y,
+ * and for each object o pointed by y it demands field o.f, which in turn
+ * demands the bases of the stores to f, and only the stores whose bases
+ * point to o flow to o.f, i.e., loads and stores are matched like
+ * parentheses in CFL-reachability. Calls are resolved on the fly with the
+ * objects pointed by the receivers.
+ * <p>
+ * The demanded part of the graph and the points-to sets are kept across
+ * queries, so later queries reuse the results of earlier ones. When a
+ * query finishes, the points-to sets of all demanded pointers are
+ * complete, i.e., they will not change in later queries.
+ * <p>
+ * The stores and call sites which may affect a query are searched in
+ * the methods reachable from the main method in the call graph built
+ * by class hierarchy analysis. Building this index takes the IR of all
+ * these methods, thus it is deferred until a query reaches a field,
+ * an array or a parameter; the queries on the variables whose values
+ * come only from allocations, local assignments and return values
+ * do not build it.
+ * <p>
+ * This analysis is context-insensitive: the contexts given to
+ * {@link #pointsTo(Var, Context)} are ignored, and all pointers and
+ * objects are under the empty context.
+ */
+public class DemandPTA {
+
+    private static final Logger logger = LogManager.getLogger(DemandPTA.class);
+
+    private final HeapModel heapModel;
+
+    private final CSManager csManager;
+
+    private final CSCallGraph callGraph;
+
+    private final Context emptyContext = new ListContextFactory().make();
+
+    private final ClassHierarchy hierarchy;
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Whether the program index below has been built.
+     * See {@link #buildIndex()}.
+     */
+    private boolean indexed = false;
+
+    /**
+     * Call sites of each method in the call graph built by CHA.
+     */
+    private final MultiMap<JMethod, Invoke> callSitesOf = Maps.newMultiMap();
+
+    /**
+     * Stores to each field, including static fields.
+     */
+    private final MultiMap<JField, StoreField> storesOf = Maps.newMultiMap();
+
+    private final List<StoreArray> arrayStores = new ArrayList<>();
+
+    /**
+     * Definitions of each variable, which are indexed per method
+     * when any variable of the method is demanded.
+     */
+    private final MultiMap<Var, Stmt> defsOf = Maps.newMultiMap();
+
+    private final Set<JMethod> defIndexedMethods = Sets.newSet();
+
+    /**
+     * Pointers whose points-to sets have been demanded.
+     */
+    private final Set<Pointer> demanded = Sets.newSet();
+
+    private final Deque<Pointer> demandQueue = new ArrayDeque<>();
+
+    private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
+
+    /**
+     * Handlers of new objects of each variable.
+     */
+    private final Map<CSVar, List<Consumer<CSObj>>> handlers = Maps.newMap();
+
+    private final Set<JField> watchedFields = Sets.newSet();
+
+    private boolean arrayStoresWatched = false;
+
+    private final Deque<Entry> workList = new ArrayDeque<>();
+
+    public DemandPTA(AnalysisOptions options) {
+        this.heapModel = CSPTA.getHeapModel(options);
+        this.csManager = new ArrayBasedCSManager(options);
+        this.callGraph = new CSCallGraph(csManager);
+        this.hierarchy = World.get().getClassHierarchy();
+        this.typeSystem = World.get().getTypeSystem();
+        CSMethod csMain = csManager.getCSMethod(emptyContext,
+                World.get().getMainMethod());
+        callGraph.addEntryMethod(csMain);
+        callGraph.addReachableMethod(csMain);
+    }
+
+    /**
+     * @return the objects pointed by given variable.
+     */
+    public Set<Obj> pointsTo(Var var) {
+        return pointsTo(var, emptyContext)
+                .stream()
+                .map(CSObj::getObject)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Computes the points-to set of given variable under given context.
+     * As this analysis is context-insensitive, the result is the same for
+     * all contexts, and it over-approximates the points-to set under any
+     * context given by context-sensitive analyses. The objects in the
+     * result have the empty heap context.
+     *
+     * @return the objects pointed by given variable.
+     */
+    public Set<CSObj> pointsTo(Var var, Context context) {
+        CSVar csVar = csManager.getCSVar(emptyContext, var);
+        if (!demanded.contains(csVar)) {
+            demand(csVar);
+            solve();
+        }
+        return csVar.getPointsToSet().getObjects();
+    }
+
+    /**
+     * @return the result over the pointers demanded by the queries so far,
+     * which includes the queried variables.
+     */
+    public PointerAnalysisResult getResult() {
+        return new PointerAnalysisResultImpl(csManager, callGraph);
+    }
+
+    /**
+     * Indexes the stores and the call sites in the methods reachable
+     * from the main method in the call graph built by CHA, if they have
+     * not been indexed.
+     */
+    private void ensureIndexed() {
+        if (!indexed) {
+            Timer.runAndCount(this::buildIndex, "Demand PTA index");
+        }
+    }
+
+    private void buildIndex() {
+        JMethod main = World.get().getMainMethod();
+        Set<JMethod> reachable = Sets.newSet();
+        Deque<JMethod> queue = new ArrayDeque<>();
+        reachable.add(main);
+        queue.add(main);
+        Map<MethodRef, Set<JMethod>> chaTargets = Maps.newMap();
+        while (!queue.isEmpty()) {
+            JMethod method = queue.poll();
+            if (method.isAbstract()) {
+                continue;
+            }
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof StoreField store) {
+                    storesOf.put(store.getFieldRef().resolve(), store);
+                } else if (stmt instanceof StoreArray store) {
+                    arrayStores.add(store);
+                } else if (stmt instanceof Invoke invoke && !invoke.isDynamic()) {
+                    for (JMethod callee : chaTargets.computeIfAbsent(
+                            invoke.getMethodRef(), this::resolveByCHA)) {
+                        callSitesOf.put(callee, invoke);
+                        if (reachable.add(callee)) {
+                            queue.add(callee);
+                        }
+                    }
+                }
+            }
+        }
+        indexed = true;
+        logger.info("Demand PTA indexed {} methods, {} field stores, {} array stores",
+                reachable.size(), storesOf.size(), arrayStores.size());
+    }
+
+    private Set<JMethod> resolveByCHA(MethodRef methodRef) {
+        Set<JMethod> targets = Sets.newHybridSet();
+        JClass declaringClass = methodRef.getDeclaringClass();
+        if (declaringClass == null) {
+            return targets;
+        }
+        JMethod resolved = methodRef.resolveNullable();
+        if (resolved != null && (resolved.isStatic() || resolved.isPrivate()
+                || resolved.isConstructor())) {
+            targets.add(resolved);
+            return targets;
+        }
+        for (JClass c : hierarchy.getAllSubclassesOf(declaringClass, true)) {
+            if (!c.isAbstract() && !c.isInterface()) {
+                JMethod target = DispatchCache.dispatch(c.getType(), methodRef.getSubsignature());
+                if (target != null) {
+                    targets.add(target);
+                }
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Demands the points-to set of given pointer.
+     */
+    private void demand(Pointer pointer) {
+        if (demanded.add(pointer)) {
+            demandQueue.add(pointer);
+        }
+    }
+
+    /**
+     * Adds the incoming edges of demanded pointers, and propagates
+     * the objects until the points-to sets of all demanded pointers
+     * reach the fixed point.
+     */
+    private void solve() {
+        while (!demandQueue.isEmpty() || !workList.isEmpty()) {
+            if (!demandQueue.isEmpty()) {
+                Pointer pointer = demandQueue.poll();
+                if (pointer instanceof CSVar csVar) {
+                    addIncomingEdges(csVar);
+                } else if (pointer instanceof InstanceField field) {
+                    addIncomingEdges(field);
+                } else if (pointer instanceof ArrayIndex arrayIndex) {
+                    addIncomingEdges(arrayIndex);
+                } else {
+                    addIncomingEdges((StaticField) pointer);
+                }
+            } else {
+                Entry entry = workList.poll();
+                propagate(entry.pointer(), entry.pointsToSet());
+            }
+        }
+    }
+
+    private void addIncomingEdges(CSVar csVar) {
+        Var var = csVar.getVar();
+        for (Stmt stmt : getDefsOf(var)) {
+            if (stmt instanceof New newStmt) {
+                addObject(csVar, csManager.getCSObj(emptyContext, heapModel.getObj(newStmt)));
+            } else if (stmt instanceof Copy copy) {
+                addEdge(getCSVar(copy.getRValue()), csVar);
+            } else if (stmt instanceof Cast cast) {
+                Type castType = cast.getRValue().getCastType();
+                onNewObject(getCSVar(cast.getRValue().getValue()), obj -> {
+                    if (typeSystem.isSubtype(castType, obj.getObject().getType())) {
+                        addObject(csVar, obj);
+                    }
+                });
+            } else if (stmt instanceof LoadField load) {
+                JField field = load.getFieldRef().resolve();
+                if (field.isStatic()) {
+                    addEdge(csManager.getStaticField(field), csVar);
+                } else {
+                    Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+                    onNewObject(getCSVar(base), obj ->
+                            addEdge(csManager.getInstanceField(obj, field), csVar));
+                }
+            } else if (stmt instanceof LoadArray load) {
+                onNewObject(getCSVar(load.getArrayAccess().getBase()), obj ->
+                        addEdge(csManager.getArrayIndex(obj), csVar));
+            } else if (stmt instanceof Invoke invoke) {
+                onCallee(invoke, callee -> callee.getIR().getReturnVars()
+                        .forEach(ret -> addEdge(getCSVar(ret), csVar)));
+            }
+        }
+        // parameters and this variable receive objects from call sites
+        JMethod method = var.getMethod();
+        IR ir = method.getIR();
+        int i = ir.getParams().indexOf(var);
+        boolean isThis = var == ir.getThis();
+        if (i >= 0 || isThis) {
+            ensureIndexed();
+            for (Invoke invoke : callSitesOf.get(method)) {
+                if (isThis) {
+                    CSVar recv = getCSVar(((InvokeInstanceExp) invoke.getInvokeExp()).getBase());
+                    onNewObject(recv, obj -> {
+                        if (DispatchCache.resolveCallee(obj.getObject().getType(), invoke) == method) {
+                            addObject(csVar, obj);
+                        }
+                    });
+                } else {
+                    CSVar arg = getCSVar(invoke.getInvokeExp().getArg(i));
+                    onCallee(invoke, callee -> {
+                        if (callee == method) {
+                            addEdge(arg, csVar);
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    private void addIncomingEdges(InstanceField field) {
+        ensureIndexed();
+        JField jfield = field.getField();
+        if (watchedFields.add(jfield)) {
+            for (StoreField store : storesOf.get(jfield)) {
+                CSVar from = getCSVar(store.getRValue());
+                Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+                onNewObject(getCSVar(base), obj -> {
+                    InstanceField target = csManager.getInstanceField(obj, jfield);
+                    if (demanded.contains(target)) {
+                        addEdge(from, target);
+                    }
+                });
+            }
+        } else {
+            for (StoreField store : storesOf.get(jfield)) {
+                Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+                if (getCSVar(base).getPointsToSet().contains(field.getBase())) {
+                    addEdge(getCSVar(store.getRValue()), field);
+                }
+            }
+        }
+    }
+
+    private void addIncomingEdges(ArrayIndex arrayIndex) {
+        ensureIndexed();
+        if (!arrayStoresWatched) {
+            arrayStoresWatched = true;
+            for (StoreArray store : arrayStores) {
+                CSVar from = getCSVar(store.getRValue());
+                onNewObject(getCSVar(store.getArrayAccess().getBase()), obj -> {
+                    ArrayIndex target = csManager.getArrayIndex(obj);
+                    if (demanded.contains(target)) {
+                        addEdge(from, target);
+                    }
+                });
+            }
+        } else {
+            for (StoreArray store : arrayStores) {
+                if (getCSVar(store.getArrayAccess().getBase())
+                        .getPointsToSet().contains(arrayIndex.getArray())) {
+                    addEdge(getCSVar(store.getRValue()), arrayIndex);
+                }
+            }
+        }
+    }
+
+    private void addIncomingEdges(StaticField field) {
+        ensureIndexed();
+        for (StoreField store : storesOf.get(field.getField())) {
+            addEdge(getCSVar(store.getRValue()), field);
+        }
+    }
+
+    /**
+     * Calls handler with the callees of given call site. For instance
+     * calls, the callees are resolved with the objects pointed by the
+     * receiver variable, thus handler may be called later when the
+     * receiver variable points to new objects.
+     */
+    private void onCallee(Invoke invoke, Consumer<JMethod> handler) {
+        if (invoke.isStatic()) {
+            JMethod callee = invoke.getMethodRef().resolveNullable();
+            if (callee != null) {
+                addCallEdge(invoke, callee);
+                handler.accept(callee);
+            }
+        } else if (!invoke.isDynamic()) {
+            Set<JMethod> callees = Sets.newHybridSet();
+            CSVar recv = getCSVar(((InvokeInstanceExp) invoke.getInvokeExp()).getBase());
+            onNewObject(recv, obj -> {
+                JMethod callee = DispatchCache.resolveCallee(
+                        obj.getObject().getType(), invoke);
+                if (callee != null && callees.add(callee)) {
+                    addCallEdge(invoke, callee);
+                    handler.accept(callee);
+                }
+            });
+        }
+    }
+
+    private void addCallEdge(Invoke invoke, JMethod callee) {
+        CSMethod caller = csManager.getCSMethod(emptyContext, invoke.getContainer());
+        CSMethod csCallee = csManager.getCSMethod(emptyContext, callee);
+        callGraph.addReachableMethod(caller);
+        callGraph.addReachableMethod(csCallee);
+        CSCallSite csCallSite = csManager.getCSCallSite(emptyContext, invoke);
+        callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(invoke), csCallSite, csCallee));
+    }
+
+    /**
+     * Demands the points-to set of given variable, and calls handler with
+     * each object pointed by the variable, including the objects that
+     * the variable will point to.
+     */
+    private void onNewObject(CSVar csVar, Consumer<CSObj> handler) {
+        handlers.computeIfAbsent(csVar, v -> new ArrayList<>()).add(handler);
+        demand(csVar);
+        for (CSObj obj : csVar.getPointsToSet()) {
+            handler.accept(obj);
+        }
+    }
+
+    private void addEdge(Pointer source, Pointer target) {
+        if (successors.put(source, target)) {
+            demand(source);
+            PointsToSet pts = source.getPointsToSet();
+            if (!pts.isEmpty()) {
+                workList.add(new Entry(target, pts));
+            }
+        }
+    }
+
+    private void addObject(Pointer pointer, CSObj obj) {
+        workList.add(new Entry(pointer, csManager.getPointsToSetFactory().make(obj)));
+    }
+
+    private void propagate(Pointer pointer, PointsToSet pointsToSet) {
+        PointsToSet diff = pointer.getPointsToSet().addAllDiff(pointsToSet);
+        if (diff.isEmpty()) {
+            return;
+        }
+        for (Pointer succ : successors.get(pointer)) {
+            workList.add(new Entry(succ, diff));
+        }
+        if (pointer instanceof CSVar csVar) {
+            List<Consumer<CSObj>> hs = handlers.get(csVar);
+            if (hs != null) {
+                // handlers added by the calls below have seen the new
+                // objects when they were added
+                int n = hs.size();
+                for (CSObj obj : diff) {
+                    for (int i = 0; i < n; ++i) {
+                        hs.get(i).accept(obj);
+                    }
+                }
+            }
+        }
+    }
+
+    private Collection<Stmt> getDefsOf(Var var) {
+        JMethod method = var.getMethod();
+        if (defIndexedMethods.add(method)) {
+            for (Stmt stmt : method.getIR()) {
+                stmt.getDef().ifPresent(def -> {
+                    if (def instanceof Var v) {
+                        defsOf.put(v, stmt);
+                    }
+                });
+            }
+        }
+        return defsOf.get(var);
+    }
+
+    private CSVar getCSVar(Var var) {
+        return csManager.getCSVar(emptyContext, var);
+    }
+
+    private record Entry(Pointer pointer, PointsToSet pointsToSet) {
+    }
+}
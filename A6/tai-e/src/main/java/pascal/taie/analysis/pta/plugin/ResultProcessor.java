@@ -27,6 +27,7 @@ import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.toolkit.snapshot.ResultSnapshot;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Streams;
@@ -72,6 +73,12 @@ public class ResultProcessor {
     public static void process(AnalysisOptions options,
                                PointerAnalysisResult result) {
         printStatistics(result);
+        String snapshot = options.getString("snapshot");
+        if (snapshot != null) {
+            logger.info("Writing snapshot of pointer analysis result to {} ...",
+                    snapshot);
+            ResultSnapshot.write(result, Path.of(snapshot));
+        }
         String action = options.getString("action");
         if (action == null) {
             return;
@@ -0,0 +1,152 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.SparseBitSet;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Points-to set represented by a sparse bit set over the indexes of
+ * {@link CSObj}. Union of two such sets is done word by word.
+ */
+class BitSetPointsToSet implements PointsToSet {
+
+    private final Indexer<CSObj> indexer;
+
+    private final SparseBitSet bits;
+
+    BitSetPointsToSet(Indexer<CSObj> indexer) {
+        this(indexer, new SparseBitSet());
+    }
+
+    private BitSetPointsToSet(Indexer<CSObj> indexer, SparseBitSet bits) {
+        this.indexer = indexer;
+        this.bits = bits;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        return bits.set(indexer.getIndex(obj));
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        if (pts instanceof BitSetPointsToSet other) {
+            return bits.or(other.bits);
+        } else {
+            boolean changed = false;
+            for (CSObj obj : pts) {
+                changed |= addObject(obj);
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        if (pts instanceof BitSetPointsToSet other) {
+            return new BitSetPointsToSet(indexer, bits.orDiff(other.bits));
+        } else {
+            return PointsToSet.super.addAllDiff(pts);
+        }
+    }
+
+    @Override
+    public PointsToSet makeEmpty() {
+        return new BitSetPointsToSet(indexer);
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return bits.get(indexer.getIndex(obj));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return bits.cardinality();
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return new AbstractSet<>() {
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof CSObj obj && BitSetPointsToSet.this.contains(obj);
+            }
+
+            @Override
+            public Iterator<CSObj> iterator() {
+                return BitSetPointsToSet.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return bits.cardinality();
+            }
+        };
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(),
+                bits.cardinality(), Spliterator.DISTINCT), false);
+    }
+
+    @Override
+    public Iterator<CSObj> iterator() {
+        PrimitiveIterator.OfInt it = bits.iterator();
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public CSObj next() {
+                return indexer.getObject(it.nextInt());
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return getObjects().toString();
+    }
+}
@@ -24,6 +24,7 @@ package pascal.taie.analysis.pta.pts;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -49,6 +50,42 @@ public interface PointsToSet extends Iterable<CSObj> {
      */
     boolean addAll(PointsToSet pts);
 
+    /**
+     * Adds all given objects to this set. Implementations may override
+     * this method to add the objects in bulk rather than one by one.
+     *
+     * @return true if this points-to set changed as a result of the call,
+     * otherwise false.
+     */
+    default boolean addObjects(Collection<CSObj> objs) {
+        boolean changed = false;
+        for (CSObj obj : objs) {
+            changed |= addObject(obj);
+        }
+        return changed;
+    }
+
+    /**
+     * Adds all objects in given pts to this set.
+     *
+     * @return a new set that contains the objects which are in given pts
+     * but were not in this set before the call.
+     */
+    default PointsToSet addAllDiff(PointsToSet pts) {
+        PointsToSet diff = makeEmpty();
+        for (CSObj obj : pts) {
+            if (addObject(obj)) {
+                diff.addObject(obj);
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * @return a new empty set of the same kind as this set.
+     */
+    PointsToSet makeEmpty();
+
     /**
      * @return true if this set contains given object, otherwise false.
      */
@@ -23,26 +23,64 @@
 package pascal.taie.analysis.pta.pts;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.Sets;
 
-import java.util.Set;
 import java.util.function.Supplier;
 
 /**
- * Provides static factory methods for {@link PointsToSet}.
+ * Makes {@link PointsToSet}s of the kind selected for an analysis.
+ * Each analysis owns its factory (via its {@link
+ * pascal.taie.analysis.pta.core.cs.element.CSManager}), so that
+ * analyses with different options can run in the same JVM.
  */
 public class PointsToSetFactory {
 
-    private static final Supplier<Set<CSObj>> setFactory = Sets::newHybridSet;
+    private final Supplier<PointsToSet> setFactory;
 
-    public static PointsToSet make() {
-        return new DelegatePointsToSet(setFactory.get());
+    /**
+     * Makes a factory of hybrid points-to sets.
+     */
+    public PointsToSetFactory() {
+        setFactory = () -> new DelegatePointsToSet(Sets.newHybridSet());
+    }
+
+    /**
+     * Makes a factory which selects the implementation of points-to sets
+     * according to option "pts-set":
+     * <ul>
+     *     <li>hybrid (default): hybrid hash sets of {@link CSObj}</li>
+     *     <li>sparse-bitset: sparse bit sets over the indexes
+     *     given by objIndexer</li>
+     *     <li>shared: immutable sets interned in a table and shared by
+     *     the pointers with the same objects, which are updated by
+     *     copy-on-write</li>
+     * </ul>
+     */
+    public PointsToSetFactory(AnalysisOptions options, Indexer<CSObj> objIndexer) {
+        String kind = options.getString("pts-set");
+        if (kind == null || kind.equals("hybrid")) {
+            setFactory = () -> new DelegatePointsToSet(Sets.newHybridSet());
+        } else if (kind.equals("sparse-bitset")) {
+            setFactory = () -> new BitSetPointsToSet(objIndexer);
+        } else if (kind.equals("shared")) {
+            SetInterner interner = new SetInterner(objIndexer);
+            setFactory = () -> new SharedPointsToSet(interner);
+        } else {
+            throw new ConfigException("Unknown points-to set kind: " + kind);
+        }
+    }
+
+    public PointsToSet make() {
+        return setFactory.get();
     }
 
     /**
      * Convenient method for making one-element points-to set.
      */
-    public static PointsToSet make(CSObj obj) {
+    public PointsToSet make(CSObj obj) {
         PointsToSet set = make();
         set.addObject(obj);
         return set;
@@ -0,0 +1,268 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Interning table of immutable points-to sets, which are shared by
+ * all {@link SharedPointsToSet}s with the same content.
+ * <p>
+ * Short-lived sets, e.g., the difference sets being propagated, are
+ * not interned (see {@link #transientSet(int[])}), and the operations
+ * below never return them as the result of an update.
+ * <p>
+ * The canonical sets are weakly referenced, so that the sets which are
+ * not held by any pointer any longer can be reclaimed. Results of
+ * unions are memoized in a bounded cache. All methods are thread-safe.
+ */
+class SetInterner {
+
+    /**
+     * Default maximum number of memoized unions.
+     */
+    private static final int MAX_MEMOIZED_UNIONS = 1 << 20;
+
+    private final Indexer<CSObj> indexer;
+
+    private final Map<Canonical, WeakReference<Canonical>> table = new WeakHashMap<>();
+
+    /**
+     * Memoized unions, keyed by the ids of the operands. The results are
+     * strongly referenced, so the cache is cleared when it grows beyond
+     * {@link #maxMemoizedUnions}, which releases the results that are
+     * not held by any pointer.
+     */
+    private final Map<Long, Canonical> unions = new HashMap<>();
+
+    private final int maxMemoizedUnions;
+
+    private final Canonical empty;
+
+    private int counter = 0;
+
+    SetInterner(Indexer<CSObj> indexer) {
+        this(indexer, MAX_MEMOIZED_UNIONS);
+    }
+
+    SetInterner(Indexer<CSObj> indexer, int maxMemoizedUnions) {
+        this.indexer = indexer;
+        this.maxMemoizedUnions = maxMemoizedUnions;
+        this.empty = intern(new int[0]);
+    }
+
+    Indexer<CSObj> getIndexer() {
+        return indexer;
+    }
+
+    Canonical empty() {
+        return empty;
+    }
+
+    /**
+     * @return the number of canonical sets which have not been reclaimed.
+     */
+    synchronized int size() {
+        return table.size();
+    }
+
+    /**
+     * @return the number of memoized unions.
+     */
+    synchronized int getMemoizedUnions() {
+        return unions.size();
+    }
+
+    /**
+     * @return canonical set of given sorted indexes.
+     */
+    synchronized Canonical intern(int[] elems) {
+        Canonical key = new Canonical(elems, -1);
+        WeakReference<Canonical> ref = table.get(key);
+        Canonical canonical = ref != null ? ref.get() : null;
+        if (canonical == null) {
+            canonical = new Canonical(elems, counter++);
+            table.put(canonical, new WeakReference<>(canonical));
+        }
+        return canonical;
+    }
+
+    /**
+     * @return a set of given indexes which is not interned. The indexes
+     * can be in any order and may contain duplicates, as they are sorted
+     * once here.
+     */
+    Canonical transientSet(int[] objs) {
+        Arrays.sort(objs);
+        int k = 0;
+        for (int i = 0; i < objs.length; ++i) {
+            if (k == 0 || objs[i] != objs[k - 1]) {
+                objs[k++] = objs[i];
+            }
+        }
+        return new Canonical(k == objs.length ? objs : Arrays.copyOf(objs, k), -1);
+    }
+
+    /**
+     * @return canonical set which contains the objects in s and obj.
+     */
+    Canonical add(Canonical s, int obj) {
+        int pos = Arrays.binarySearch(s.elems, obj);
+        if (pos >= 0) {
+            return s;
+        }
+        int ins = -pos - 1;
+        int[] elems = new int[s.elems.length + 1];
+        System.arraycopy(s.elems, 0, elems, 0, ins);
+        elems[ins] = obj;
+        System.arraycopy(s.elems, ins, elems, ins + 1, s.elems.length - ins);
+        return intern(elems);
+    }
+
+    /**
+     * @return canonical set which is the union of s1 and s2.
+     */
+    Canonical union(Canonical s1, Canonical s2) {
+        if (s1 == s2 || s2.elems.length == 0) {
+            return canonical(s1);
+        }
+        if (s1.elems.length == 0) {
+            return canonical(s2);
+        }
+        if (s1.id < 0 || s2.id < 0) {
+            // unions with transient sets are not memoized
+            int[] merged = merge(s1.elems, s2.elems);
+            return s1.id >= 0 && merged.length == s1.elems.length ?
+                    s1 : intern(merged);
+        }
+        long key = s1.id < s2.id ?
+                ((long) s1.id << 32) | s2.id :
+                ((long) s2.id << 32) | s1.id;
+        synchronized (this) {
+            Canonical result = unions.get(key);
+            if (result != null) {
+                return result;
+            }
+        }
+        Canonical result = intern(merge(s1.elems, s2.elems));
+        synchronized (this) {
+            if (unions.size() >= maxMemoizedUnions) {
+                unions.clear();
+            }
+            unions.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return transient set which contains the objects in s1 but not in s2.
+     */
+    Canonical difference(Canonical s1, Canonical s2) {
+        int[] a = s1.elems, b = s2.elems;
+        int[] result = new int[a.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length) {
+            if (j == b.length || a[i] < b[j]) {
+                result[k++] = a[i++];
+            } else if (a[i] > b[j]) {
+                ++j;
+            } else {
+                ++i;
+                ++j;
+            }
+        }
+        return k == a.length ? s1 : new Canonical(Arrays.copyOf(result, k), -1);
+    }
+
+    /**
+     * @return s if it is interned, otherwise the canonical set of its content.
+     */
+    private Canonical canonical(Canonical s) {
+        return s.id >= 0 ? s : intern(s.elems);
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[k++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[k++] = b[j++];
+            } else {
+                result[k++] = a[i++];
+                ++j;
+            }
+        }
+        while (i < a.length) {
+            result[k++] = a[i++];
+        }
+        while (j < b.length) {
+            result[k++] = b[j++];
+        }
+        return k == result.length ? result : Arrays.copyOf(result, k);
+    }
+
+    /**
+     * Immutable set of object indexes, which are sorted in ascending order.
+     */
+    static final class Canonical {
+
+        final int[] elems;
+
+        /**
+         * Unique id of this canonical set, -1 for the sets which are not
+         * interned, i.e., lookup keys and transient sets.
+         */
+        private final int id;
+
+        private final int hash;
+
+        private Canonical(int[] elems, int id) {
+            this.elems = elems;
+            this.id = id;
+            this.hash = Arrays.hashCode(elems);
+        }
+
+        boolean contains(int obj) {
+            return Arrays.binarySearch(elems, obj) >= 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Canonical other
+                    && hash == other.hash && Arrays.equals(elems, other.elems));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set which refers to an immutable canonical set in a
+ * {@link SetInterner}. Pointers with the same objects share the same
+ * canonical set, and updates are copy-on-write, i.e., they replace
+ * the canonical set this set refers to.
+ */
+class SharedPointsToSet implements PointsToSet {
+
+    private final SetInterner interner;
+
+    private SetInterner.Canonical set;
+
+    SharedPointsToSet(SetInterner interner) {
+        this(interner, interner.empty());
+    }
+
+    private SharedPointsToSet(SetInterner interner, SetInterner.Canonical set) {
+        this.interner = interner;
+        this.set = set;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        SetInterner.Canonical old = set;
+        set = interner.add(old, interner.getIndexer().getIndex(obj));
+        return set != old;
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        if (pts instanceof SharedPointsToSet other) {
+            SetInterner.Canonical old = set;
+            set = interner.union(old, other.set);
+            return set != old;
+        } else {
+            boolean changed = false;
+            for (CSObj obj : pts) {
+                changed |= addObject(obj);
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * Collects the indexes of given objects, and adds them in one union,
+     * i.e., the objects are sorted and interned once.
+     */
+    @Override
+    public boolean addObjects(Collection<CSObj> objs) {
+        SetInterner.Canonical old = set;
+        set = interner.union(old, interner.transientSet(indexesOf(objs)));
+        return set != old;
+    }
+
+    /**
+     * The returned difference set is transient, i.e., not interned.
+     */
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        SetInterner.Canonical added = pts instanceof SharedPointsToSet other ?
+                other.set : interner.transientSet(indexesOf(pts.getObjects()));
+        SetInterner.Canonical old = set;
+        set = interner.union(old, added);
+        return new SharedPointsToSet(interner, set == old ?
+                interner.empty() : interner.difference(added, old));
+    }
+
+    private int[] indexesOf(Collection<CSObj> objs) {
+        Indexer<CSObj> indexer = interner.getIndexer();
+        int[] indexes = new int[objs.size()];
+        int i = 0;
+        for (CSObj obj : objs) {
+            indexes[i++] = indexer.getIndex(obj);
+        }
+        return indexes;
+    }
+
+    @Override
+    public PointsToSet makeEmpty() {
+        return new SharedPointsToSet(interner);
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return set.contains(interner.getIndexer().getIndex(obj));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return set.elems.length == 0;
+    }
+
+    @Override
+    public int size() {
+        return set.elems.length;
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return new AbstractSet<>() {
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof CSObj obj && SharedPointsToSet.this.contains(obj);
+            }
+
+            @Override
+            public Iterator<CSObj> iterator() {
+                return SharedPointsToSet.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return SharedPointsToSet.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        Indexer<CSObj> indexer = interner.getIndexer();
+        return Arrays.stream(set.elems).mapToObj(indexer::getObject);
+    }
+
+    @Override
+    public Iterator<CSObj> iterator() {
+        int[] elems = set.elems;
+        Indexer<CSObj> indexer = interner.getIndexer();
+        return new Iterator<>() {
+
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < elems.length;
+            }
+
+            @Override
+            public CSObj next() {
+                if (i >= elems.length) {
+                    throw new NoSuchElementException();
+                }
+                return indexer.getObject(elems[i++]);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return getObjects().toString();
+    }
+}
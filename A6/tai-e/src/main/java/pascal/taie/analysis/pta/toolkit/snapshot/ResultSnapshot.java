@@ -0,0 +1,916 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.snapshot;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AbstractResultHolder;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Sets;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Binary snapshot of pointer analysis result, which can be loaded
+ * without re-running the analysis, e.g., via option "load" of
+ * {@link pascal.taie.analysis.pta.cs.CSPTA}.
+ * <p>
+ * The snapshot is memory-mapped. The points-to sets of variables and
+ * their context-sensitive variables, and the call graph are decoded
+ * lazily when they are queried, while the context-sensitive call graph
+ * is rebuilt on its first query, and the other context-sensitive
+ * pointers are rebuilt when the whole result is queried, e.g., by
+ * {@link #getCSVars()}. Variables, methods and fields are resolved against
+ * the current {@link World} by their signatures, while objects and
+ * contexts are restored from their descriptions.
+ * <p>
+ * The file consists of a header (magic number, version and the
+ * offset/length of each section in longs) and the sections below,
+ * all in ints except the string bytes:
+ * <ul>
+ *     <li>METHODS: signature of each method, sorted by signature</li>
+ *     <li>VARS: (method, index, name) of each variable, sorted by
+ *     (method, index)</li>
+ *     <li>VAR_CSVARS: the first context-sensitive variable of each
+ *     variable, plus the total number</li>
+ *     <li>CSVARS: (context, start, end) of each context-sensitive variable,
+ *     where [start, end) is its points-to set (ids of CS objects) in POOL</li>
+ *     <li>VAR_PTS: (start, end) of the points-to set (ids of objects)
+ *     of each variable in POOL</li>
+ *     <li>OBJS: (description, type, container method, container type)
+ *     of each object, where absent containers are -1</li>
+ *     <li>CONTEXTS: (description, start, end) of each context, where
+ *     [start, end) are the descriptions of its elements in POOL</li>
+ *     <li>CSOBJS: (object, heap context) of each CS object</li>
+ *     <li>STATIC_FIELDS: (field, start, end) of each static field</li>
+ *     <li>INSTANCE_FIELDS: (base, field, start, end) of each instance field</li>
+ *     <li>ARRAY_INDEXES: (array, start, end) of each array index</li>
+ *     <li>REACHABLE: sorted ids of reachable methods</li>
+ *     <li>CALL_EDGES: (caller, call-site index, callee) of each
+ *     call edge, sorted</li>
+ *     <li>CS_METHODS: (method, context) of each reachable CS method</li>
+ *     <li>CS_ENTRIES: ids of the entry CS methods</li>
+ *     <li>CS_CALL_EDGES: (caller, call-site index, callee) of each
+ *     CS call edge</li>
+ *     <li>POOL: the points-to sets and context elements</li>
+ *     <li>STRING_OFFSETS/STRING_BYTES: UTF-8 strings referenced by
+ *     the other sections</li>
+ * </ul>
+ * Each section is mapped separately, thus the file may exceed 2 GB,
+ * but a single section may not.
+ */
+public class ResultSnapshot extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    static final int MAGIC = 0x50544153; // "PTAS"
+
+    static final int VERSION = 2;
+
+    static final int METHODS = 0;
+
+    static final int VARS = 1;
+
+    static final int VAR_CSVARS = 2;
+
+    static final int CSVARS = 3;
+
+    static final int VAR_PTS = 4;
+
+    static final int OBJS = 5;
+
+    static final int CONTEXTS = 6;
+
+    static final int CSOBJS = 7;
+
+    static final int STATIC_FIELDS = 8;
+
+    static final int INSTANCE_FIELDS = 9;
+
+    static final int ARRAY_INDEXES = 10;
+
+    static final int REACHABLE = 11;
+
+    static final int CALL_EDGES = 12;
+
+    static final int CS_METHODS = 13;
+
+    static final int CS_ENTRIES = 14;
+
+    static final int CS_CALL_EDGES = 15;
+
+    static final int POOL = 16;
+
+    static final int STRING_OFFSETS = 17;
+
+    static final int STRING_BYTES = 18;
+
+    static final int NUM_SECTIONS = 19;
+
+    /**
+     * Size of the header: magic number, version, and (offset, length)
+     * of each section.
+     */
+    static final int HEADER_SIZE = 8 + NUM_SECTIONS * 16;
+
+    private final IntBuffer[] sections = new IntBuffer[STRING_BYTES];
+
+    private final ByteBuffer stringBytes;
+
+    /**
+     * Objects restored from this snapshot, indexed by their ids.
+     */
+    private final Obj[] objs;
+
+    /**
+     * Contexts restored from this snapshot, indexed by their ids.
+     */
+    private final Context[] contexts;
+
+    /**
+     * CS objects restored from this snapshot, indexed by their ids.
+     */
+    private final CSObj[] csObjs;
+
+    /**
+     * Ids of the variables whose context-sensitive variables have been
+     * decoded from this snapshot.
+     */
+    private final BitSet decodedVars = new BitSet();
+
+    private final CSManager csManager = new MapBasedCSManager();
+
+    private final CallGraph<Invoke, JMethod> callGraph = new SnapshotCallGraph();
+
+    private List<Var> vars;
+
+    private CSCallGraph csCallGraph;
+
+    /**
+     * The result rebuilt from this snapshot, which holds all the
+     * context-sensitive pointers and call graph.
+     */
+    private PointerAnalysisResult rebuilt;
+
+    private ResultSnapshot(ByteBuffer[] buffers) {
+        for (int i = 0; i < STRING_BYTES; ++i) {
+            sections[i] = buffers[i].asIntBuffer();
+        }
+        stringBytes = buffers[STRING_BYTES];
+        objs = new Obj[sections[OBJS].limit() / 4];
+        contexts = new Context[sections[CONTEXTS].limit() / 3];
+        csObjs = new CSObj[sections[CSOBJS].limit() / 2];
+    }
+
+    /**
+     * Memory-maps a snapshot file.
+     */
+    public static ResultSnapshot open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = size < HEADER_SIZE ? null :
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header == null || header.getInt(0) != MAGIC
+                    || header.getInt(4) != VERSION) {
+                throw new AnalysisException(file + " is not a pointer" +
+                        " analysis snapshot of version " + VERSION);
+            }
+            ByteBuffer[] buffers = new ByteBuffer[NUM_SECTIONS];
+            for (int i = 0; i < NUM_SECTIONS; ++i) {
+                long offset = header.getLong(8 + i * 16);
+                long length = header.getLong(16 + i * 16);
+                if (length > Integer.MAX_VALUE) {
+                    throw new AnalysisException("Section " + i + " of snapshot "
+                            + file + " exceeds 2 GB");
+                }
+                if (offset < HEADER_SIZE || offset + length > size) {
+                    throw new AnalysisException("Snapshot " + file + " is truncated");
+                }
+                buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            }
+            return new ResultSnapshot(buffers);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to open snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Writes a snapshot of given result to file.
+     */
+    public static void write(PointerAnalysisResult result, Path file) {
+        try {
+            new SnapshotWriter(result).write(file);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write snapshot " + file, e);
+        }
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        if (vars == null) {
+            List<Var> list = new ArrayList<>();
+            for (int i = 0; i < sections[VARS].limit() / 3; ++i) {
+                Var var = getVar(i);
+                if (var != null) {
+                    list.add(var);
+                }
+            }
+            vars = Collections.unmodifiableList(list);
+        }
+        return vars;
+    }
+
+    /**
+     * Decodes the points-to set of given variable from the snapshot
+     * without rebuilding the context-sensitive pointers.
+     */
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        int id = getVarId(var);
+        if (id < 0) {
+            return Set.of();
+        }
+        IntBuffer varPts = sections[VAR_PTS];
+        Set<Obj> pts = Sets.newHybridSet();
+        for (int obj : getInts(varPts.get(id * 2), varPts.get(id * 2 + 1))) {
+            pts.add(getObj(obj));
+        }
+        return Collections.unmodifiableSet(pts);
+    }
+
+    /**
+     * Decodes the context-sensitive variables of given variable from
+     * the snapshot without rebuilding the other pointers.
+     *
+     * @return the context-sensitive variables of given variable.
+     */
+    public synchronized Collection<CSVar> getCSVarsOf(Var var) {
+        int id = getVarId(var);
+        return id < 0 ? List.of() : decodeCSVars(id, var);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return rebuild().getCSVars();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return rebuild().getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return rebuild().getArrayIndexes();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return rebuild().getStaticFields();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        return rebuild().getCSObjects();
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        return rebuild().getObjects();
+    }
+
+    @Override
+    public Set<CSObj> getPointsToSet(CSVar csVar) {
+        return rebuild().getPointsToSet(csVar);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        return rebuild().getPointsToSet(base, field);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        return rebuild().getPointsToSet(field);
+    }
+
+    @Override
+    public synchronized CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        if (csCallGraph == null) {
+            csCallGraph = rebuildCallGraph();
+        }
+        return csCallGraph;
+    }
+
+    /**
+     * @return the call graph, which is a view of this snapshot.
+     */
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        return callGraph;
+    }
+
+    /**
+     * @return true if given method is reachable in the call graph.
+     */
+    public boolean isReachable(JMethod method) {
+        int id = getMethodId(method);
+        if (id < 0) {
+            return false;
+        }
+        IntBuffer reachable = sections[REACHABLE];
+        int low = 0, high = reachable.limit() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int m = reachable.get(mid);
+            if (m < id) {
+                low = mid + 1;
+            } else if (m > id) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the callees of given call site in the call graph.
+     */
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        int caller = getMethodId(callSite.getContainer());
+        if (caller < 0) {
+            return Set.of();
+        }
+        int index = callSite.getIndex();
+        Set<JMethod> callees = Sets.newHybridSet();
+        for (int i = findEdge(caller, index); i < findEdge(caller, index + 1); ++i) {
+            JMethod callee = getMethod(sections[CALL_EDGES].get(i * 3 + 2));
+            if (callee != null) {
+                callees.add(callee);
+            }
+        }
+        return callees;
+    }
+
+    /**
+     * @return id of the first call edge which is not less than
+     * (caller, call-site index).
+     */
+    private int findEdge(int caller, int index) {
+        IntBuffer edges = sections[CALL_EDGES];
+        int low = 0, high = edges.limit() / 3;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int c = compare(edges.get(mid * 3), edges.get(mid * 3 + 1), caller, index);
+            if (c < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the call edge of given id, or null if its caller or callee
+     * is absent in the current world.
+     */
+    private Edge<Invoke, JMethod> getEdge(int id) {
+        IntBuffer edges = sections[CALL_EDGES];
+        JMethod caller = getMethod(edges.get(id * 3));
+        JMethod callee = getMethod(edges.get(id * 3 + 2));
+        if (caller == null || callee == null) {
+            return null;
+        }
+        Invoke callSite = (Invoke) caller.getIR().getStmt(edges.get(id * 3 + 1));
+        return new Edge<>(CallGraphs.getCallKind(callSite), callSite, callee);
+    }
+
+    /**
+     * Rebuilds all context-sensitive pointers and call graph
+     * of this snapshot on the first call.
+     */
+    private synchronized PointerAnalysisResult rebuild() {
+        if (rebuilt != null) {
+            return rebuilt;
+        }
+        // CS objects are created in the order of their ids
+        for (int i = 0; i < csObjs.length; ++i) {
+            getCSObj(i);
+        }
+        for (int i = 0; i < sections[VARS].limit() / 3; ++i) {
+            Var var = getVar(i);
+            if (var != null) {
+                decodeCSVars(i, var);
+            }
+        }
+        IntBuffer staticFields = sections[STATIC_FIELDS];
+        for (int i = 0; i < staticFields.limit() / 3; ++i) {
+            JField field = getField(staticFields.get(i * 3));
+            if (field != null) {
+                addObjects(csManager.getStaticField(field).getPointsToSet(),
+                        staticFields.get(i * 3 + 1), staticFields.get(i * 3 + 2));
+            }
+        }
+        IntBuffer instanceFields = sections[INSTANCE_FIELDS];
+        for (int i = 0; i < instanceFields.limit() / 4; ++i) {
+            JField field = getField(instanceFields.get(i * 4 + 1));
+            if (field != null) {
+                CSObj base = getCSObj(instanceFields.get(i * 4));
+                addObjects(csManager.getInstanceField(base, field).getPointsToSet(),
+                        instanceFields.get(i * 4 + 2), instanceFields.get(i * 4 + 3));
+            }
+        }
+        IntBuffer arrayIndexes = sections[ARRAY_INDEXES];
+        for (int i = 0; i < arrayIndexes.limit() / 3; ++i) {
+            CSObj array = getCSObj(arrayIndexes.get(i * 3));
+            addObjects(csManager.getArrayIndex(array).getPointsToSet(),
+                    arrayIndexes.get(i * 3 + 1), arrayIndexes.get(i * 3 + 2));
+        }
+        getCSCallGraph();
+        rebuilt = new PointerAnalysisResultImpl(csManager, csCallGraph);
+        return rebuilt;
+    }
+
+    /**
+     * Decodes the context-sensitive variables of given variable and,
+     * on the first call for the variable, their points-to sets.
+     */
+    private List<CSVar> decodeCSVars(int id, Var var) {
+        IntBuffer varCSVars = sections[VAR_CSVARS];
+        IntBuffer csVarEntries = sections[CSVARS];
+        boolean decoded = decodedVars.get(id);
+        List<CSVar> result = new ArrayList<>();
+        for (int i = varCSVars.get(id); i < varCSVars.get(id + 1); ++i) {
+            CSVar csVar = csManager.getCSVar(getContext(csVarEntries.get(i * 3)), var);
+            if (!decoded) {
+                addObjects(csVar.getPointsToSet(),
+                        csVarEntries.get(i * 3 + 1), csVarEntries.get(i * 3 + 2));
+            }
+            result.add(csVar);
+        }
+        decodedVars.set(id);
+        return Collections.unmodifiableList(result);
+    }
+
+    private void addObjects(PointsToSet pts, int start, int end) {
+        for (int csObj : getInts(start, end)) {
+            pts.addObject(getCSObj(csObj));
+        }
+    }
+
+    private synchronized CSObj getCSObj(int id) {
+        if (csObjs[id] == null) {
+            IntBuffer csObjEntries = sections[CSOBJS];
+            csObjs[id] = csManager.getCSObj(getContext(csObjEntries.get(id * 2 + 1)),
+                    getObj(csObjEntries.get(id * 2)));
+        }
+        return csObjs[id];
+    }
+
+    private CSCallGraph rebuildCallGraph() {
+        CSCallGraph callGraph = new CSCallGraph(csManager);
+        IntBuffer methodEntries = sections[CS_METHODS];
+        CSMethod[] csMethods = new CSMethod[methodEntries.limit() / 2];
+        for (int i = 0; i < csMethods.length; ++i) {
+            JMethod method = getMethod(methodEntries.get(i * 2));
+            if (method != null) {
+                csMethods[i] = csManager.getCSMethod(
+                        getContext(methodEntries.get(i * 2 + 1)), method);
+                callGraph.addReachableMethod(csMethods[i]);
+            }
+        }
+        IntBuffer entries = sections[CS_ENTRIES];
+        for (int i = 0; i < entries.limit(); ++i) {
+            CSMethod entry = csMethods[entries.get(i)];
+            if (entry != null) {
+                callGraph.addEntryMethod(entry);
+            }
+        }
+        IntBuffer edges = sections[CS_CALL_EDGES];
+        for (int i = 0; i < edges.limit() / 3; ++i) {
+            CSMethod caller = csMethods[edges.get(i * 3)];
+            CSMethod callee = csMethods[edges.get(i * 3 + 2)];
+            if (caller != null && callee != null) {
+                Invoke invoke = (Invoke) caller.getMethod().getIR()
+                        .getStmt(edges.get(i * 3 + 1));
+                CSCallSite csCallSite = csManager.getCSCallSite(
+                        caller.getContext(), invoke);
+                callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(invoke),
+                        csCallSite, callee));
+            }
+        }
+        return callGraph;
+    }
+
+    /**
+     * @return the variable of given id, or null if its method is absent
+     * in the current world.
+     */
+    private Var getVar(int id) {
+        IntBuffer varEntries = sections[VARS];
+        JMethod method = getMethod(varEntries.get(id * 3));
+        return method != null ?
+                method.getIR().getVar(varEntries.get(id * 3 + 1)) : null;
+    }
+
+    private JMethod getMethod(int id) {
+        return World.get().getClassHierarchy()
+                .getMethod(getString(sections[METHODS].get(id)));
+    }
+
+    private JField getField(int signature) {
+        return World.get().getClassHierarchy().getField(getString(signature));
+    }
+
+    private synchronized Obj getObj(int id) {
+        if (objs[id] == null) {
+            IntBuffer objEntries = sections[OBJS];
+            int containerMethod = objEntries.get(id * 4 + 2);
+            int containerType = objEntries.get(id * 4 + 3);
+            objs[id] = new SnapshotObj(getString(objEntries.get(id * 4)),
+                    getType(objEntries.get(id * 4 + 1)),
+                    containerMethod < 0 ? null : World.get().getClassHierarchy()
+                            .getMethod(getString(containerMethod)),
+                    containerType < 0 ? null : getType(containerType));
+        }
+        return objs[id];
+    }
+
+    private Type getType(int name) {
+        return World.get().getTypeSystem().getType(getString(name));
+    }
+
+    private synchronized Context getContext(int id) {
+        if (contexts[id] == null) {
+            IntBuffer contextEntries = sections[CONTEXTS];
+            int[] elemIds = getInts(contextEntries.get(id * 3 + 1),
+                    contextEntries.get(id * 3 + 2));
+            String[] elems = new String[elemIds.length];
+            for (int i = 0; i < elems.length; ++i) {
+                elems[i] = getString(elemIds[i]);
+            }
+            contexts[id] = new SnapshotContext(id,
+                    getString(contextEntries.get(id * 3)), elems);
+        }
+        return contexts[id];
+    }
+
+    /**
+     * @return id of given variable, or -1 if the variable is absent.
+     */
+    private int getVarId(Var var) {
+        int method = getMethodId(var.getMethod());
+        if (method < 0) {
+            return -1;
+        }
+        IntBuffer vars = sections[VARS];
+        int low = 0, high = vars.limit() / 3 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = compare(vars.get(mid * 3), vars.get(mid * 3 + 1),
+                    method, var.getIndex());
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return id of given method, or -1 if the method is absent.
+     */
+    private int getMethodId(JMethod method) {
+        String signature = method.getSignature();
+        IntBuffer methods = sections[METHODS];
+        int low = 0, high = methods.limit() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = getString(methods.get(mid)).compareTo(signature);
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static int compare(int major1, int minor1, int major2, int minor2) {
+        int c = Integer.compare(major1, major2);
+        return c != 0 ? c : Integer.compare(minor1, minor2);
+    }
+
+    private int[] getInts(int start, int end) {
+        int[] ints = new int[end - start];
+        sections[POOL].get(start, ints);
+        return ints;
+    }
+
+    private String getString(int id) {
+        IntBuffer offsets = sections[STRING_OFFSETS];
+        int start = offsets.get(id);
+        byte[] bytes = new byte[offsets.get(id + 1) - start];
+        stringBytes.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Call graph of a snapshot, which decodes the reachable methods and
+     * call edges from sections REACHABLE and CALL_EDGES on each query.
+     * As the call edges are sorted by callers, the queries of callers
+     * scan all the edges.
+     */
+    private class SnapshotCallGraph implements CallGraph<Invoke, JMethod> {
+
+        @Override
+        public Set<Invoke> getCallersOf(JMethod callee) {
+            return edgesInTo(callee)
+                    .map(Edge::getCallSite)
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+
+        @Override
+        public Set<JMethod> getCalleesOf(Invoke callSite) {
+            return ResultSnapshot.this.getCalleesOf(callSite);
+        }
+
+        @Override
+        public Set<JMethod> getCalleesOfM(JMethod caller) {
+            int id = getMethodId(caller);
+            return id < 0 ? Set.of() : edges(findEdge(id, 0), findEdge(id + 1, 0))
+                    .map(Edge::getCallee)
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+
+        @Override
+        public JMethod getContainerOf(Invoke callSite) {
+            return callSite.getContainer();
+        }
+
+        @Override
+        public Set<Invoke> getCallSitesIn(JMethod method) {
+            if (method.isAbstract() || !contains(method)) {
+                return Set.of();
+            }
+            Set<Invoke> callSites = Sets.newHybridOrderedSet();
+            method.getIR().forEach(stmt -> {
+                if (stmt instanceof Invoke invoke) {
+                    callSites.add(invoke);
+                }
+            });
+            return Collections.unmodifiableSet(callSites);
+        }
+
+        @Override
+        public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+            int caller = getMethodId(callSite.getContainer());
+            int index = callSite.getIndex();
+            return caller < 0 ? Stream.of() :
+                    edges(findEdge(caller, index), findEdge(caller, index + 1));
+        }
+
+        @Override
+        public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+            return edges().filter(edge -> edge.getCallee().equals(method));
+        }
+
+        @Override
+        public Stream<Edge<Invoke, JMethod>> edges() {
+            return edges(0, sections[CALL_EDGES].limit() / 3);
+        }
+
+        private Stream<Edge<Invoke, JMethod>> edges(int start, int end) {
+            return IntStream.range(start, end)
+                    .mapToObj(ResultSnapshot.this::getEdge)
+                    .filter(Objects::nonNull);
+        }
+
+        @Override
+        public int getNumberOfEdges() {
+            return (int) edges().count();
+        }
+
+        @Override
+        public Stream<JMethod> entryMethods() {
+            IntBuffer entries = sections[CS_ENTRIES];
+            IntBuffer methodEntries = sections[CS_METHODS];
+            return IntStream.range(0, entries.limit())
+                    .map(i -> methodEntries.get(entries.get(i) * 2))
+                    .distinct()
+                    .mapToObj(ResultSnapshot.this::getMethod)
+                    .filter(Objects::nonNull);
+        }
+
+        @Override
+        public Stream<JMethod> reachableMethods() {
+            IntBuffer reachable = sections[REACHABLE];
+            return IntStream.range(0, reachable.limit())
+                    .mapToObj(i -> getMethod(reachable.get(i)))
+                    .filter(Objects::nonNull);
+        }
+
+        @Override
+        public int getNumberOfMethods() {
+            return (int) reachableMethods().count();
+        }
+
+        @Override
+        public boolean contains(JMethod method) {
+            return isReachable(method);
+        }
+
+        @Override
+        public boolean isRelevant(Stmt stmt) {
+            return stmt instanceof Invoke;
+        }
+
+        @Override
+        public Set<JMethod> getResult(Stmt stmt) {
+            return getCalleesOf((Invoke) stmt);
+        }
+
+        // Implementation for Graph interface.
+
+        @Override
+        public boolean hasNode(JMethod node) {
+            return contains(node);
+        }
+
+        @Override
+        public boolean hasEdge(JMethod source, JMethod target) {
+            return getSuccsOf(source).contains(target);
+        }
+
+        @Override
+        public Set<JMethod> getPredsOf(JMethod node) {
+            return edgesInTo(node)
+                    .map(edge -> edge.getCallSite().getContainer())
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+
+        @Override
+        public Set<JMethod> getSuccsOf(JMethod node) {
+            return getCalleesOfM(node);
+        }
+
+        @Override
+        public Set<JMethod> getNodes() {
+            return reachableMethods().collect(Collectors.toUnmodifiableSet());
+        }
+    }
+
+    /**
+     * Object restored from a snapshot. As the allocation of the object
+     * only exists in the analysis which wrote the snapshot, it is
+     * represented by the description of the object.
+     */
+    private static class SnapshotObj implements Obj {
+
+        private final String desc;
+
+        private final Type type;
+
+        private final JMethod containerMethod;
+
+        private final Type containerType;
+
+        private SnapshotObj(String desc, Type type,
+                            JMethod containerMethod, Type containerType) {
+            this.desc = desc;
+            this.type = type;
+            this.containerMethod = containerMethod;
+            this.containerType = containerType;
+        }
+
+        @Override
+        public Type getType() {
+            return type;
+        }
+
+        @Override
+        public Object getAllocation() {
+            return desc;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.ofNullable(containerMethod);
+        }
+
+        @Override
+        public Type getContainerType() {
+            return containerType;
+        }
+
+        @Override
+        public String toString() {
+            return desc;
+        }
+    }
+
+    /**
+     * Context restored from a snapshot, whose elements are represented
+     * by their descriptions.
+     */
+    private static class SnapshotContext implements Context {
+
+        private final int index;
+
+        private final String desc;
+
+        private final String[] elems;
+
+        private SnapshotContext(int index, String desc, String[] elems) {
+            this.index = index;
+            this.desc = desc;
+            this.elems = elems;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public int getLength() {
+            return elems.length;
+        }
+
+        @Override
+        public Object getElementAt(int i) {
+            return elems[i];
+        }
+
+        @Override
+        public String toString() {
+            return desc;
+        }
+    }
+}
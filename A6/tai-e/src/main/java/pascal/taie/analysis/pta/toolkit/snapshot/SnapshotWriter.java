@@ -0,0 +1,346 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.toolkit.snapshot;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static pascal.taie.analysis.pta.toolkit.snapshot.ResultSnapshot.*;
+
+/**
+ * Writes pointer analysis result in the format of {@link ResultSnapshot}.
+ */
+class SnapshotWriter {
+
+    private final PointerAnalysisResult result;
+
+    private final Map<String, Integer> stringIds = Maps.newMap();
+
+    private final List<byte[]> strings = new ArrayList<>();
+
+    private final Map<JMethod, Integer> methodIds = Maps.newMap();
+
+    private final Map<Obj, Integer> objIds = Maps.newMap();
+
+    private final Map<Context, Integer> contextIds = Maps.newMap();
+
+    private final IntArray contextList = new IntArray();
+
+    private final Map<CSObj, Integer> csObjIds = Maps.newMap();
+
+    private final IntArray pool = new IntArray();
+
+    private final int[][] sections = new int[STRING_BYTES][];
+
+    SnapshotWriter(PointerAnalysisResult result) {
+        this.result = result;
+    }
+
+    void write(Path file) throws IOException {
+        CallGraph<Invoke, JMethod> callGraph = result.getCallGraph();
+        // methods, sorted by signature for lookup
+        List<JMethod> methods = new ArrayList<>();
+        result.getVars().forEach(v -> methods.add(v.getMethod()));
+        callGraph.reachableMethods().forEach(methods::add);
+        List<JMethod> sortedMethods = methods.stream()
+                .distinct()
+                .sorted(Comparator.comparing(JMethod::getSignature))
+                .toList();
+        sections[METHODS] = new int[sortedMethods.size()];
+        for (int i = 0; i < sortedMethods.size(); ++i) {
+            JMethod method = sortedMethods.get(i);
+            methodIds.put(method, i);
+            sections[METHODS][i] = intern(method.getSignature());
+        }
+        writeObjects();
+        writeVars();
+        writeFields();
+        sections[REACHABLE] = callGraph.reachableMethods()
+                .mapToInt(methodIds::get)
+                .sorted()
+                .toArray();
+        List<int[]> edges = new ArrayList<>();
+        callGraph.edges().forEach(edge -> edges.add(toTriple(edge)));
+        edges.sort(Arrays::compare);
+        sections[CALL_EDGES] = edges.stream()
+                .flatMapToInt(Arrays::stream)
+                .toArray();
+        writeCSCallGraph();
+        sections[POOL] = pool.toArray();
+        writeFile(file);
+    }
+
+    private void writeObjects() {
+        List<CSObj> csObjs = new ArrayList<>(result.getCSObjects());
+        IntArray objs = new IntArray();
+        IntArray csObjEntries = new IntArray();
+        for (CSObj csObj : csObjs) {
+            Obj obj = csObj.getObject();
+            int objId = objIds.computeIfAbsent(obj, o -> {
+                objs.add(intern(o.toString()));
+                objs.add(intern(o.getType().getName()));
+                objs.add(o.getContainerMethod()
+                        .map(m -> intern(m.getSignature()))
+                        .orElse(-1));
+                objs.add(o.getContainerType() != null ?
+                        intern(o.getContainerType().getName()) : -1);
+                return objIds.size();
+            });
+            csObjIds.put(csObj, csObjIds.size());
+            csObjEntries.add(objId);
+            csObjEntries.add(getContextId(csObj.getContext()));
+        }
+        sections[OBJS] = objs.toArray();
+        sections[CSOBJS] = csObjEntries.toArray();
+    }
+
+    private void writeVars() {
+        Map<Var, List<CSVar>> csVarsOf = Maps.newMap();
+        result.getCSVars().forEach(csVar -> csVarsOf.computeIfAbsent(
+                csVar.getVar(), v -> new ArrayList<>()).add(csVar));
+        List<Var> vars = result.getVars()
+                .stream()
+                .sorted(Comparator.<Var>comparingInt(v -> methodIds.get(v.getMethod()))
+                        .thenComparingInt(Var::getIndex))
+                .toList();
+        IntArray varEntries = new IntArray();
+        int[] varCSVars = new int[vars.size() + 1];
+        IntArray csVarEntries = new IntArray();
+        int[] varPts = new int[vars.size() * 2];
+        int nCSVars = 0;
+        for (int i = 0; i < vars.size(); ++i) {
+            Var var = vars.get(i);
+            varEntries.add(methodIds.get(var.getMethod()));
+            varEntries.add(var.getIndex());
+            varEntries.add(intern(var.getName()));
+            varCSVars[i] = nCSVars;
+            for (CSVar csVar : csVarsOf.getOrDefault(var, List.of())) {
+                csVarEntries.add(getContextId(csVar.getContext()));
+                addPointsToSet(csVarEntries, csVar);
+                ++nCSVars;
+            }
+            varPts[i * 2] = pool.size();
+            result.getPointsToSet(var)
+                    .stream()
+                    .mapToInt(objIds::get)
+                    .sorted()
+                    .forEach(pool::add);
+            varPts[i * 2 + 1] = pool.size();
+        }
+        varCSVars[vars.size()] = nCSVars;
+        sections[VARS] = varEntries.toArray();
+        sections[VAR_CSVARS] = varCSVars;
+        sections[CSVARS] = csVarEntries.toArray();
+        sections[VAR_PTS] = varPts;
+    }
+
+    private void writeFields() {
+        IntArray staticFields = new IntArray();
+        for (StaticField field : result.getStaticFields()) {
+            staticFields.add(intern(field.getField().getSignature()));
+            addPointsToSet(staticFields, field);
+        }
+        IntArray instanceFields = new IntArray();
+        for (InstanceField field : result.getInstanceFields()) {
+            instanceFields.add(csObjIds.get(field.getBase()));
+            instanceFields.add(intern(field.getField().getSignature()));
+            addPointsToSet(instanceFields, field);
+        }
+        IntArray arrayIndexes = new IntArray();
+        for (ArrayIndex arrayIndex : result.getArrayIndexes()) {
+            arrayIndexes.add(csObjIds.get(arrayIndex.getArray()));
+            addPointsToSet(arrayIndexes, arrayIndex);
+        }
+        sections[STATIC_FIELDS] = staticFields.toArray();
+        sections[INSTANCE_FIELDS] = instanceFields.toArray();
+        sections[ARRAY_INDEXES] = arrayIndexes.toArray();
+    }
+
+    /**
+     * Adds the points-to set of given pointer to the pool, and its
+     * (start, end) in the pool to given entries.
+     */
+    private void addPointsToSet(IntArray entries, Pointer pointer) {
+        entries.add(pool.size());
+        pointer.getPointsToSet().objects()
+                .mapToInt(csObjIds::get)
+                .sorted()
+                .forEach(pool::add);
+        entries.add(pool.size());
+    }
+
+    private void writeCSCallGraph() {
+        CallGraph<CSCallSite, CSMethod> callGraph = result.getCSCallGraph();
+        Map<CSMethod, Integer> csMethodIds = Maps.newMap();
+        IntArray csMethods = new IntArray();
+        callGraph.reachableMethods().forEach(csMethod -> {
+            csMethodIds.put(csMethod, csMethodIds.size());
+            csMethods.add(methodIds.get(csMethod.getMethod()));
+            csMethods.add(getContextId(csMethod.getContext()));
+        });
+        sections[CS_METHODS] = csMethods.toArray();
+        sections[CS_ENTRIES] = callGraph.entryMethods()
+                .mapToInt(csMethodIds::get)
+                .toArray();
+        IntArray edges = new IntArray();
+        callGraph.edges().forEach(edge -> {
+            CSCallSite csCallSite = edge.getCallSite();
+            edges.add(csMethodIds.get(callGraph.getContainerOf(csCallSite)));
+            edges.add(csCallSite.getCallSite().getIndex());
+            edges.add(csMethodIds.get(edge.getCallee()));
+        });
+        sections[CS_CALL_EDGES] = edges.toArray();
+    }
+
+    private int[] toTriple(Edge<Invoke, JMethod> edge) {
+        Invoke callSite = edge.getCallSite();
+        return new int[]{
+                methodIds.get(callSite.getContainer()),
+                callSite.getIndex(),
+                methodIds.get(edge.getCallee())
+        };
+    }
+
+    private int getContextId(Context context) {
+        return contextIds.computeIfAbsent(context, c -> {
+            int id = contextIds.size();
+            contextList.add(intern(c.toString()));
+            contextList.add(pool.size());
+            for (int i = 0; i < c.getLength(); ++i) {
+                pool.add(intern(c.getElementAt(i).toString()));
+            }
+            contextList.add(pool.size());
+            return id;
+        });
+    }
+
+    private int intern(String s) {
+        return stringIds.computeIfAbsent(s, k -> {
+            strings.add(k.getBytes(StandardCharsets.UTF_8));
+            return strings.size() - 1;
+        });
+    }
+
+    private void writeFile(Path file) throws IOException {
+        sections[CONTEXTS] = contextList.toArray();
+        long stringLength = 0;
+        for (byte[] bytes : strings) {
+            stringLength += bytes.length;
+        }
+        checkSectionLength(STRING_BYTES, stringLength);
+        int[] stringOffsets = new int[strings.size() + 1];
+        for (int i = 0; i < strings.size(); ++i) {
+            stringOffsets[i + 1] = stringOffsets[i] + strings.get(i).length;
+        }
+        sections[STRING_OFFSETS] = stringOffsets;
+        for (int i = 0; i < STRING_BYTES; ++i) {
+            checkSectionLength(i, 4L * sections[i].length);
+        }
+        try (OutputStream os = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(os, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            long offset = HEADER_SIZE;
+            for (int[] section : sections) {
+                out.writeLong(offset);
+                out.writeLong(4L * section.length);
+                offset += 4L * section.length;
+            }
+            out.writeLong(offset);
+            out.writeLong(stringOffsets[strings.size()]);
+            for (int[] section : sections) {
+                for (int i : section) {
+                    out.writeInt(i);
+                }
+            }
+            for (byte[] bytes : strings) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Each section is mapped as one buffer by {@link ResultSnapshot},
+     * thus it cannot exceed 2 GB.
+     */
+    private static void checkSectionLength(int section, long length) {
+        if (length > Integer.MAX_VALUE) {
+            throw new AnalysisException("Section " + section +
+                    " of snapshot exceeds 2 GB");
+        }
+    }
+
+    /**
+     * Growable int array.
+     */
+    private static class IntArray {
+
+        private int[] elements = new int[16];
+
+        private int size;
+
+        void add(int i) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = i;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
+    }
+}
@@ -30,18 +30,29 @@ import pascal.taie.language.annotation.AnnotationHolder;
 import pascal.taie.language.type.ClassType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Indexable;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents methods in the program. Each instance contains various
  * information of a method, including method name, signature, declaring class,
  * method body (IR), etc.
  */
-public class JMethod extends ClassMember {
+public class JMethod extends ClassMember implements Indexable {
+
+    /**
+     * Counter for assigning dense indexes to the methods of current World.
+     */
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    static {
+        World.registerResetCallback(() -> counter.set(0));
+    }
 
     private final List<Type> paramTypes;
 
@@ -62,6 +73,8 @@ public class JMethod extends ClassMember {
 
     private IR ir;
 
+    private final int index = counter.getAndIncrement();
+
     public JMethod(JClass declaringClass, String name, Set<Modifier> modifiers,
                    List<Type> paramTypes, Type returnType, List<ClassType> exceptions,
                    AnnotationHolder annotationHolder,
@@ -77,6 +90,15 @@ public class JMethod extends ClassMember {
         this.methodSource = methodSource;
     }
 
+    /**
+     * @return the dense index of this method, which is unique among
+     * the methods of current World.
+     */
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
     public boolean isAbstract() {
         return Modifier.hasAbstract(modifiers);
     }
@@ -163,6 +185,15 @@ public class JMethod extends ClassMember {
         return ir;
     }
 
+    /**
+     * Replaces the IR of this method, e.g., after the method body changes.
+     * Analyses which have processed the old IR need to be updated, see
+     * {@link pascal.taie.analysis.pta.cs.CSPTA#reanalyze}.
+     */
+    public void setIR(IR ir) {
+        this.ir = ir;
+    }
+
     /**
      * @return the {@link MethodRef} pointing to this method.
      */
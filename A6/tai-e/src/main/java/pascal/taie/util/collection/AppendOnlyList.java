@@ -0,0 +1,119 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * List which only supports appending, and whose elements can be read
+ * by {@link #get(int)} without locking while other threads are appending.
+ * <p>
+ * The elements are stored in chunks whose sizes double (the i-th chunk
+ * holds 2^(i + {@link #FIRST_CHUNK_BITS}) elements), thus the chunks
+ * are never copied. Both the chunks and their slots are published via
+ * {@link AtomicReferenceArray}, so an element read through its index
+ * is always fully constructed, provided that the index was obtained
+ * after the element was appended (e.g., from the element itself).
+ * <p>
+ * Iterating the list while other threads are appending may see null
+ * for the elements whose indexes have been reserved but which have not
+ * been stored yet.
+ */
+public class AppendOnlyList<E> extends AbstractList<E> {
+
+    private static final int FIRST_CHUNK_BITS = 10;
+
+    private static final int FIRST_CHUNK_SIZE = 1 << FIRST_CHUNK_BITS;
+
+    /**
+     * Maximum number of elements, which keeps (index + FIRST_CHUNK_SIZE)
+     * non-negative.
+     */
+    private static final int MAX_SIZE = Integer.MAX_VALUE - FIRST_CHUNK_SIZE + 1;
+
+    private static final int MAX_CHUNKS = Integer.SIZE - 1 - FIRST_CHUNK_BITS;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<E>> chunks =
+            new AtomicReferenceArray<>(MAX_CHUNKS);
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Reserves the next index, makes an element with the index by maker,
+     * and appends the element. This method is thread-safe.
+     *
+     * @return the appended element.
+     */
+    public <T extends E> T add(IntFunction<T> maker) {
+        int index = size.getAndIncrement();
+        if (index < 0 || index >= MAX_SIZE) {
+            throw new IllegalStateException("Too many elements in " +
+                    getClass().getSimpleName());
+        }
+        T element = maker.apply(index);
+        int pos = index + FIRST_CHUNK_SIZE;
+        int chunk = chunkOf(pos);
+        getChunk(chunk).set(pos - (1 << (chunk + FIRST_CHUNK_BITS)), element);
+        return element;
+    }
+
+    @Override
+    public boolean add(E element) {
+        add(i -> element);
+        return true;
+    }
+
+    @Override
+    public E get(int index) {
+        Objects.checkIndex(index, size());
+        int pos = index + FIRST_CHUNK_SIZE;
+        int chunk = chunkOf(pos);
+        AtomicReferenceArray<E> array = chunks.get(chunk);
+        return array != null ?
+                array.get(pos - (1 << (chunk + FIRST_CHUNK_BITS))) : null;
+    }
+
+    @Override
+    public int size() {
+        return Math.min(size.get(), MAX_SIZE);
+    }
+
+    private static int chunkOf(int pos) {
+        return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(pos) - FIRST_CHUNK_BITS;
+    }
+
+    private AtomicReferenceArray<E> getChunk(int chunk) {
+        AtomicReferenceArray<E> array = chunks.get(chunk);
+        if (array == null) {
+            array = new AtomicReferenceArray<>(1 << (chunk + FIRST_CHUNK_BITS));
+            if (!chunks.compareAndSet(chunk, null, array)) {
+                array = chunks.get(chunk);
+            }
+        }
+        return array;
+    }
+}
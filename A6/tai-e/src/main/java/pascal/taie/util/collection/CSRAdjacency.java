@@ -0,0 +1,284 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.util.collection;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Adjacency lists of a directed graph over dense non-negative node ids,
+ * which stores the edges in int arrays instead of one object per edge.
+ * <p>
+ * Most edges are stored in compressed sparse row (CSR) format, i.e.,
+ * the targets of all nodes are in one array, and the targets of node n
+ * are in range [offsets[n], offsets[n + 1]) of it. The edges added after
+ * the CSR arrays are built go to per-node overflow blocks, which are
+ * merged into the CSR arrays when they hold too many edges; thus
+ * adding an edge costs amortized O(1) array operations besides the
+ * duplication check. Targets of each node are kept sorted in both
+ * CSR rows and overflow blocks, so that the check is binary search.
+ * <p>
+ * Removed edges leave unused slots at the end of CSR rows, which can
+ * be reused by the edges added to the same node later.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class CSRAdjacency implements IntAdjacency {
+
+    /**
+     * Marks an unused slot in a CSR row. It is greater than any node id,
+     * thus unused slots are at the end of the sorted rows.
+     */
+    private static final int NONE = Integer.MAX_VALUE;
+
+    /**
+     * Minimum number of edges in overflow blocks which triggers compaction.
+     */
+    private static final int MIN_COMPACTION = 1024;
+
+    private static final int INITIAL_BLOCK_SIZE = 4;
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * Number of nodes which have CSR rows.
+     */
+    private int nRows = 0;
+
+    private int[] offsets = {0};
+
+    private int[] targets = EMPTY;
+
+    private int[][] overflow = new int[0][];
+
+    private int[] overflowSizes = EMPTY;
+
+    private int nOverflow = 0;
+
+    private int nEdges = 0;
+
+    @Override
+    public boolean add(int source, int target) {
+        int begin = 0, end = 0;
+        if (source < nRows) {
+            begin = offsets[source];
+            end = offsets[source + 1];
+            int pos = Arrays.binarySearch(targets, begin, end, target);
+            if (pos >= 0) {
+                return false;
+            }
+            if (end > begin && targets[end - 1] == NONE) {
+                // reuse an unused slot if the target is not in the
+                // overflow block
+                if (indexInOverflow(source, target) >= 0) {
+                    return false;
+                }
+                int ins = -pos - 1;
+                System.arraycopy(targets, ins, targets, ins + 1, end - 1 - ins);
+                targets[ins] = target;
+                ++nEdges;
+                return true;
+            }
+        }
+        int pos = indexInOverflow(source, target);
+        if (pos >= 0) {
+            return false;
+        }
+        insertIntoOverflow(source, -pos - 1, target);
+        ++nEdges;
+        if (++nOverflow > Math.max(MIN_COMPACTION, targets.length / 2)) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(int source, int target) {
+        if (source < nRows) {
+            int begin = offsets[source];
+            int end = offsets[source + 1];
+            int pos = Arrays.binarySearch(targets, begin, end, target);
+            if (pos >= 0) {
+                System.arraycopy(targets, pos + 1, targets, pos, end - pos - 1);
+                targets[end - 1] = NONE;
+                --nEdges;
+                return true;
+            }
+        }
+        int pos = indexInOverflow(source, target);
+        if (pos >= 0) {
+            int[] block = overflow[source];
+            System.arraycopy(block, pos + 1, block, pos, overflowSizes[source] - pos - 1);
+            --overflowSizes[source];
+            --nOverflow;
+            --nEdges;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void removeAll(int source) {
+        if (source < nRows) {
+            for (int i = offsets[source]; i < offsets[source + 1]; ++i) {
+                if (targets[i] != NONE) {
+                    targets[i] = NONE;
+                    --nEdges;
+                }
+            }
+        }
+        if (source < overflowSizes.length) {
+            nOverflow -= overflowSizes[source];
+            nEdges -= overflowSizes[source];
+            overflowSizes[source] = 0;
+            overflow[source] = null;
+        }
+    }
+
+    @Override
+    public void forEachTarget(int source, IntConsumer action) {
+        int i = 0, end = 0;
+        if (source < nRows) {
+            i = offsets[source];
+            end = offsets[source + 1];
+        }
+        int nOver = source < overflowSizes.length ? overflowSizes[source] : 0;
+        int[] block = nOver == 0 ? EMPTY : overflow[source];
+        int j = 0;
+        // unused slots (NONE) are at the end of the CSR row
+        while (i < end && targets[i] != NONE) {
+            if (j < nOver && block[j] < targets[i]) {
+                action.accept(block[j++]);
+            } else {
+                action.accept(targets[i++]);
+            }
+        }
+        while (j < nOver) {
+            action.accept(block[j++]);
+        }
+    }
+
+    @Override
+    public int getDegree(int source) {
+        int degree = 0;
+        if (source < nRows) {
+            for (int i = offsets[source]; i < offsets[source + 1]; ++i) {
+                if (targets[i] != NONE) {
+                    ++degree;
+                }
+            }
+        }
+        if (source < overflowSizes.length) {
+            degree += overflowSizes[source];
+        }
+        return degree;
+    }
+
+    @Override
+    public int getNodeBound() {
+        return Math.max(nRows, overflowSizes.length);
+    }
+
+    /**
+     * @return the number of edges in this adjacency.
+     */
+    public int size() {
+        return nEdges;
+    }
+
+    /**
+     * Merges the overflow blocks into CSR arrays, and drops unused slots.
+     */
+    public void compact() {
+        int bound = getNodeBound();
+        int[] newOffsets = new int[bound + 1];
+        int[] newTargets = new int[nEdges];
+        int k = 0;
+        for (int n = 0; n < bound; ++n) {
+            newOffsets[n] = k;
+            int begin = 0, end = 0;
+            if (n < nRows) {
+                begin = offsets[n];
+                end = offsets[n + 1];
+                while (end > begin && targets[end - 1] == NONE) {
+                    --end;
+                }
+            }
+            int nOver = n < overflowSizes.length ? overflowSizes[n] : 0;
+            k = merge(targets, begin, end, nOver == 0 ? EMPTY : overflow[n], nOver,
+                    newTargets, k);
+        }
+        newOffsets[bound] = k;
+        nRows = bound;
+        offsets = newOffsets;
+        targets = newTargets;
+        overflow = new int[0][];
+        overflowSizes = EMPTY;
+        nOverflow = 0;
+    }
+
+    private int indexInOverflow(int source, int target) {
+        if (source < overflowSizes.length && overflowSizes[source] > 0) {
+            return Arrays.binarySearch(overflow[source], 0, overflowSizes[source], target);
+        }
+        return -1;
+    }
+
+    private void insertIntoOverflow(int source, int ins, int target) {
+        if (source >= overflowSizes.length) {
+            int newLength = Math.max(source + 1, overflowSizes.length * 2);
+            overflow = Arrays.copyOf(overflow, newLength);
+            overflowSizes = Arrays.copyOf(overflowSizes, newLength);
+        }
+        int[] block = overflow[source];
+        int size = overflowSizes[source];
+        if (block == null) {
+            block = overflow[source] = new int[INITIAL_BLOCK_SIZE];
+        } else if (size == block.length) {
+            block = overflow[source] = Arrays.copyOf(block, size * 2);
+        }
+        System.arraycopy(block, ins, block, ins + 1, size - ins);
+        block[ins] = target;
+        overflowSizes[source] = size + 1;
+    }
+
+    /**
+     * Merges sorted a[aBegin, aEnd) and b[0, bSize) into result from
+     * given position. The two ranges are disjoint.
+     *
+     * @return the position after the last merged element.
+     */
+    private static int merge(int[] a, int aBegin, int aEnd, int[] b, int bSize,
+                             int[] result, int pos) {
+        int i = aBegin, j = 0;
+        while (i < aEnd && j < bSize) {
+            result[pos++] = a[i] < b[j] ? a[i++] : b[j++];
+        }
+        while (i < aEnd) {
+            result[pos++] = a[i++];
+        }
+        while (j < bSize) {
+            result[pos++] = b[j++];
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Adjacency lists whose edges from different sources can be modified
+ * by multiple threads without a global lock.
+ * <p>
+ * Each source has its own sorted row of targets, and the rows are stored
+ * in chunks whose sizes double (as in {@link AppendOnlyList}), which are
+ * published via {@link AtomicReferenceArray} when they are created.
+ * Different sources share no other mutable state, thus the operations
+ * on the edges from the same source must be serialized by the caller
+ * (e.g., by a lock of the source), while the ones on different sources
+ * can run in parallel.
+ */
+public class ConcurrentAdjacency implements IntAdjacency {
+
+    private static final int FIRST_CHUNK_BITS = 10;
+
+    private static final int FIRST_CHUNK_SIZE = 1 << FIRST_CHUNK_BITS;
+
+    private static final int MAX_CHUNKS = Integer.SIZE - 1 - FIRST_CHUNK_BITS;
+
+    private static final int INITIAL_ROW_SIZE = 4;
+
+    /**
+     * Chunks of rows. Element 0 of a row is the number of its targets,
+     * which are in ascending order from element 1.
+     */
+    private final AtomicReferenceArray<int[][]> chunks =
+            new AtomicReferenceArray<>(MAX_CHUNKS);
+
+    @Override
+    public boolean add(int source, int target) {
+        int pos = source + FIRST_CHUNK_SIZE;
+        int chunk = chunkOf(pos);
+        int[][] rows = getChunk(chunk);
+        int slot = pos - (1 << (chunk + FIRST_CHUNK_BITS));
+        int[] row = rows[slot];
+        if (row == null) {
+            row = rows[slot] = new int[INITIAL_ROW_SIZE + 1];
+        }
+        int size = row[0];
+        int ins = Arrays.binarySearch(row, 1, size + 1, target);
+        if (ins >= 0) {
+            return false;
+        }
+        ins = -ins - 1;
+        if (size + 1 == row.length) {
+            row = rows[slot] = Arrays.copyOf(row, row.length * 2);
+        }
+        System.arraycopy(row, ins, row, ins + 1, size + 1 - ins);
+        row[ins] = target;
+        row[0] = size + 1;
+        return true;
+    }
+
+    @Override
+    public boolean remove(int source, int target) {
+        int[] row = getRow(source);
+        if (row == null) {
+            return false;
+        }
+        int size = row[0];
+        int pos = Arrays.binarySearch(row, 1, size + 1, target);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(row, pos + 1, row, pos, size - pos);
+        row[0] = size - 1;
+        return true;
+    }
+
+    @Override
+    public void removeAll(int source) {
+        int[] row = getRow(source);
+        if (row != null) {
+            row[0] = 0;
+        }
+    }
+
+    @Override
+    public void forEachTarget(int source, IntConsumer action) {
+        int[] row = getRow(source);
+        if (row != null) {
+            for (int i = 1, end = row[0] + 1; i < end; ++i) {
+                action.accept(row[i]);
+            }
+        }
+    }
+
+    @Override
+    public int getDegree(int source) {
+        int[] row = getRow(source);
+        return row != null ? row[0] : 0;
+    }
+
+    @Override
+    public int getNodeBound() {
+        for (int chunk = MAX_CHUNKS - 1; chunk >= 0; --chunk) {
+            if (chunks.get(chunk) != null) {
+                return (1 << (chunk + 1 + FIRST_CHUNK_BITS)) - FIRST_CHUNK_SIZE;
+            }
+        }
+        return 0;
+    }
+
+    private int[] getRow(int source) {
+        int pos = source + FIRST_CHUNK_SIZE;
+        int chunk = chunkOf(pos);
+        int[][] rows = chunks.get(chunk);
+        return rows != null ? rows[pos - (1 << (chunk + FIRST_CHUNK_BITS))] : null;
+    }
+
+    private static int chunkOf(int pos) {
+        return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(pos) - FIRST_CHUNK_BITS;
+    }
+
+    private int[][] getChunk(int chunk) {
+        int[][] rows = chunks.get(chunk);
+        if (rows == null) {
+            rows = new int[1 << (chunk + FIRST_CHUNK_BITS)][];
+            if (!chunks.compareAndSet(chunk, null, rows)) {
+                rows = chunks.get(chunk);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Adjacency lists of a directed graph over dense non-negative node ids.
+ * The targets of each node are kept in ascending order.
+ */
+public interface IntAdjacency {
+
+    /**
+     * Adds edge (source -> target).
+     *
+     * @return true if this adjacency changed as a result of the call,
+     * otherwise false.
+     */
+    boolean add(int source, int target);
+
+    /**
+     * Removes edge (source -> target).
+     *
+     * @return true if this adjacency changed as a result of the call,
+     * otherwise false.
+     */
+    boolean remove(int source, int target);
+
+    /**
+     * Removes all edges from given source.
+     */
+    void removeAll(int source);
+
+    /**
+     * Performs the action for the target of each edge from given source,
+     * in ascending order, without copying the targets. The action must
+     * not modify the edges from the source.
+     */
+    void forEachTarget(int source, IntConsumer action);
+
+    /**
+     * @return the number of edges from given source.
+     */
+    int getDegree(int source);
+
+    /**
+     * @return an upper bound (exclusive) of the ids of the nodes
+     * which have outgoing edges.
+     */
+    int getNodeBound();
+}
@@ -0,0 +1,360 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Sparse bit set of non-negative integers.
+ * Only the non-zero 64-bit words are stored, in an array sorted by
+ * word index, so that the memory consumption is proportional to the
+ * number of occupied words instead of the largest element.
+ * Set operations, e.g., {@link #or(SparseBitSet)}, work word by word.
+ */
+public class SparseBitSet {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+
+    private static final int DEFAULT_CAPACITY = 2;
+
+    /**
+     * Word indexes of the stored words, in ascending order.
+     */
+    private int[] indexes;
+
+    /**
+     * words[i] holds the bits of the word whose index is indexes[i].
+     */
+    private long[] words;
+
+    /**
+     * Number of stored words.
+     */
+    private int wordsInUse = 0;
+
+    /**
+     * Number of set bits in this set.
+     */
+    private int cardinality = 0;
+
+    public SparseBitSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    private SparseBitSet(int capacity) {
+        indexes = new int[capacity];
+        words = new long[capacity];
+    }
+
+    /**
+     * Creates a copy of given bit set.
+     */
+    public SparseBitSet(SparseBitSet other) {
+        indexes = Arrays.copyOf(other.indexes, Math.max(other.wordsInUse, 1));
+        words = Arrays.copyOf(other.words, Math.max(other.wordsInUse, 1));
+        wordsInUse = other.wordsInUse;
+        cardinality = other.cardinality;
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >>> ADDRESS_BITS_PER_WORD;
+    }
+
+    /**
+     * @return position of the word with given word index in {@link #words},
+     * or (-(insertion point) - 1) if this set does not have such word.
+     */
+    private int position(int wordIndex) {
+        return Arrays.binarySearch(indexes, 0, wordsInUse, wordIndex);
+    }
+
+    /**
+     * @return true if this set contains given bit, otherwise false.
+     */
+    public boolean get(int bitIndex) {
+        checkIndex(bitIndex);
+        int pos = position(wordIndex(bitIndex));
+        return pos >= 0 && (words[pos] & (1L << bitIndex)) != 0;
+    }
+
+    /**
+     * Adds given bit to this set.
+     *
+     * @return true if this set changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean set(int bitIndex) {
+        checkIndex(bitIndex);
+        int wordIndex = wordIndex(bitIndex);
+        long mask = 1L << bitIndex;
+        int pos = position(wordIndex);
+        if (pos >= 0) {
+            if ((words[pos] & mask) != 0) {
+                return false;
+            }
+            words[pos] |= mask;
+        } else {
+            insertWord(-pos - 1, wordIndex, mask);
+        }
+        ++cardinality;
+        return true;
+    }
+
+    /**
+     * Adds all bits of given set to this set.
+     *
+     * @return true if this set changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean or(SparseBitSet other) {
+        return union(other, null);
+    }
+
+    /**
+     * Adds all bits of given set to this set.
+     *
+     * @return a new set that contains the bits which are in given set
+     * but were not in this set before the call.
+     */
+    public SparseBitSet orDiff(SparseBitSet other) {
+        SparseBitSet diff = new SparseBitSet(Math.max(other.wordsInUse, 1));
+        union(other, diff);
+        return diff;
+    }
+
+    /**
+     * Merges other into this set word by word. If diff is not null,
+     * the newly-added bits are appended to diff (which must be empty).
+     */
+    private boolean union(SparseBitSet other, SparseBitSet diff) {
+        if (other == this || other.wordsInUse == 0) {
+            return false;
+        }
+        // count words of other which are absent in this set
+        int absent = 0;
+        for (int i = 0, j = 0; j < other.wordsInUse; ++j) {
+            int index = other.indexes[j];
+            while (i < wordsInUse && indexes[i] < index) {
+                ++i;
+            }
+            if (i == wordsInUse || indexes[i] != index) {
+                ++absent;
+            }
+        }
+        int[] newIndexes = indexes;
+        long[] newWords = words;
+        int newSize = wordsInUse + absent;
+        if (absent > 0 && newSize > indexes.length) {
+            int capacity = Math.max(newSize, indexes.length + (indexes.length >> 1));
+            newIndexes = new int[capacity];
+            newWords = new long[capacity];
+        }
+        // merge from the tail, so that the merge can be done in place
+        boolean changed = false;
+        int i = wordsInUse - 1, j = other.wordsInUse - 1, k = newSize - 1;
+        while (j >= 0) {
+            int otherIndex = other.indexes[j];
+            if (i >= 0 && indexes[i] > otherIndex) {
+                newIndexes[k] = indexes[i];
+                newWords[k--] = words[i--];
+            } else {
+                long oldWord = (i >= 0 && indexes[i] == otherIndex) ? words[i--] : 0L;
+                long added = other.words[j] & ~oldWord;
+                if (added != 0) {
+                    changed = true;
+                    cardinality += Long.bitCount(added);
+                    if (diff != null) {
+                        diff.appendWord(otherIndex, added);
+                    }
+                }
+                newIndexes[k] = otherIndex;
+                newWords[k--] = oldWord | other.words[j--];
+            }
+        }
+        if (newIndexes != indexes) {
+            // copy the remaining prefix which is smaller than all words of other
+            System.arraycopy(indexes, 0, newIndexes, 0, i + 1);
+            System.arraycopy(words, 0, newWords, 0, i + 1);
+            indexes = newIndexes;
+            words = newWords;
+        }
+        wordsInUse = newSize;
+        if (diff != null) {
+            diff.reverseWords();
+        }
+        return changed;
+    }
+
+    /**
+     * Appends a word; used to build a set from descending word indexes,
+     * which must be followed by {@link #reverseWords()}.
+     */
+    private void appendWord(int wordIndex, long word) {
+        if (wordsInUse == indexes.length) {
+            int capacity = indexes.length + (indexes.length >> 1) + 1;
+            indexes = Arrays.copyOf(indexes, capacity);
+            words = Arrays.copyOf(words, capacity);
+        }
+        indexes[wordsInUse] = wordIndex;
+        words[wordsInUse++] = word;
+        cardinality += Long.bitCount(word);
+    }
+
+    private void reverseWords() {
+        for (int i = 0, j = wordsInUse - 1; i < j; ++i, --j) {
+            int index = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = index;
+            long word = words[i];
+            words[i] = words[j];
+            words[j] = word;
+        }
+    }
+
+    private void insertWord(int pos, int wordIndex, long word) {
+        if (wordsInUse == indexes.length) {
+            int capacity = indexes.length + (indexes.length >> 1) + 1;
+            indexes = Arrays.copyOf(indexes, capacity);
+            words = Arrays.copyOf(words, capacity);
+        }
+        System.arraycopy(indexes, pos, indexes, pos + 1, wordsInUse - pos);
+        System.arraycopy(words, pos, words, pos + 1, wordsInUse - pos);
+        indexes[pos] = wordIndex;
+        words[pos] = word;
+        ++wordsInUse;
+    }
+
+    /**
+     * @return the index of the first set bit that occurs on or after
+     * given index, or -1 if there is no such bit.
+     */
+    public int nextSetBit(int fromIndex) {
+        checkIndex(fromIndex);
+        int wordIndex = wordIndex(fromIndex);
+        int pos = position(wordIndex);
+        long word;
+        if (pos >= 0) {
+            word = words[pos] & (-1L << fromIndex);
+        } else {
+            pos = -pos - 1;
+            if (pos == wordsInUse) {
+                return -1;
+            }
+            word = words[pos];
+        }
+        while (word == 0) {
+            if (++pos == wordsInUse) {
+                return -1;
+            }
+            word = words[pos];
+        }
+        return indexes[pos] * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * @return an iterator over the set bits of this set, in ascending order.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            private int pos = 0;
+
+            private long word = wordsInUse > 0 ? words[0] : 0L;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0 && pos + 1 < wordsInUse) {
+                    word = words[++pos];
+                }
+                return word != 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return indexes[pos] * BITS_PER_WORD + bit;
+            }
+        };
+    }
+
+    /**
+     * @return the number of set bits in this set.
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    private static void checkIndex(int bitIndex) {
+        if (bitIndex < 0) {
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SparseBitSet that)) {
+            return false;
+        }
+        return wordsInUse == that.wordsInUse
+                && cardinality == that.cardinality
+                && Arrays.equals(indexes, 0, wordsInUse, that.indexes, 0, wordsInUse)
+                && Arrays.equals(words, 0, wordsInUse, that.words, 0, wordsInUse);
+    }
+
+    @Override
+    public int hashCode() {
+        long h = 1234;
+        for (int i = 0; i < wordsInUse; ++i) {
+            h ^= words[i] * (indexes[i] + 1);
+        }
+        return (int) ((h >> 32) ^ h);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        PrimitiveIterator.OfInt it = iterator();
+        while (it.hasNext()) {
+            sb.append(it.nextInt());
+            if (it.hasNext()) {
+                sb.append(", ");
+            }
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+
+import java.util.Arrays;
+
+/**
+ * The test cases of {@link CSPTATest}, run with extra options given by
+ * subclasses. The options only affect how the solver works, thus
+ * the results are compared with the same expected files.
+ */
+public abstract class AbstractCSPTATest {
+
+    private final String[] options;
+
+    protected AbstractCSPTATest(String... options) {
+        this.options = options;
+    }
+
+    private void test(String main, String... opts) {
+        String[] allOpts = Arrays.copyOf(opts, opts.length + options.length);
+        System.arraycopy(options, 0, allOpts, opts.length, options.length);
+        Tests.testCSPTA(CSPTATest.DIR, main, allOpts);
+    }
+
+    @Test
+    public void testNew() {
+        test("New");
+    }
+
+    @Test
+    public void testAssign() {
+        test("Assign");
+    }
+
+    @Test
+    public void testStoreLoad() {
+        test("StoreLoad");
+    }
+
+    @Test
+    public void testCall() {
+        test("Call");
+    }
+
+    @Test
+    public void testInstanceField() {
+        test("InstanceField");
+    }
+
+    @Test
+    public void testOneCall() {
+        test("OneCall", "cs:1-call");
+    }
+
+    @Test
+    public void testOneObject() {
+        test("OneObject", "cs:1-obj");
+    }
+
+    @Test
+    public void testOneType() {
+        test("OneType", "cs:1-type");
+    }
+
+    @Test
+    public void testTwoCall() {
+        test("TwoCall", "cs:2-call");
+    }
+
+    @Test
+    public void testTwoObject() {
+        test("TwoObject", "cs:2-obj");
+    }
+
+    @Test
+    public void testTwoType() {
+        test("TwoType", "cs:2-type");
+    }
+
+    @Test
+    public void testStaticField() {
+        test("StaticField");
+    }
+
+    @Test
+    public void testArray() {
+        test("Array");
+    }
+}
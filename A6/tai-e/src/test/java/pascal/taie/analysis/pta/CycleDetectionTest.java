@@ -0,0 +1,50 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.List;
+
+/**
+ * Runs the test cases with cycle detection, alone and together with
+ * the options which interact with the collapsed PFG nodes.
+ */
+@RunWith(Parameterized.class)
+public class CycleDetectionTest extends AbstractCSPTATest {
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<String[]> configurations() {
+        return List.of(
+                new String[]{ "cycle-detection:true" },
+                new String[]{ "cycle-detection:true", "pts-set:shared",
+                        "worklist:topo" },
+                new String[]{ "cycle-detection:true", "type-filter:true" }
+        );
+    }
+
+    public CycleDetectionTest(String[] configuration) {
+        super(configuration);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.demand.DemandPTA;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the points-to sets computed by {@link DemandPTA} with the ones
+ * computed by whole-program CI and CS analyses. The call sites and stores
+ * which flow to a query are found by CHA, thus the demanded points-to sets
+ * may contain more objects, but they must contain all objects in the
+ * results of whole-program analyses.
+ */
+public class DemandPTATest {
+
+    @Test
+    public void testNew() {
+        test("New");
+    }
+
+    @Test
+    public void testAssign() {
+        test("Assign");
+    }
+
+    @Test
+    public void testStoreLoad() {
+        test("StoreLoad");
+    }
+
+    @Test
+    public void testCall() {
+        test("Call");
+    }
+
+    @Test
+    public void testInstanceField() {
+        test("InstanceField");
+    }
+
+    @Test
+    public void testOneCall() {
+        test("OneCall", "1-call");
+    }
+
+    @Test
+    public void testOneObject() {
+        test("OneObject", "1-obj");
+    }
+
+    @Test
+    public void testOneType() {
+        test("OneType", "1-type");
+    }
+
+    @Test
+    public void testTwoCall() {
+        test("TwoCall", "2-call");
+    }
+
+    @Test
+    public void testTwoObject() {
+        test("TwoObject", "2-obj");
+    }
+
+    @Test
+    public void testTwoType() {
+        test("TwoType", "2-type");
+    }
+
+    @Test
+    public void testStaticField() {
+        test("StaticField");
+    }
+
+    @Test
+    public void testArray() {
+        test("Array");
+    }
+
+    private static void test(String main, String... css) {
+        compare(main, "ci");
+        for (String cs : css) {
+            compare(main, cs);
+        }
+    }
+
+    private static void compare(String main, String cs) {
+        Tests.testCSPTA(CSPTATest.DIR, main, "cs:" + cs);
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        DemandPTA demand = new DemandPTA(new AnalysisConfig(CSPTA.ID,
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", false).getOptions());
+        for (Var var : result.getVars()) {
+            if (var.getMethod().getDeclaringClass().isApplication()) {
+                Set<String> expected = toStrings(result.getPointsToSet(var));
+                Set<String> actual = toStrings(demand.pointsTo(var));
+                assertTrue(cs + " " + var.getMethod() + "/" + var + ": "
+                                + actual + " does not contain " + expected,
+                        actual.containsAll(expected));
+            }
+        }
+    }
+
+    private static Set<String> toStrings(Collection<?> elems) {
+        Set<String> strings = new TreeSet<>();
+        elems.forEach(e -> strings.add(e.toString()));
+        return strings;
+    }
+}
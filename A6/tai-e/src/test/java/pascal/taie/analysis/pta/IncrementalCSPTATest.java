@@ -0,0 +1,90 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalCSPTATest {
+
+    @Test
+    public void testRetractCallEdge() {
+        // builds the world of the test case
+        Tests.testCSPTA(CSPTATest.DIR, "TwoCall", "cs:2-call");
+        CSPTA pta = new CSPTA(new AnalysisConfig(CSPTA.ID,
+                "cs", "ci", "incremental", true,
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", false));
+        PointerAnalysisResult result = pta.analyze();
+        JClass a = World.get().getClassHierarchy().getClass("A");
+        JMethod id = a.getDeclaredMethod("id");
+        JMethod _id = a.getDeclaredMethod("_id");
+        Var b = getResultOfFirstCall(World.get().getClassHierarchy()
+                .getClass("TwoCall").getDeclaredMethod("m"), "id");
+        Var p = _id.getIR().getParam(0);
+        Var staleThis = id.getIR().getThis();
+        assertEquals(2, result.getPointsToSet(b).size());
+        assertEquals(2, result.getPointsToSet(p).size());
+        assertEquals(Set.of(_id), result.getCallGraph().getCalleesOfM(id));
+
+        // empties the body of A.id(), which retracts the call edge
+        // A.id() -> A._id() and the flows through it
+        Var thisVar = new Var(id, "%this", a.getType(), 0);
+        Var param = new Var(id, "b", id.getParamType(0), 1);
+        id.setIR(new DefaultIR(id, thisVar, List.of(param), Set.of(),
+                List.of(thisVar, param), List.of(), List.of()));
+        result = pta.reanalyze(List.of(id));
+        assertTrue(result.getPointsToSet(b).isEmpty());
+        assertTrue(result.getPointsToSet(p).isEmpty());
+        assertTrue(result.getCallGraph().getCalleesOfM(id).isEmpty());
+        assertEquals(1, result.getPointsToSet(thisVar).size());
+        assertEquals(2, result.getPointsToSet(param).size());
+        assertFalse(result.getVars().contains(staleThis));
+    }
+
+    private static Var getResultOfFirstCall(JMethod method, String callee) {
+        return method.getIR().stmts()
+                .filter(s -> s instanceof Invoke invoke &&
+                        invoke.getMethodRef().getName().equals(callee))
+                .map(s -> ((Invoke) s).getResult())
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.config.ConfigException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the test cases with the parallel solver, and compares the results
+ * of the parallel and sequential solvers on a generated program which
+ * is large enough to keep the solver threads busy.
+ */
+@RunWith(Parameterized.class)
+public class ParallelSolverTest extends AbstractCSPTATest {
+
+    private static final String PARALLELISM = "parallelism:4";
+
+    /**
+     * Number of classes of the generated program.
+     */
+    private static final int GENERATED_CLASSES = 300;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<String[]> configurations() {
+        return List.of(
+                new String[0],
+                new String[]{ "pts-set:sparse-bitset" },
+                new String[]{ "pts-set:shared", "type-filter:true" }
+        );
+    }
+
+    private final String[] configuration;
+
+    public ParallelSolverTest(String[] configuration) {
+        super(Stream.concat(Stream.of(PARALLELISM), Stream.of(configuration))
+                .toArray(String[]::new));
+        this.configuration = configuration;
+    }
+
+    @Test
+    public void testGeneratedProgram() throws IOException {
+        Path dir = Files.createTempDirectory("pta-parallel");
+        try {
+            new ProgramGenerator(GENERATED_CLASSES).generate(dir);
+            Map<String, Set<String>> sequential = analyze(dir, configuration);
+            Map<String, Set<String>> parallel = analyze(dir,
+                    Stream.concat(Stream.of(PARALLELISM), Stream.of(configuration))
+                            .toArray(String[]::new));
+            assertEquals(sequential, parallel);
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    private static Map<String, Set<String>> analyze(Path dir, String[] opts) {
+        String options = Stream.concat(Stream.of("cs:2-obj",
+                                "implicit-entries:false", "only-app:true",
+                                "action:null"), Stream.of(opts))
+                .collect(Collectors.joining(";"));
+        Main.main(new String[]{
+                "-pp", "-cp", dir.toString(), "-m", ProgramGenerator.MAIN_CLASS,
+                "-a", CSPTA.ID + "=" + options,
+        });
+        return ResultSnapshotTest.describe(World.get().getResult(CSPTA.ID));
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testCycleDetectionIsRejected() {
+        Tests.testCSPTA(CSPTATest.DIR, "New", PARALLELISM, "cycle-detection:true");
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testWorkListPolicyIsRejected() {
+        Tests.testCSPTA(CSPTATest.DIR, "New", PARALLELISM, "worklist:lrf");
+    }
+}
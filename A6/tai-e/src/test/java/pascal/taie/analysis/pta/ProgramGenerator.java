@@ -0,0 +1,110 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates synthetic Java programs for benchmarking pointer analysis.
+ * <p>
+ * A generated program consists of n node classes which implement
+ * a common interface, and a main class. Each node class stores and
+ * loads objects via fields, arrays and a container, and forwards
+ * objects along a chain of virtual calls, so that the size of points-to
+ * sets and the number of contexts grow with n.
+ */
+class ProgramGenerator {
+
+    static final String MAIN_CLASS = "Main";
+
+    private final int n;
+
+    ProgramGenerator(int n) {
+        this.n = n;
+    }
+
+    void generate(Path dir) throws IOException {
+        try (PrintWriter out = new PrintWriter(
+                Files.newBufferedWriter(dir.resolve(MAIN_CLASS + ".java")))) {
+            out.println("interface Node {");
+            out.println("    Object pass(Object o);");
+            out.println("    void set(Object o);");
+            out.println("    Object get();");
+            out.println("}");
+            out.println();
+            out.println("class Box {");
+            out.println("    Object item;");
+            out.println("    void put(Object o) { this.item = o; }");
+            out.println("    Object take() { return this.item; }");
+            out.println("}");
+            for (int i = 0; i < n; ++i) {
+                generateNode(out, i);
+            }
+            generateMain(out);
+        }
+    }
+
+    private void generateNode(PrintWriter out, int i) {
+        out.println();
+        out.printf("class N%d implements Node {%n", i);
+        out.println("    Node next;");
+        out.println("    Object f;");
+        out.println("    Object[] arr = new Object[1];");
+        out.println("    Box box = new Box();");
+        out.println("    public Object pass(Object o) {");
+        out.println("        this.arr[0] = o;");
+        out.println("        this.box.put(this.arr[0]);");
+        out.println("        Object r = this.box.take();");
+        out.println("        if (this.next != null) {");
+        out.println("            r = this.next.pass(r);");
+        out.println("        }");
+        out.println("        return r;");
+        out.println("    }");
+        out.println("    public void set(Object o) { this.f = o; }");
+        out.println("    public Object get() { return this.f; }");
+        out.println("}");
+    }
+
+    private void generateMain(PrintWriter out) {
+        out.println();
+        out.printf("public class %s {%n", MAIN_CLASS);
+        out.println("    public static void main(String[] args) {");
+        out.printf("        Node[] nodes = new Node[%d];%n", n);
+        for (int i = 0; i < n; ++i) {
+            out.printf("        N%d n%d = new N%d();%n", i, i, i);
+            out.printf("        nodes[%d] = n%d;%n", i, i);
+            if (i > 0) {
+                out.printf("        n%d.next = n%d;%n", i - 1, i);
+            }
+        }
+        for (int i = 0; i < n; ++i) {
+            out.printf("        Node m%d = nodes[%d];%n", i, i);
+            out.printf("        m%d.set(new Object());%n", i);
+            out.printf("        Object o%d = m%d.pass(m%d.get());%n", i, i, i);
+        }
+        out.println("    }");
+        out.println("}");
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.toolkit.snapshot.ResultSnapshot;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Writes the result of each test case to a snapshot, compares the
+ * snapshot with the live result, and loads the snapshot as the result
+ * of CSPTA, which is compared with the expected file of the test case.
+ */
+public class ResultSnapshotTest {
+
+    @Test
+    public void testInstanceField() throws IOException {
+        testRoundTrip("InstanceField");
+    }
+
+    @Test
+    public void testArray() throws IOException {
+        testRoundTrip("Array");
+    }
+
+    @Test
+    public void testStaticField() throws IOException {
+        testRoundTrip("StaticField");
+    }
+
+    @Test
+    public void testTwoCall() throws IOException {
+        testRoundTrip("TwoCall", "cs:2-call");
+    }
+
+    @Test
+    public void testTwoObject() throws IOException {
+        testRoundTrip("TwoObject", "cs:2-obj");
+    }
+
+    private static void testRoundTrip(String main, String... opts) throws IOException {
+        Path file = Files.createTempFile(main, ".snapshot");
+        try {
+            String[] allOpts = Stream.concat(Stream.of(opts),
+                    Stream.of("snapshot:" + file)).toArray(String[]::new);
+            Tests.testCSPTA(CSPTATest.DIR, main, allOpts);
+            PointerAnalysisResult live = World.get().getResult(CSPTA.ID);
+            ResultSnapshot snapshot = ResultSnapshot.open(file);
+            // the points-to sets of variables, their context-sensitive
+            // variables and the call graph are decoded before
+            // the other context-sensitive pointers are rebuilt
+            assertEquals(describeVars(live), describeVars(snapshot));
+            assertEquals(describeCSVars(live.getCSVars()), describeCSVars(
+                    snapshot.getVars().stream()
+                            .flatMap(var -> snapshot.getCSVarsOf(var).stream())
+                            .toList()));
+            assertEquals(describeCallGraph(live.getCallGraph()),
+                    describeCallGraph(snapshot.getCallGraph()));
+            assertEquals(describe(live), describe(snapshot));
+            live.getCallGraph().reachableMethods().forEach(method -> {
+                assertTrue(snapshot.isReachable(method));
+                for (Invoke callSite : live.getCallGraph().getCallSitesIn(method)) {
+                    assertEquals(live.getCallGraph().getCalleesOf(callSite),
+                            snapshot.getCalleesOf(callSite));
+                }
+            });
+
+            allOpts = Stream.concat(Stream.of(opts),
+                    Stream.of("load:" + file)).toArray(String[]::new);
+            Tests.testCSPTA(CSPTATest.DIR, main, allOpts);
+            assertTrue(World.get().getResult(CSPTA.ID) instanceof ResultSnapshot);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static Map<String, Set<String>> describeVars(PointerAnalysisResult result) {
+        Map<String, Set<String>> desc = new TreeMap<>();
+        result.getVars().forEach(var -> desc.put(
+                var.getMethod() + "/" + var.getIndex() + "/" + var.getName(),
+                toStrings(result.getPointsToSet(var))));
+        return desc;
+    }
+
+    private static Map<String, Set<String>> describeCSVars(Collection<CSVar> csVars) {
+        Map<String, Set<String>> desc = new TreeMap<>();
+        csVars.forEach(csVar -> desc.put(csVar.toString(),
+                toStrings(csVar.getPointsToSet().getObjects())));
+        return desc;
+    }
+
+    private static Map<String, Set<String>> describeCallGraph(
+            CallGraph<Invoke, JMethod> callGraph) {
+        Map<String, Set<String>> desc = new TreeMap<>();
+        callGraph.reachableMethods().forEach(method -> {
+            Set<String> edges = new TreeSet<>();
+            callGraph.callSitesIn(method).forEach(callSite ->
+                    callGraph.getCalleesOf(callSite).forEach(
+                            callee -> edges.add(callSite + " -> " + callee)));
+            callGraph.getCallersOf(method).forEach(
+                    callSite -> edges.add("<- " + callSite));
+            desc.put(method.toString(), edges);
+        });
+        callGraph.entryMethods().forEach(entry ->
+                desc.put("entry " + entry, Set.of()));
+        desc.put("edges", toStrings(callGraph.edges().toList()));
+        return desc;
+    }
+
+    /**
+     * @return the points-to sets of all context-sensitive pointers and
+     * the context-sensitive call graph of given result, as strings.
+     */
+    static Map<String, Set<String>> describe(PointerAnalysisResult result) {
+        Map<String, Set<String>> desc = new TreeMap<>();
+        Stream.<Collection<? extends Pointer>>of(result.getCSVars(),
+                        result.getStaticFields(), result.getInstanceFields(),
+                        result.getArrayIndexes())
+                .flatMap(Collection::stream)
+                .forEach(p -> desc.put(p.toString(),
+                        toStrings(p.getPointsToSet().getObjects())));
+        result.getCSCallGraph().reachableMethods().forEach(csMethod -> {
+            Set<String> callees = new TreeSet<>();
+            result.getCSCallGraph().callSitesIn(csMethod).forEach(csCallSite ->
+                    result.getCSCallGraph().getCalleesOf(csCallSite).forEach(
+                            callee -> callees.add(csCallSite + " -> " + callee)));
+            desc.put(csMethod.toString(), callees);
+        });
+        result.getCSCallGraph().entryMethods().forEach(entry ->
+                desc.put("entry " + entry, Set.of()));
+        Set<String> methods = new TreeSet<>();
+        result.getCallGraph().reachableMethods()
+                .map(JMethod::toString)
+                .forEach(methods::add);
+        desc.put("reachable methods", methods);
+        return desc;
+    }
+
+    private static Set<String> toStrings(Collection<?> elems) {
+        Set<String> strings = new TreeSet<>();
+        elems.forEach(e -> strings.add(e.toString()));
+        return strings;
+    }
+}
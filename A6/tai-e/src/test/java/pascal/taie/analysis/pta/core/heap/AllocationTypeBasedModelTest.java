@@ -0,0 +1,117 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.core.heap;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the objects merged by {@link AllocationTypeBasedModel}.
+ */
+public class AllocationTypeBasedModelTest {
+
+    private static final String DIR = "cspta";
+
+    @Test
+    public void testMergeColdClass() {
+        // builds the world of the test case
+        Tests.testCSPTA(DIR, "OneObject", "cs:1-obj");
+        // the allocations in class OneObject are merged by type
+        testMerged(analyze("OneObject"));
+        // packages given in command line are separated by commas
+        testMerged(analyze("pkg, OneObject"));
+    }
+
+    private static void testMerged(PointerAnalysisResult result) {
+        JMethod m = getMethodM();
+        Set<Obj> a1 = result.getPointsToSet(getVar(m, "a1"));
+        Set<Obj> b1 = result.getPointsToSet(getVar(m, "b1"));
+        assertEquals(a1, result.getPointsToSet(getVar(m, "a2")));
+        assertEquals(b1, result.getPointsToSet(getVar(m, "b2")));
+        assertEquals(1, a1.size());
+        Obj a = a1.iterator().next();
+        assertTrue(a instanceof MergedObj);
+        assertEquals(2, ((MergedObj) a).getAllocation().size());
+        // the field of the merged object holds the merged object of B
+        assertEquals(b1, result.getPointsToSet(getVar(m, "x")));
+    }
+
+    @Test
+    public void testApplicationNotMerged() {
+        Tests.testCSPTA(DIR, "OneObject", "cs:1-obj");
+        // without the packages, only the non-application classes are cold
+        PointerAnalysisResult result = analyze(null);
+        JMethod m = getMethodM();
+        Set<Obj> a1 = result.getPointsToSet(getVar(m, "a1"));
+        assertNotEquals(a1, result.getPointsToSet(getVar(m, "a2")));
+        assertEquals(1, a1.size());
+        assertTrue(a1.iterator().next() instanceof NewObj);
+        assertEquals(1, result.getPointsToSet(getVar(m, "x")).size());
+    }
+
+    @Test
+    public void testPackagePrefix() {
+        Tests.testCSPTA(DIR, "OneObject", "cs:1-obj");
+        // a package does not cover the classes whose names merely
+        // start with it
+        PointerAnalysisResult result = analyze(List.of("One"));
+        JMethod m = getMethodM();
+        assertNotEquals(result.getPointsToSet(getVar(m, "a1")),
+                result.getPointsToSet(getVar(m, "a2")));
+    }
+
+    private static PointerAnalysisResult analyze(Object packages) {
+        return new CSPTA(new AnalysisConfig(CSPTA.ID,
+                "cs", "1-obj", "heap-model", "allocation-type",
+                "allocation-type-packages", packages,
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", true)).analyze();
+    }
+
+    private static JMethod getMethodM() {
+        return World.get().getClassHierarchy()
+                .getClass("OneObject").getDeclaredMethod("m");
+    }
+
+    private static Var getVar(JMethod method, String name) {
+        return method.getIR().getVars()
+                .stream()
+                .filter(v -> v.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PointerFlowGraphTest {
+
+    private final TestPointer.Pool pool = new TestPointer.Pool();
+
+    private final PointerFlowGraph pfg = new PointerFlowGraph(pool, false);
+
+    /**
+     * Adds the edges given as "source->target".
+     */
+    private void addEdges(String... edges) {
+        for (String edge : edges) {
+            String[] nodes = edge.split("->");
+            pfg.addEdge(pool.get(nodes[0]), pool.get(nodes[1]));
+        }
+    }
+
+    private Set<Pointer> setOf(String... names) {
+        Set<Pointer> set = Sets.newSet();
+        set.addAll(pool.get(names));
+        return set;
+    }
+
+    private Set<Pointer> succsOf(String name) {
+        Set<Pointer> succs = Sets.newSet();
+        pfg.forEachSuccOf(pool.get(name), succs::add);
+        return succs;
+    }
+
+    @Test
+    public void testFindCycle() {
+        addEdges("s->t", "t->b", "b->s", "t->x", "y->t");
+        assertEquals(setOf("s", "t", "b"),
+                pfg.findCycle(pool.get("s"), pool.get("t")));
+    }
+
+    @Test
+    public void testFindCycleThroughVisitedNodes() {
+        // a is first reached from b, before b is known to reach s
+        addEdges("s->t", "t->b", "b->a", "a->b", "b->s");
+        assertEquals(setOf("s", "t", "a", "b"),
+                pfg.findCycle(pool.get("s"), pool.get("t")));
+    }
+
+    @Test
+    public void testFindCycleOfNestedCycles() {
+        addEdges("s->t", "t->a", "a->c", "t->b", "b->c",
+                "c->s", "c->d", "d->a", "d->e");
+        assertEquals(setOf("s", "t", "a", "b", "c", "d"),
+                pfg.findCycle(pool.get("s"), pool.get("t")));
+    }
+
+    @Test
+    public void testFindNoCycle() {
+        addEdges("s->t", "t->a", "a->b", "b->t");
+        assertTrue(pfg.findCycle(pool.get("s"), pool.get("t")).isEmpty());
+        assertTrue(pfg.findCycle(pool.get("a"), pool.get("a")).isEmpty());
+    }
+
+    @Test
+    public void testCollapse() {
+        addEdges("s->t", "t->b", "b->s", "b->x", "y->t");
+        Pointer rep = pfg.collapse(
+                pfg.findCycle(pool.get("s"), pool.get("t")));
+        for (String name : List.of("s", "t", "b")) {
+            assertEquals(rep, pfg.getRep(pool.get(name)));
+        }
+        assertEquals(setOf("s", "t", "b"), pfg.getMembersOf(pool.get("t")));
+        assertEquals(setOf("x"), pfg.getMembersOf(pool.get("x")));
+        assertEquals(setOf("x"), succsOf("s"));
+        // edges to the collapsed pointers are redirected to the representative
+        assertEquals(Set.of(rep), succsOf("y"));
+        // edges inside the collapsed node are dropped
+        assertFalse(pfg.addEdge(pool.get("t"), pool.get("s")));
+        assertTrue(pfg.addEdge(pool.get("t"), pool.get("z")));
+        assertEquals(setOf("x", "z"), succsOf("b"));
+    }
+
+    @Test
+    public void testFindCycleThroughCollapsedNode() {
+        addEdges("a->b", "b->a");
+        Pointer rep = pfg.collapse(setOf("a", "b"));
+        addEdges("b->c", "c->a");
+        assertEquals(Set.of(rep, pool.get("c")),
+                pfg.findCycle(pool.get("c"), pool.get("a")));
+        rep = pfg.collapse(pfg.findCycle(pool.get("c"), pool.get("a")));
+        assertEquals(setOf("a", "b", "c"), pfg.getMembersOf(rep));
+        assertTrue(succsOf("c").isEmpty());
+    }
+
+    @Test
+    public void testGetReachableFrom() {
+        addEdges("a->b", "b->c", "c->b", "d->a");
+        assertEquals(setOf("a", "b", "c"),
+                pfg.getReachableFrom(List.of(pool.get("a"))));
+    }
+
+    @Test
+    public void testTopologicalOrder() {
+        addEdges("c->d", "a->b", "b->c", "a->c");
+        assertEquals(pool.get("a", "b", "c", "d"),
+                pfg.getTopologicalOrder());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the variants selected by Scaler, and the results of
+ * {@link pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector}
+ * with the selected variants.
+ */
+public class ScalerTest {
+
+    private static final String DIR = "cspta";
+
+    @Test
+    public void testOneObject() {
+        // the objects are allocated in a static method, so the selected
+        // 2-obj contexts are as long as the ones of 1-obj
+        Tests.testCSPTA(DIR, "OneObject", "cs:scaler");
+    }
+
+    @Test
+    public void testTwoObject() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:scaler");
+    }
+
+    @Test
+    public void testSelectVariants() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj");
+        Map<JMethod, String> variants = CSPTA.selectVariants(getOptions());
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        // only the instance methods are selected, and all of them are
+        // cheap enough for the most precise variant
+        assertEquals(Map.of(
+                getMethod(hierarchy, "List", "<init>"), "2-obj",
+                getMethod(hierarchy, "List", "add"), "2-obj",
+                getMethod(hierarchy, "List", "iterator"), "2-obj",
+                getMethod(hierarchy, "List$ListIterator", "<init>"), "2-obj",
+                getMethod(hierarchy, "List$ListIterator", "next"), "2-obj",
+                getMethod(hierarchy, "java.lang.Object", "<init>"), "2-obj"),
+                variants);
+    }
+
+    private static AnalysisOptions getOptions() {
+        return new AnalysisOptions(Map.of(
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", true,
+                // the budget is not applied to the pre-analysis
+                "time-budget", 1,
+                "max-contexts-per-method", 1));
+    }
+
+    private static JMethod getMethod(
+            ClassHierarchy hierarchy, String className, String methodName) {
+        return hierarchy.getClass(className).getDeclaredMethod(methodName);
+    }
+}
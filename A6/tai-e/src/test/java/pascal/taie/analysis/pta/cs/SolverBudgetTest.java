@@ -0,0 +1,105 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the demotions of the methods which exceed the context budget
+ * of {@link SolverBudget}, and the soundness of the demoted result.
+ */
+public class SolverBudgetTest {
+
+    private static final String DIR = "cspta";
+
+    @Test
+    public void testMaxContextsPerMethod() {
+        // builds the world of the test case
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj");
+        PointerAnalysisResult ci = analyze("ci", 0);
+        PointerAnalysisResult precise = analyze("2-obj", 0);
+        PointerAnalysisResult budgeted = analyze("2-obj", 1);
+        MultiMap<JMethod, CSMethod> csMethods = Maps.newMultiMap();
+        budgeted.getCSCallGraph().reachableMethods().forEach(csMethod ->
+                csMethods.put(csMethod.getMethod(), csMethod));
+        for (JMethod method : csMethods.keySet()) {
+            // a method is demoted once it gets its second context,
+            // after which it is only analyzed under the empty context
+            long nonEmpty = csMethods.get(method)
+                    .stream()
+                    .filter(csMethod -> csMethod.getContext().getLength() > 0)
+                    .count();
+            assertTrue(method + " has " + nonEmpty + " contexts", nonEmpty <= 2);
+        }
+        // Object.<init>() is called on all the six objects, thus the
+        // calls after the demotion reach it under the empty context
+        JMethod objInit = World.get().getClassHierarchy()
+                .getClass("java.lang.Object").getDeclaredMethod("<init>");
+        assertTrue(csMethods.get(objInit).stream()
+                .anyMatch(csMethod -> csMethod.getContext().getLength() == 0));
+        // the demoted result is sound, and at least as precise as
+        // the context-insensitive one
+        assertEquals(precise.getCallGraph().getNumberOfMethods(),
+                budgeted.getCallGraph().getNumberOfMethods());
+        for (Var var : precise.getVars()) {
+            Set<?> pts = budgeted.getPointsToSet(var);
+            assertTrue(var.toString(), pts.containsAll(precise.getPointsToSet(var)));
+            assertTrue(var.toString(), ci.getPointsToSet(var).containsAll(pts));
+        }
+    }
+
+    @Test
+    public void testNoBudget() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj",
+                "time-budget:0", "heap-budget:0", "max-contexts-per-method:0");
+    }
+
+    @Test
+    public void testLargeBudget() {
+        // the budget is not exceeded, thus no method is demoted
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj",
+                "time-budget:3600", "max-contexts-per-method:100");
+    }
+
+    private static PointerAnalysisResult analyze(String cs, int maxContexts) {
+        return new CSPTA(new AnalysisConfig(CSPTA.ID,
+                "cs", cs, "max-contexts-per-method", maxContexts,
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", true)).analyze();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pointers for testing PFG and work list, which are identified by names.
+ * They have no points-to sets, and their pending sets only count
+ * the points-to sets added to them.
+ */
+class TestPointer implements Pointer {
+
+    private final String name;
+
+    private final int index;
+
+    private int pending;
+
+    private TestPointer(String name, int index) {
+        this.name = name;
+        this.index = index;
+    }
+
+    @Override
+    public PointsToSet getPointsToSet() {
+        return null;
+    }
+
+    @Override
+    public void setPointsToSet(PointsToSet pointsToSet) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addPending(PointsToSet pts) {
+        return pending++ == 0;
+    }
+
+    @Override
+    public PointsToSet pollPending() {
+        pending = 0;
+        return null;
+    }
+
+    @Override
+    public Type getType() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Creates the pointers on demand and assigns them consecutive indexes.
+     */
+    static class Pool implements Indexer<Pointer> {
+
+        private final Map<String, TestPointer> byName = Maps.newMap();
+
+        private final List<TestPointer> pointers = new ArrayList<>();
+
+        /**
+         * @return the pointer of given name.
+         */
+        TestPointer get(String name) {
+            return byName.computeIfAbsent(name, n -> {
+                TestPointer pointer = new TestPointer(n, pointers.size());
+                pointers.add(pointer);
+                return pointer;
+            });
+        }
+
+        /**
+         * @return the pointers of given names.
+         */
+        List<Pointer> get(String... names) {
+            List<Pointer> result = new ArrayList<>(names.length);
+            for (String name : names) {
+                result.add(get(name));
+            }
+            return result;
+        }
+
+        @Override
+        public int getIndex(Pointer o) {
+            return ((TestPointer) o).index;
+        }
+
+        @Override
+        public Pointer getObject(int index) {
+            return pointers.get(index);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.AbstractCSPTATest;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the test cases with type filtering, and checks the filtering of
+ * casts and the subtype lookup of {@link TypeFilter}.
+ */
+public class TypeFilterTest extends AbstractCSPTATest {
+
+    /**
+     * The directory of the test cases whose results differ with
+     * type filtering, e.g., the ones with casts.
+     */
+    private static final String DIR = "cspta-type-filter";
+
+    public TypeFilterTest() {
+        super("type-filter:true");
+    }
+
+    @Test
+    public void testCastWithoutTypeFilter() {
+        // casts are not modeled without type filtering
+        Tests.testCSPTA("cspta", "Cast", "type-filter:false");
+    }
+
+    @Test
+    public void testCast() {
+        Tests.testCSPTA(DIR, "Cast", "type-filter:true");
+    }
+
+    @Test
+    public void testCastInParallel() {
+        Tests.testCSPTA(DIR, "Cast", "type-filter:true", "parallelism:4");
+    }
+
+    @Test
+    public void testSubtypeLookup() {
+        Tests.testCSPTA(DIR, "Cast", "type-filter:true");
+        TypeSystem typeSystem = World.get().getTypeSystem();
+        TypeFilter typeFilter = new TypeFilter(
+                World.get().getClassHierarchy(), typeSystem, null);
+        List<Type> types = new ArrayList<>();
+        for (String name : List.of("A", "B", "Cast", "java.lang.Object",
+                "java.lang.String", "java.lang.CharSequence",
+                "java.lang.Comparable", "java.io.Serializable",
+                "java.lang.Integer", "java.lang.Number")) {
+            types.add(typeSystem.getClassType(name));
+        }
+        types.add(typeSystem.getArrayType(typeSystem.getClassType("A"), 1));
+        types.add(typeSystem.getArrayType(typeSystem.getClassType("B"), 1));
+        types.add(typeSystem.getArrayType(
+                typeSystem.getClassType("java.lang.Object"), 1));
+        for (Type from : types) {
+            for (Type to : types) {
+                assertEquals(from + " -> " + to,
+                        typeSystem.isSubtype(to, from),
+                        typeFilter.isAssignable(from, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.config.ConfigException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WorkListTest {
+
+    private final TestPointer.Pool pool = new TestPointer.Pool();
+
+    private void add(WorkList workList, String... names) {
+        pool.get(names).forEach(p -> workList.addEntry(p, null));
+    }
+
+    /**
+     * Polls given number of entries from the work list.
+     */
+    private static List<Pointer> poll(WorkList workList, int n) {
+        List<Pointer> polled = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            polled.add(workList.pollEntry().pointer());
+        }
+        return polled;
+    }
+
+    @Test
+    public void testEntryWorkList() {
+        WorkList workList = WorkList.newEntryWorkList();
+        add(workList, "a", "b", "a");
+        assertEquals(pool.get("a", "b", "a"), poll(workList, 3));
+        assertTrue(workList.isEmpty());
+        assertNull(workList.pollEntry());
+        assertEquals("Entry work list: 3 entries added, 0 coalesced, 3 polled",
+                workList.getStatistics());
+    }
+
+    @Test
+    public void testFIFO() {
+        WorkList workList = new WorkList(WorkList.Policy.FIFO, null);
+        add(workList, "a", "b", "a", "c", "b");
+        assertEquals(pool.get("a", "b", "c"), poll(workList, 3));
+        assertTrue(workList.isEmpty());
+        // polled pointers are queued again
+        add(workList, "b", "a");
+        assertEquals(pool.get("b", "a"), poll(workList, 2));
+        assertNull(workList.pollEntry());
+        assertEquals("FIFO work list: 7 entries added, 2 coalesced, 5 polled",
+                workList.getStatistics());
+    }
+
+    @Test
+    public void testLRF() {
+        WorkList workList = new WorkList(WorkList.Policy.LRF, null);
+        add(workList, "a", "b");
+        assertEquals(pool.get("a"), workList.pollEntry().pointer());
+        add(workList, "a", "c", "a");
+        // b and c have never been fired
+        assertEquals(pool.get("b"), workList.pollEntry().pointer());
+        assertEquals(pool.get("c"), workList.pollEntry().pointer());
+        add(workList, "b");
+        // a was fired before b
+        assertEquals(pool.get("a", "b"), poll(workList, 2));
+        assertTrue(workList.isEmpty());
+    }
+
+    @Test
+    public void testTopo() {
+        PointerFlowGraph pfg = new PointerFlowGraph(pool, false);
+        pfg.addEdge(pool.get("a"), pool.get("b"));
+        pfg.addEdge(pool.get("b"), pool.get("c"));
+        WorkList workList = new WorkList(WorkList.Policy.TOPO, pfg, 1);
+        add(workList, "c", "b", "a");
+        assertEquals(pool.get("a", "b", "c"), poll(workList, 3));
+        // d is absent in the last order, and is ordered
+        // when the order is recomputed
+        pfg.addEdge(pool.get("d"), pool.get("a"));
+        add(workList, "c", "a", "d");
+        assertEquals(pool.get("d", "a", "c"), poll(workList, 3));
+        assertTrue(workList.isEmpty());
+    }
+
+    @Test
+    public void testTopoPeriod() {
+        PointerFlowGraph pfg = new PointerFlowGraph(pool, false);
+        pfg.addEdge(pool.get("a"), pool.get("b"));
+        WorkList workList = new WorkList(WorkList.Policy.TOPO, pfg, 10);
+        add(workList, "b", "a");
+        assertEquals(pool.get("a", "b"), poll(workList, 2));
+        // the order is not recomputed in this period,
+        // thus the new pointers are processed last
+        pfg.addEdge(pool.get("c"), pool.get("a"));
+        add(workList, "a", "c");
+        assertEquals(pool.get("a", "c"), poll(workList, 2));
+    }
+
+    @Test
+    public void testConcurrentWorkList() throws Exception {
+        WorkList workList = WorkList.newConcurrentWorkList();
+        add(workList, "a", "b");
+        assertEquals(pool.get("a"), workList.takeEntry().pointer());
+        assertEquals(pool.get("b"), workList.takeEntry().pointer());
+        assertTrue(workList.isEmpty());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // waits for the entry added by the unfinished one
+            Future<WorkList.Entry> taken = executor.submit(workList::takeEntry);
+            workList.finishEntry();
+            assertFalse(taken.isDone());
+            add(workList, "c");
+            workList.finishEntry();
+            assertEquals(pool.get("c"),
+                    taken.get(10, TimeUnit.SECONDS).pointer());
+            // waits until the last entry is finished
+            Future<WorkList.Entry> none = executor.submit(workList::takeEntry);
+            workList.finishEntry();
+            assertNull(none.get(10, TimeUnit.SECONDS));
+            assertNull(workList.takeEntry());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPolicyOf() {
+        assertEquals(WorkList.Policy.TOPO, WorkList.Policy.of("topo"));
+        assertEquals(WorkList.Policy.LRF, WorkList.Policy.of("LRF"));
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testUnknownPolicy() {
+        WorkList.Policy.of("coalescing");
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import org.junit.Test;
+import pascal.taie.analysis.pta.pts.SetInterner.Canonical;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of {@link SetInterner}, which only work on object indexes, thus
+ * the interners are created without indexers.
+ */
+public class SetInternerTest {
+
+    @Test
+    public void testIntern() {
+        SetInterner interner = new SetInterner(null);
+        Canonical s = interner.intern(new int[]{ 1, 2, 3 });
+        assertSame(s, interner.intern(new int[]{ 1, 2, 3 }));
+        assertSame(interner.empty(), interner.intern(new int[0]));
+        assertSame(s, interner.add(interner.intern(new int[]{ 1, 3 }), 2));
+        assertSame(s, interner.add(s, 1));
+    }
+
+    @Test
+    public void testOperations() {
+        Random random = new Random(1);
+        SetInterner interner = new SetInterner(null);
+        for (int i = 0; i < 1000; ++i) {
+            TreeSet<Integer> e1 = randomSet(random), e2 = randomSet(random);
+            Canonical s1 = interner.intern(toArray(e1));
+            Canonical s2 = interner.intern(toArray(e2));
+            TreeSet<Integer> union = new TreeSet<>(e1);
+            union.addAll(e2);
+            Canonical result = interner.union(s1, s2);
+            assertArrayEquals(toArray(union), result.elems);
+            assertSame(interner.intern(toArray(union)), result);
+            // unions with transient sets give canonical sets
+            Canonical transientSet = interner.transientSet(
+                    toShuffledArray(e2, random));
+            assertArrayEquals(toArray(e2), transientSet.elems);
+            assertSame(result, interner.union(s1, transientSet));
+            TreeSet<Integer> diff = new TreeSet<>(e1);
+            diff.removeAll(e2);
+            assertArrayEquals(toArray(diff), interner.difference(s1, s2).elems);
+        }
+    }
+
+    @Test
+    public void testTransientSetsAreNotInterned() {
+        SetInterner interner = new SetInterner(null);
+        Canonical s1 = interner.intern(new int[]{ 1, 2, 3 });
+        Canonical s2 = interner.intern(new int[]{ 2 });
+        Canonical diff = interner.difference(s1, s2);
+        assertArrayEquals(new int[]{ 1, 3 }, diff.elems);
+        Canonical canonical = interner.intern(new int[]{ 1, 3 });
+        assertNotSame(diff, canonical);
+        // the union with a transient subset keeps the canonical set
+        assertSame(s1, interner.union(s1, diff));
+        // the union of a transient set with the empty set is interned
+        assertSame(canonical, interner.union(diff, interner.empty()));
+        Canonical t = interner.transientSet(new int[]{ 3, 1, 3 });
+        assertSame(canonical, interner.union(interner.empty(), t));
+        assertEquals(0, interner.getMemoizedUnions());
+    }
+
+    @Test
+    public void testMemoizedUnions() {
+        SetInterner interner = new SetInterner(null);
+        Canonical s1 = interner.intern(new int[]{ 1 });
+        Canonical s2 = interner.intern(new int[]{ 2 });
+        Canonical union = interner.union(s1, s2);
+        assertEquals(1, interner.getMemoizedUnions());
+        assertSame(union, interner.union(s1, s2));
+        assertSame(union, interner.union(s2, s1));
+        assertEquals(1, interner.getMemoizedUnions());
+        // trivial unions are not memoized
+        assertSame(s1, interner.union(s1, s1));
+        assertSame(s1, interner.union(s1, interner.empty()));
+        assertEquals(1, interner.getMemoizedUnions());
+    }
+
+    @Test
+    public void testUnreferencedSetsAreReclaimed() {
+        SetInterner interner = new SetInterner(null);
+        int size = interner.size();
+        interner.intern(new int[]{ 1, 2, 3 });
+        interner.add(interner.intern(new int[]{ 4 }), 5);
+        awaitReclaimed(() -> interner.size() == size);
+        assertEquals(size, interner.size());
+    }
+
+    /**
+     * The memoized unions keep their results alive until the cache is
+     * cleared, when it grows beyond its limit.
+     */
+    @Test
+    public void testUnionCacheEviction() {
+        SetInterner interner = new SetInterner(null, 2);
+        Canonical s1 = interner.intern(new int[]{ 1 });
+        Canonical s2 = interner.intern(new int[]{ 2 });
+        Canonical s3 = interner.intern(new int[]{ 3 });
+        int size = interner.size();
+        interner.union(s1, s2);
+        interner.union(s1, s3);
+        assertEquals(2, interner.getMemoizedUnions());
+        assertEquals(size + 2, interner.size());
+        System.gc();
+        assertEquals(size + 2, interner.size());
+        // the third union clears the cache, thus {1, 2} and {1, 3}
+        // can be reclaimed, and {2, 3} is kept by the cache
+        interner.union(s2, s3);
+        assertEquals(1, interner.getMemoizedUnions());
+        awaitReclaimed(() -> interner.size() == size + 1);
+        assertEquals(size + 1, interner.size());
+        // the reclaimed unions are recomputed
+        assertArrayEquals(new int[]{ 1, 2 }, interner.union(s1, s2).elems);
+    }
+
+    /**
+     * Triggers garbage collections until the condition holds or
+     * the attempts run out.
+     */
+    private static void awaitReclaimed(BooleanSupplier condition) {
+        for (int i = 0; i < 50 && !condition.getAsBoolean(); ++i) {
+            System.gc();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static TreeSet<Integer> randomSet(Random random) {
+        TreeSet<Integer> set = new TreeSet<>();
+        int bound = 1 + random.nextInt(50);
+        for (int i = random.nextInt(20); i > 0; --i) {
+            set.add(random.nextInt(bound));
+        }
+        return set;
+    }
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return the elements of given set in random order, some of which
+     * are duplicated, i.e., the input of {@link SetInterner#transientSet(int[])}.
+     */
+    private static int[] toShuffledArray(TreeSet<Integer> set, Random random) {
+        List<Integer> elems = new ArrayList<>();
+        for (int e : set) {
+            elems.add(e);
+            if (random.nextBoolean()) {
+                elems.add(e);
+            }
+        }
+        Collections.shuffle(elems, random);
+        return elems.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
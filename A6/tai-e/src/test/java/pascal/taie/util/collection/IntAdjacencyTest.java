@@ -0,0 +1,244 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link CSRAdjacency} and {@link ConcurrentAdjacency} against
+ * sorted sets of targets.
+ */
+public class IntAdjacencyTest {
+
+    @Test
+    public void testCSRRandomOperations() {
+        checkRandomOperations(CSRAdjacency::new, 100, 1);
+        // many edges from few sources, which trigger compaction
+        checkRandomOperations(CSRAdjacency::new, 8, 2);
+    }
+
+    @Test
+    public void testConcurrentRandomOperations() {
+        checkRandomOperations(ConcurrentAdjacency::new, 100, 3);
+        // sources in several chunks
+        checkRandomOperations(ConcurrentAdjacency::new, 5000, 4);
+    }
+
+    /**
+     * Edges added after compaction go to overflow blocks, and edges added
+     * after removals reuse the unused slots in CSR rows.
+     */
+    @Test
+    public void testCSROverflowAndSlotReuse() {
+        CSRAdjacency adj = new CSRAdjacency();
+        Model model = new Model();
+        for (int t = 0; t < 10; t += 2) {
+            add(adj, model, 1, t);
+        }
+        adj.compact();
+        check(adj, model);
+        // overflow blocks, merged with the CSR row in order
+        add(adj, model, 1, 5);
+        add(adj, model, 1, 11);
+        add(adj, model, 1, 3);
+        add(adj, model, 3, 7);
+        assertFalse(adj.add(1, 5));
+        assertFalse(adj.add(1, 4));
+        check(adj, model);
+        // unused slots in the CSR row
+        remove(adj, model, 1, 4);
+        remove(adj, model, 1, 0);
+        check(adj, model);
+        assertFalse(adj.add(1, 5));
+        add(adj, model, 1, 1);
+        add(adj, model, 1, 9);
+        add(adj, model, 1, 13);
+        check(adj, model);
+        remove(adj, model, 1, 11);
+        remove(adj, model, 3, 7);
+        assertFalse(adj.remove(3, 7));
+        check(adj, model);
+        adj.compact();
+        check(adj, model);
+    }
+
+    @Test
+    public void testRemoveAll() {
+        for (IntAdjacency adj : List.of(new CSRAdjacency(), new ConcurrentAdjacency())) {
+            Model model = new Model();
+            for (int t = 0; t < 5; ++t) {
+                add(adj, model, 0, t);
+                add(adj, model, 2, t);
+            }
+            if (adj instanceof CSRAdjacency csr) {
+                csr.compact();
+                // edges in both the CSR row and the overflow block
+                add(adj, model, 2, 10);
+            }
+            adj.removeAll(2);
+            model.removeAll(2);
+            adj.removeAll(7);
+            check(adj, model);
+            assertEquals(0, adj.getDegree(2));
+            // the source can get edges again
+            add(adj, model, 2, 3);
+            check(adj, model);
+        }
+    }
+
+    /**
+     * Threads add and remove edges of disjoint sources in parallel.
+     */
+    @Test
+    public void testConcurrentSources() throws Exception {
+        int threads = 4, sourcesPerThread = 3000;
+        ConcurrentAdjacency adj = new ConcurrentAdjacency();
+        List<Model> models = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < threads; ++i) {
+                int thread = i;
+                Model model = new Model();
+                models.add(model);
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(thread);
+                    for (int j = 0; j < 50_000; ++j) {
+                        int source = random.nextInt(sourcesPerThread) * threads + thread;
+                        int target = random.nextInt(64);
+                        if (random.nextInt(4) == 0) {
+                            assertEquals(model.remove(source, target),
+                                    adj.remove(source, target));
+                        } else {
+                            assertEquals(model.add(source, target),
+                                    adj.add(source, target));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Model all = new Model();
+        models.forEach(model -> model.targets.forEach((source, targets) ->
+                targets.forEach(target -> all.add(source, target))));
+        check(adj, all);
+    }
+
+    private static void checkRandomOperations(
+            Supplier<IntAdjacency> factory, int nSources, long seed) {
+        Random random = new Random(seed);
+        IntAdjacency adj = factory.get();
+        Model model = new Model();
+        for (int i = 0; i < 20_000; ++i) {
+            int source = random.nextInt(nSources);
+            int target = random.nextInt(1000);
+            int op = random.nextInt(100);
+            if (op < 60) {
+                assertEquals(model.add(source, target), adj.add(source, target));
+            } else if (op < 95) {
+                assertEquals(model.remove(source, target), adj.remove(source, target));
+            } else if (op < 97) {
+                adj.removeAll(source);
+                model.removeAll(source);
+            } else if (op < 98 && adj instanceof CSRAdjacency csr) {
+                csr.compact();
+            } else {
+                check(adj, model);
+            }
+        }
+        check(adj, model);
+    }
+
+    private static void add(IntAdjacency adj, Model model, int source, int target) {
+        assertTrue(model.add(source, target));
+        assertTrue(adj.add(source, target));
+    }
+
+    private static void remove(IntAdjacency adj, Model model, int source, int target) {
+        assertTrue(model.remove(source, target));
+        assertTrue(adj.remove(source, target));
+    }
+
+    private static void check(IntAdjacency adj, Model model) {
+        int size = 0;
+        for (int source = 0; source < adj.getNodeBound(); ++source) {
+            List<Integer> targets = new ArrayList<>();
+            adj.forEachTarget(source, targets::add);
+            List<Integer> expected = new ArrayList<>(model.getTargets(source));
+            assertEquals(expected, targets);
+            assertEquals(expected.size(), adj.getDegree(source));
+            size += expected.size();
+        }
+        assertEquals(model.size(), size);
+        if (adj instanceof CSRAdjacency csr) {
+            assertEquals(model.size(), csr.size());
+        }
+    }
+
+    /**
+     * Reference adjacency lists.
+     */
+    private static class Model {
+
+        private final Map<Integer, TreeSet<Integer>> targets = new HashMap<>();
+
+        private boolean add(int source, int target) {
+            return targets.computeIfAbsent(source, s -> new TreeSet<>()).add(target);
+        }
+
+        private boolean remove(int source, int target) {
+            return getTargets(source).remove(target);
+        }
+
+        private void removeAll(int source) {
+            targets.remove(source);
+        }
+
+        private TreeSet<Integer> getTargets(int source) {
+            return targets.getOrDefault(source, new TreeSet<>());
+        }
+
+        private int size() {
+            return targets.values().stream().mapToInt(TreeSet::size).sum();
+        }
+    }
+}
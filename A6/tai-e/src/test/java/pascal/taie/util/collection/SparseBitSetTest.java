@@ -0,0 +1,225 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link SparseBitSet} against {@link BitSet}.
+ */
+public class SparseBitSetTest {
+
+    private static final int ROUNDS = 2000;
+
+    @Test
+    public void testSetAndGet() {
+        Random random = new Random(1);
+        for (int i = 0; i < ROUNDS; ++i) {
+            BitSet expected = new BitSet();
+            SparseBitSet actual = new SparseBitSet();
+            int bound = randomBound(random);
+            for (int j = random.nextInt(100); j > 0; --j) {
+                int bit = random.nextInt(bound);
+                assertEquals(!expected.get(bit), actual.set(bit));
+                expected.set(bit);
+            }
+            for (int j = 0; j < 100; ++j) {
+                int bit = random.nextInt(bound);
+                assertEquals(expected.get(bit), actual.get(bit));
+            }
+            assertSameBits(expected, actual);
+        }
+    }
+
+    @Test
+    public void testOr() {
+        Random random = new Random(2);
+        for (int i = 0; i < ROUNDS; ++i) {
+            BitSet e1 = randomBits(random), e2 = randomBits(random);
+            SparseBitSet s1 = toSparse(e1), s2 = toSparse(e2);
+            BitSet expected = (BitSet) e1.clone();
+            expected.or(e2);
+            assertEquals(!expected.equals(e1), s1.or(s2));
+            assertSameBits(expected, s1);
+            // the argument is unchanged
+            assertSameBits(e2, s2);
+        }
+    }
+
+    @Test
+    public void testOrDiff() {
+        Random random = new Random(3);
+        for (int i = 0; i < ROUNDS; ++i) {
+            BitSet e1 = randomBits(random), e2 = randomBits(random);
+            SparseBitSet s1 = toSparse(e1), s2 = toSparse(e2);
+            BitSet expectedDiff = (BitSet) e2.clone();
+            expectedDiff.andNot(e1);
+            BitSet expected = (BitSet) e1.clone();
+            expected.or(e2);
+            SparseBitSet diff = s1.orDiff(s2);
+            assertSameBits(expectedDiff, diff);
+            assertSameBits(expected, s1);
+        }
+    }
+
+    /**
+     * The merge of {@link SparseBitSet#or(SparseBitSet)} works from
+     * the tail, in place or into new arrays; these cases put the new
+     * words after, before, and between the existing ones.
+     */
+    @Test
+    public void testTailMerges() {
+        // new words after all existing words
+        checkOr(new int[]{ 1, 65 }, new int[]{ 130, 200, 1000 });
+        // new words before all existing words, which keeps no prefix
+        checkOr(new int[]{ 1000, 2000 }, new int[]{ 1, 65, 130 });
+        // interleaved words, some of which exist in both sets
+        checkOr(new int[]{ 0, 128, 256, 384 }, new int[]{ 1, 64, 129, 200, 385, 500 });
+        // only existing words, i.e., no array growth
+        checkOr(new int[]{ 0, 64, 128 }, new int[]{ 1, 65, 129 });
+        // the existing prefix is copied when arrays grow
+        checkOr(new int[]{ 0, 64, 128, 192 }, new int[]{ 150, 300, 400, 500 });
+        // empty sets
+        checkOr(new int[0], new int[]{ 5, 500 });
+        checkOr(new int[]{ 5, 500 }, new int[0]);
+    }
+
+    @Test
+    public void testOrSelf() {
+        SparseBitSet set = toSparse(bits(3, 300));
+        assertFalse(set.or(set));
+        assertTrue(set.orDiff(set).isEmpty());
+        assertSameBits(bits(3, 300), set);
+    }
+
+    @Test
+    public void testNextSetBit() {
+        Random random = new Random(4);
+        for (int i = 0; i < ROUNDS; ++i) {
+            BitSet expected = randomBits(random);
+            SparseBitSet actual = toSparse(expected);
+            for (int j = 0; j < 20; ++j) {
+                int from = random.nextInt(expected.length() + 200);
+                assertEquals(expected.nextSetBit(from), actual.nextSetBit(from));
+            }
+        }
+    }
+
+    @Test
+    public void testCopy() {
+        BitSet expected = bits(1, 70, 7000);
+        SparseBitSet set = toSparse(expected);
+        SparseBitSet copy = new SparseBitSet(set);
+        assertEquals(set, copy);
+        copy.set(2);
+        copy.or(toSparse(bits(100000)));
+        assertSameBits(expected, set);
+        assertTrue(new SparseBitSet(new SparseBitSet()).isEmpty());
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        Random random = new Random(5);
+        for (int i = 0; i < ROUNDS; ++i) {
+            BitSet bits = randomBits(random);
+            SparseBitSet s1 = toSparse(bits);
+            // builds the same set in another order and by union
+            SparseBitSet s2 = new SparseBitSet();
+            bits.stream().map(b -> -b).sorted().forEach(b -> s2.set(-b));
+            SparseBitSet s3 = new SparseBitSet();
+            s3.or(s1);
+            assertEquals(s1, s2);
+            assertEquals(s1, s3);
+            assertEquals(s1.hashCode(), s2.hashCode());
+            assertEquals(s1.hashCode(), s3.hashCode());
+        }
+    }
+
+    private static void checkOr(int[] bits1, int[] bits2) {
+        BitSet e1 = bits(bits1), e2 = bits(bits2);
+        BitSet expected = (BitSet) e1.clone();
+        expected.or(e2);
+        BitSet expectedDiff = (BitSet) e2.clone();
+        expectedDiff.andNot(e1);
+        SparseBitSet s1 = toSparse(e1);
+        assertEquals(!expectedDiff.isEmpty(), s1.or(toSparse(e2)));
+        assertSameBits(expected, s1);
+        SparseBitSet s2 = toSparse(e1);
+        assertSameBits(expectedDiff, s2.orDiff(toSparse(e2)));
+        assertSameBits(expected, s2);
+    }
+
+    /**
+     * @return a bound of bits, so that sets are dense in one word,
+     * dense in few words or sparse in many words.
+     */
+    private static int randomBound(Random random) {
+        return switch (random.nextInt(3)) {
+            case 0 -> 64;
+            case 1 -> 512;
+            default -> 1 << 20;
+        };
+    }
+
+    private static BitSet randomBits(Random random) {
+        BitSet bits = new BitSet();
+        int bound = randomBound(random);
+        for (int i = random.nextInt(100); i > 0; --i) {
+            bits.set(random.nextInt(bound));
+        }
+        return bits;
+    }
+
+    private static BitSet bits(int... indexes) {
+        BitSet bits = new BitSet();
+        for (int i : indexes) {
+            bits.set(i);
+        }
+        return bits;
+    }
+
+    private static SparseBitSet toSparse(BitSet bits) {
+        SparseBitSet set = new SparseBitSet();
+        bits.stream().forEach(set::set);
+        return set;
+    }
+
+    private static void assertSameBits(BitSet expected, SparseBitSet actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        PrimitiveIterator.OfInt it = actual.iterator();
+        expected.stream().forEach(bit -> {
+            assertTrue(it.hasNext());
+            assertEquals(bit, it.nextInt());
+        });
+        assertFalse(it.hasNext());
+    }
+}
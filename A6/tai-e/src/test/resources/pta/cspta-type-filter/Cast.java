@@ -0,0 +1,18 @@
+public class Cast {
+
+    public static void main(String[] args) {
+        Object o = new A();
+        o = new B();
+        A a = (A) o;
+        B b = (B) o;
+        b.m();
+    }
+}
+
+class A {
+    void m() {
+    }
+}
+
+class B extends A {
+}
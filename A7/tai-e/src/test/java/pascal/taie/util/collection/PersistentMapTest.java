@@ -0,0 +1,172 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks {@link PersistentMap} against {@link HashMap} on random
+ * operations, including copies which share nodes.
+ */
+public class PersistentMapTest {
+
+    private static final int MAPS = 4;
+
+    private static final int OPERATIONS = 200_000;
+
+    /**
+     * Keys are drawn from a small range to hit existing keys often,
+     * and their hashes from an even smaller one to create collisions.
+     */
+    private static final int KEYS = 2_000;
+
+    private static final int HASHES = 500;
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(1);
+        List<PersistentMap<Key, Integer>> maps = new ArrayList<>();
+        List<Map<Key, Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < MAPS; ++i) {
+            maps.add(new PersistentMap<>());
+            expected.add(new HashMap<>());
+        }
+        for (int op = 0; op < OPERATIONS; ++op) {
+            int i = random.nextInt(MAPS);
+            PersistentMap<Key, Integer> map = maps.get(i);
+            Map<Key, Integer> exp = expected.get(i);
+            Key key = randomKey(random);
+            switch (random.nextInt(20)) {
+                case 0 -> {
+                    int j = random.nextInt(MAPS);
+                    map.setTo(maps.get(j));
+                    expected.set(i, new HashMap<>(expected.get(j)));
+                }
+                case 1 -> {
+                    int j = random.nextInt(MAPS);
+                    maps.set(i, new PersistentMap<>(maps.get(j)));
+                    expected.set(i, new HashMap<>(expected.get(j)));
+                }
+                case 2 -> {
+                    if (random.nextInt(20) == 0) {
+                        map.clear();
+                        exp.clear();
+                    }
+                }
+                case 3, 4, 5, 6 -> assertEquals(exp.remove(key), map.remove(key));
+                case 7 -> assertEquals(exp.keySet().remove(key), map.keySet().remove(key));
+                default -> {
+                    int value = random.nextInt(4);
+                    assertEquals(exp.put(key, value), map.put(key, value));
+                }
+            }
+            // the map may have been replaced by a copy
+            map = maps.get(i);
+            exp = expected.get(i);
+            assertEquals(exp.size(), map.size());
+            assertEquals(exp.get(key), map.get(key));
+            assertEquals(exp.containsKey(key), map.containsKey(key));
+            if (op % 1000 == 0) {
+                for (int k = 0; k < MAPS; ++k) {
+                    assertEquals(expected.get(k), maps.get(k));
+                    assertEquals(expected.get(k).entrySet(), maps.get(k).entrySet());
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies of the same map are updated by different threads,
+     * which must not affect each other or the copied map.
+     */
+    @Test
+    public void testConcurrentCopies() throws Exception {
+        Random random = new Random(2);
+        PersistentMap<Key, Integer> base = new PersistentMap<>();
+        for (int i = 0; i < KEYS / 2; ++i) {
+            base.put(randomKey(random), random.nextInt(4));
+        }
+        Map<Key, Integer> expectedBase = new HashMap<>(base);
+        int nThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < nThreads; ++t) {
+                long seed = random.nextLong();
+                futures.add(executor.submit(() -> {
+                    Random r = new Random(seed);
+                    for (int round = 0; round < 50; ++round) {
+                        PersistentMap<Key, Integer> copy = new PersistentMap<>(base);
+                        Map<Key, Integer> exp = new HashMap<>(expectedBase);
+                        for (int op = 0; op < 200; ++op) {
+                            Key key = randomKey(r);
+                            if (r.nextBoolean()) {
+                                int value = r.nextInt(4);
+                                assertEquals(exp.put(key, value), copy.put(key, value));
+                            } else {
+                                assertEquals(exp.remove(key), copy.remove(key));
+                            }
+                        }
+                        assertEquals(exp, copy);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(expectedBase, base);
+    }
+
+    private static Key randomKey(Random random) {
+        int id = random.nextInt(KEYS);
+        return new Key(id, id % HASHES);
+    }
+
+    private record Key(int id, int hash) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && key.id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}